@@ -1,3 +1,8 @@
+import java.io.DataOutputStream
+import java.io.File
+import javax.inject.Inject
+import org.gradle.process.ExecOperations
+
 plugins {
     id("com.android.application")
 }
@@ -33,10 +38,177 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.11.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
     testImplementation("junit:junit:4.13.2")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
-}
\ No newline at end of file
+}
+
+/**
+ * Encodes the big sprite sheets to ETC2 RGBA8 (ETC2 colour with EAC alpha, which every ES 3 device can sample) with their
+ * whole mip chain, as KTX files in the app's assets. The game uploads them with glCompressedTexImage2D instead of
+ * decoding the png and building mipmaps on the phone. Uses etc2comp's EtcTool, found through the etc2.encoder
+ * property (gradle.properties or -P) or on the PATH. Without it the build still works and the game uses the pngs,
+ * unless etc2.encoder was set, then the build fails since the encoder it names is missing.
+ * The encoder that was found is an input, so installing it later makes the task run again instead of staying up to date.
+ */
+abstract class EncodeEtc2Textures : DefaultTask() {
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.NAME_ONLY)
+    abstract val textures: ConfigurableFileCollection
+
+    @get:Input
+    abstract val encoder: Property<String>
+
+    // the encoder found from the name, missing if there isn't one
+    @get:InputFile
+    @get:Optional
+    abstract val encoderFile: RegularFileProperty
+
+    // true when the encoder was asked for by name, so not finding it is an error
+    @get:Input
+    abstract val encoderRequired: Property<Boolean>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @get:Inject
+    abstract val execOperations: ExecOperations
+
+    @TaskAction
+    fun encode() {
+        val out = outputDir.get().dir("textures").asFile
+        out.deleteRecursively()
+        out.mkdirs()
+
+        val tool = encoderFile.orNull?.asFile
+        if (tool == null) {
+            if (encoderRequired.get()) {
+                throw GradleException("ETC2 encoder '${encoder.get()}' set by etc2.encoder not found")
+            }
+            logger.warn("ETC2 encoder '${encoder.get()}' not found, the game will load the png textures")
+            return
+        }
+        textures.files.sortedBy { it.name }.forEach { png ->
+            val ktx = File(out, png.nameWithoutExtension + ".ktx")
+            execOperations.exec {
+                commandLine(tool.absolutePath, png.absolutePath,
+                    "-format", "RGBA8",
+                    "-effort", "60",
+                    "-mipmaps", "16",
+                    "-output", ktx.absolutePath)
+            }
+        }
+    }
+
+    companion object {
+        fun findEncoder(name: String): File? {
+            val direct = File(name)
+            if (direct.isAbsolute || name.contains(File.separatorChar)) {
+                return direct.takeIf { it.canExecute() }
+            }
+            return System.getenv("PATH").orEmpty().split(File.pathSeparatorChar)
+                .map { File(it, name) }
+                .firstOrNull { it.canExecute() }
+        }
+    }
+}
+
+// the sprite sheets and other textures that don't go in the atlas (see GLManager.ATLAS_RESOURCES)
+val etc2Textures = listOf("samurai", "goblin", "slime", "characters", "monsterspawner", "slash2")
+
+val encodeEtc2Textures = tasks.register<EncodeEtc2Textures>("encodeEtc2Textures") {
+    textures.from(etc2Textures.map { "src/main/res/drawable/$it.png" })
+    encoder.set(providers.gradleProperty("etc2.encoder").orElse("EtcTool"))
+    encoderFile.fileProvider(encoder.map { EncodeEtc2Textures.findEncoder(it) })
+    encoderRequired.set(providers.gradleProperty("etc2.encoder").map { true }.orElse(false))
+    outputDir.set(layout.buildDirectory.dir("generated/etc2"))
+}
+
+/**
+ * Compiles the text levels in src/main/levels (one line per row, see LevelData for the symbols) into the binary files
+ * LevelData.read() loads from the app's assets: "BDLV", the version, the rows and columns, one byte per cell holding
+ * its tile ('.' where there isn't one), then the spawn count and each enemy, coin, player and end as its symbol, row and
+ * column, in column order. Levels that aren't rectangles or use an unknown symbol fail the build instead of the game.
+ */
+abstract class CompileLevels : DefaultTask() {
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.NAME_ONLY)
+    abstract val levels: ConfigurableFileCollection
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun compile() {
+        val out = outputDir.get().dir("levels").asFile
+        out.deleteRecursively()
+        out.mkdirs()
+
+        levels.files.sortedBy { it.name }.forEach { source ->
+            val rows = source.readLines().map { it.trimEnd() }.filter { it.isNotEmpty() }
+            if (rows.isEmpty()) {
+                throw GradleException("${source.name} has no rows")
+            }
+            val columns = rows[0].length
+            rows.forEachIndexed { row, line ->
+                if (line.length != columns) {
+                    throw GradleException("${source.name} row ${row + 1} is ${line.length} long, the level must be a rectangle of $columns")
+                }
+            }
+            if (rows.size > 0xFFFF || columns > 0xFFFF) {
+                throw GradleException("${source.name} is too big, rows and columns are stored as unsigned shorts")
+            }
+
+            val tiles = ByteArray(rows.size * columns) { '.'.code.toByte() }
+            val spawns = mutableListOf<Triple<Char, Int, Int>>()
+            for (column in 0 until columns) {
+                for (row in rows.indices) {
+                    val symbol = rows[row][column]
+                    when (symbol) {
+                        '.' -> {}
+                        in TILE_SYMBOLS -> tiles[row * columns + column] = symbol.code.toByte()
+                        in SPAWN_SYMBOLS -> spawns.add(Triple(symbol, row, column))
+                        else -> throw GradleException("${source.name} has an unknown symbol '$symbol' at row ${row + 1}, column ${column + 1}")
+                    }
+                }
+            }
+
+            DataOutputStream(File(out, source.nameWithoutExtension + ".lvl").outputStream().buffered()).use { data ->
+                data.writeInt(0x42444C56) // "BDLV"
+                data.writeInt(LEVEL_VERSION)
+                data.writeInt(rows.size)
+                data.writeInt(columns)
+                data.write(tiles)
+                data.writeInt(spawns.size)
+                spawns.forEach { (symbol, row, column) ->
+                    data.writeByte(symbol.code)
+                    data.writeShort(row)
+                    data.writeShort(column)
+                }
+            }
+        }
+    }
+
+    companion object {
+        // must match LevelData.VERSION
+        const val LEVEL_VERSION = 1
+        const val TILE_SYMBOLS = "1234wd"
+        const val SPAWN_SYMBOLS = "sgmcpf"
+    }
+}
+
+val compileLevels = tasks.register<CompileLevels>("compileLevels") {
+    levels.from(fileTree("src/main/levels") { include("*.txt") })
+    outputDir.set(layout.buildDirectory.dir("generated/levels"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(encodeEtc2Textures, EncodeEtc2Textures::outputDir)
+        variant.sources.assets?.addGeneratedSourceDirectory(compileLevels, CompileLevels::outputDir)
+    }
+}
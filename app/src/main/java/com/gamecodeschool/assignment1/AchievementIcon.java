@@ -1,6 +1,5 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 import static com.gamecodeschool.assignment1.GLManager.uAlphaLocation;
 import static com.gamecodeschool.assignment1.GLManager.uGreyScaleLocation;
@@ -32,6 +31,9 @@ public class AchievementIcon implements Texturable
     //used for drawing (found by GLManager)
     private int textureID;
 
+    //where the texture is on the atlas page, null if it has a texture of its own
+    private TextureRegion textureRegion;
+
     //the screen we see
     private final float[] viewportMatrix = new float[16];
 
@@ -64,22 +66,7 @@ public class AchievementIcon implements Texturable
 
         sideLength = screenWidth / 30;
 
-        //make it a square
-        float[] modelVertices = new float[] {
-                // Position                          // Texture Coordinates
-                -sideLength, sideLength, 0,   0.0f, 1.0f,  // Bottom left corner
-                sideLength, sideLength, 0,    1.0f, 1.0f,  // Bottom right corner
-                sideLength, -sideLength, 0,     1.0f, 0.0f,  // Top right corner
-                -sideLength, -sideLength, 0,    0.0f, 0.0f   // Top left corner
-        };
-
-        // Store number of vertices
-        vertices = ByteBuffer.allocateDirect(modelVertices.length * 4)
-                .order(ByteOrder.nativeOrder()).asFloatBuffer();
-        vertices.put(modelVertices);
-        vertices.position(0);
-
-
+        makeVertices();
     }
 
     /**
@@ -146,6 +133,49 @@ public class AchievementIcon implements Texturable
         textureID = textureId;
     }
 
+    /**
+     * Sets the texture atlas region for this object (for openGL)
+     * @param region - where the texture for this object is on the atlas page
+     * @return true, the texture coordinates are moved onto the region
+     */
+    @Override
+    public boolean setTextureRegion(TextureRegion region)
+    {
+        textureID = region.getTextureId();
+        textureRegion = region;
+        //the icons get their textures reloaded after the vertices are made, so make them again with the new region
+        if(vertices != null)
+        {
+            makeVertices();
+        }
+        return true;
+    }
+
+    /**
+     * This method makes the square the texture is drawn on
+     */
+    private void makeVertices()
+    {
+        //make it a square
+        float[] modelVertices = new float[] {
+                // Position                          // Texture Coordinates
+                -sideLength, sideLength, 0,   0.0f, 1.0f,  // Bottom left corner
+                sideLength, sideLength, 0,    1.0f, 1.0f,  // Bottom right corner
+                sideLength, -sideLength, 0,     1.0f, 0.0f,  // Top right corner
+                -sideLength, -sideLength, 0,    0.0f, 0.0f   // Top left corner
+        };
+        if(textureRegion != null)
+        {
+            textureRegion.mapTextureCoords(modelVertices);
+        }
+
+        // Store number of vertices
+        vertices = ByteBuffer.allocateDirect(modelVertices.length * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        vertices.put(modelVertices);
+        vertices.position(0);
+    }
+
     /**
      * responsible for using openGL to draw the achievement icon
      * @param x - where on the x-axis this will be drawn
@@ -156,10 +186,9 @@ public class AchievementIcon implements Texturable
     public void drawIcon(float x, float y, boolean greyScale, float alphaValue)
     {
         // tell openGL to use blending
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLManager.enableAlphaBlending();
         // tell OpenGl to use the glProgram (achievementProgram)
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
         //use the GLManager to set up the drawing
         GLManager.setVertexAttribPointer(vertices);
         GLManager.translate(viewportModelMatrix, viewportMatrix, x, y);
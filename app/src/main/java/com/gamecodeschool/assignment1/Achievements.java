@@ -2,7 +2,6 @@ package com.gamecodeschool.assignment1;
 
 import static android.opengl.GLES20.glUniform1f;
 import static android.opengl.GLES20.glUniform1i;
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 import static com.gamecodeschool.assignment1.GLManager.uAlphaLocation;
 import static com.gamecodeschool.assignment1.GLManager.uGreyScaleLocation;
@@ -466,10 +465,9 @@ public class Achievements implements Texturable
         {
             float alphaValue = message.calculateAlphaValue();
 
-            GLES20.glEnable(GLES20.GL_BLEND);
-            GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            GLManager.enableAlphaBlending();
             // tell OpenGl to use the glProgram
-            glUseProgram(glProgram);
+            GLManager.useProgram(glProgram);
             //getTexture(context);
             // Set vertices to the first byte
             GLManager.setVertexAttribPointer(vertices);
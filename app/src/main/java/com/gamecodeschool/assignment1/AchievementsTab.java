@@ -1,6 +1,5 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 
 import android.content.Context;
@@ -161,7 +160,7 @@ public class AchievementsTab implements Tab, Texturable
     @Override
     public void draw()
     {
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         GLManager.setVertexAttribPointer(vertices);
         GLManager.setMatrix(viewportMatrix, textureID);
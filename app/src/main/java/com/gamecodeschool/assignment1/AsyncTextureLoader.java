@@ -0,0 +1,388 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_CLAMP_TO_EDGE;
+import static android.opengl.GLES20.GL_LINEAR;
+import static android.opengl.GLES20.GL_LINEAR_MIPMAP_LINEAR;
+import static android.opengl.GLES20.GL_RGBA;
+import static android.opengl.GLES20.GL_TEXTURE_2D;
+import static android.opengl.GLES20.GL_TEXTURE_MAG_FILTER;
+import static android.opengl.GLES20.GL_TEXTURE_MIN_FILTER;
+import static android.opengl.GLES20.GL_TEXTURE_WRAP_S;
+import static android.opengl.GLES20.GL_TEXTURE_WRAP_T;
+import static android.opengl.GLES20.GL_UNSIGNED_BYTE;
+import static android.opengl.GLES20.glGenTextures;
+import static android.opengl.GLES20.glGenerateMipmap;
+import static android.opengl.GLES20.glTexImage2D;
+import static android.opengl.GLES20.glTexParameteri;
+import static android.opengl.GLES30.GL_TEXTURE_MAX_LEVEL;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.opengl.GLUtils;
+import android.util.Log;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads textures without decoding images on the GL thread. A texture id is handed out right away holding a
+ * 1x1 transparent placeholder, the image is decoded on a small pool of background threads, and the finished bitmaps
+ * wait in a queue until the GL thread uploads them into the same id. If the build made an ETC2 version of the
+ * drawable (assets/textures/name.ktx) that is read instead, and uploaded compressed with its mip chain.
+ * Objects keep the id they were given, so they draw nothing (the placeholder) until their image is uploaded,
+ * and then draw it without being told.
+ * @author Braeden Ruff
+ */
+public class AsyncTextureLoader
+{
+    //how many threads decode images
+    private static final int DECODE_THREADS = 2;
+
+    //the most textures uploaded in one frame, so a burst of finished decodes doesn't stall a frame
+    private static final int UPLOADS_PER_FRAME = 4;
+
+    /**
+     * Told when a texture has been uploaded and its size on the GPU is known
+     */
+    public interface UploadListener
+    {
+        /**
+         * This method is called on the GL thread after a texture is uploaded
+         * @param textureId the openGL texture
+         * @param bytes how many bytes it uses on the GPU, mip levels included
+         */
+        void onTextureUploaded(int textureId, long bytes);
+    }
+
+    /**
+     * A decoded image waiting for the GL thread
+     */
+    private static class PendingUpload
+    {
+        //the texture to upload into
+        final int textureId;
+        //the decoded image, or null if it is compressed (both are null if the decode failed)
+        final Bitmap bitmap;
+        //the compressed image, or null if it was decoded
+        final KtxTexture compressed;
+        //which openGL context the texture belongs to
+        final int contextGeneration;
+
+        /**
+         * This is the constructor for a finished decode
+         * @param textureId the texture to upload into
+         * @param bitmap the decoded image, or null if it is compressed
+         * @param compressed the compressed image, or null if it was decoded
+         * @param contextGeneration which openGL context the texture belongs to
+         */
+        PendingUpload(int textureId, Bitmap bitmap, KtxTexture compressed, int contextGeneration)
+        {
+            this.textureId = textureId;
+            this.bitmap = bitmap;
+            this.compressed = compressed;
+            this.contextGeneration = contextGeneration;
+        }
+
+        /**
+         * This method frees the decoded image, if there is one
+         */
+        void recycle()
+        {
+            if(bitmap != null)
+            {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    //decodes images in the background
+    private final ExecutorService decodePool;
+
+    //images that finished decoding, filled by the pool and emptied by the GL thread
+    private final ConcurrentLinkedQueue<PendingUpload> uploads = new ConcurrentLinkedQueue<>();
+
+    //the placeholder pixel, transparent so nothing is drawn
+    private final ByteBuffer placeholderPixel;
+
+    //changes every openGL context, decodes started for an old context are thrown away
+    private volatile int contextGeneration;
+
+    //how many textures were requested and haven't been uploaded yet, only changed on the GL thread
+    private volatile int pendingCount;
+
+    //told about every upload, can be null
+    private UploadListener uploadListener;
+
+    /**
+     * This is the constructor for the loader, it starts the decode threads
+     */
+    public AsyncTextureLoader()
+    {
+        decodePool = Executors.newFixedThreadPool(DECODE_THREADS, new ThreadFactory()
+        {
+            /**
+             * This method makes a decode thread. They are daemons so they never keep the app alive
+             * @param runnable what the thread runs
+             * @return the thread
+             */
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "TextureDecode");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+        placeholderPixel = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * This method sets who is told about uploads
+     * @param listener told when a texture is uploaded, can be null
+     */
+    public void setUploadListener(UploadListener listener)
+    {
+        uploadListener = listener;
+    }
+
+    /**
+     * This method forgets every texture that hasn't been uploaded. Call it when a new openGL context is made,
+     * since the ids those uploads were going into are meaningless now
+     */
+    public void beginContext()
+    {
+        ++contextGeneration;
+        PendingUpload upload;
+        while((upload = uploads.poll()) != null)
+        {
+            upload.recycle();
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * This method makes a texture holding the placeholder and starts decoding its image. Call on the GL thread
+     * @param context the context of the program, used to read the image
+     * @param resourceId the drawable to load
+     * @return the texture id, which shows the image once it is uploaded, or 0 if openGL couldn't make one
+     */
+    public int load(Context context, final int resourceId)
+    {
+        final int[] textureObjectIds = new int[1];
+        glGenTextures(1, textureObjectIds, 0);
+        final int textureId = textureObjectIds[0];
+        if (textureId == 0) {
+            Log.e("AsyncTextureLoader", "Could not generate a new OpenGL texture object.");
+            return 0;
+        }
+
+        //no mipmaps yet, so the placeholder can't use a mipmap filter or it would sample black
+        GLManager.bindTextureObject(textureId);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        placeholderPixel.position(0);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, 1, 1, 0, GL_RGBA, GL_UNSIGNED_BYTE, placeholderPixel);
+        GLManager.bindTextureObject(0);
+
+        final Resources resources = context.getResources();
+        final int generation = contextGeneration;
+        ++pendingCount;
+        decodePool.execute(new Runnable()
+        {
+            /**
+             * This method decodes the image and queues it for the GL thread
+             */
+            @Override
+            public void run()
+            {
+                if(generation != contextGeneration)
+                {
+                    return; //the context went away while this was waiting
+                }
+                KtxTexture compressed = readCompressed(resources, resourceId);
+                if(compressed != null)
+                {
+                    uploads.add(new PendingUpload(textureId, null, compressed, generation));
+                    return;
+                }
+                final BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inScaled = true; // No pre-scaling
+                Bitmap bitmap = BitmapFactory.decodeResource(resources, resourceId, options);
+                if (bitmap == null)
+                {
+                    Log.e("AsyncTextureLoader", "Resource ID " + resourceId + " could not be decoded.");
+                    //still tell the GL thread, so it stops counting the texture as pending
+                }
+                uploads.add(new PendingUpload(textureId, bitmap, null, generation));
+            }
+        });
+        return textureId;
+    }
+
+    /**
+     * This method decodes several drawables at their real size on the decode threads, and waits for all of them.
+     * Used for things that are needed right away, like the atlas pages. If the thread is interrupted while waiting,
+     * the decodes that aren't done are cancelled and left null, and the thread's interrupt flag is set again
+     * @param context the context of the program, used to read the images
+     * @param resourceIds the drawables to decode
+     * @return the bitmap of each drawable, null where one couldn't be decoded
+     */
+    public Bitmap[] decodeAll(Context context, int[] resourceIds)
+    {
+        final Resources resources = context.getResources();
+        ArrayList<Future<Bitmap>> decodes = new ArrayList<>();
+        for(final int resourceId : resourceIds)
+        {
+            decodes.add(decodePool.submit(new Callable<Bitmap>()
+            {
+                /**
+                 * This method decodes the image
+                 * @return the bitmap, or null if it couldn't be decoded
+                 */
+                @Override
+                public Bitmap call()
+                {
+                    //decode at the real size so the rectangles match the pixels
+                    final BitmapFactory.Options options = new BitmapFactory.Options();
+                    options.inScaled = false;
+                    return BitmapFactory.decodeResource(resources, resourceId, options);
+                }
+            }));
+        }
+
+        Bitmap[] bitmaps = new Bitmap[resourceIds.length];
+        for(int i = 0; i < bitmaps.length; ++i)
+        {
+            try
+            {
+                bitmaps[i] = decodes.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                //someone wants this thread to stop, so stop waiting and leave the rest null, like images that couldn't be decoded
+                Thread.currentThread().interrupt();
+                for(int j = i; j < bitmaps.length; ++j)
+                {
+                    decodes.get(j).cancel(true);
+                }
+                break;
+            }
+            catch (ExecutionException e)
+            {
+                e.printStackTrace();
+            }
+        }
+        return bitmaps;
+    }
+
+    /**
+     * This method reads how big a drawable is from the header of its png, without decoding any pixels.
+     * The size is scaled for the screen the same way the decode in load() is
+     * @param context the context of the program, used to read the image
+     * @param resourceId the drawable
+     * @return the options, with outWidth and outHeight set (-1 if the image couldn't be read)
+     */
+    public static BitmapFactory.Options readSize(Context context, int resourceId)
+    {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(context.getResources(), resourceId, options);
+        return options;
+    }
+
+    /**
+     * This method reads the ETC2 version of a drawable, if the build made one. Runs on a decode thread
+     * @param resources the app's resources
+     * @param resourceId the drawable
+     * @return the compressed texture, or null if there isn't one (or it couldn't be read)
+     */
+    private static KtxTexture readCompressed(Resources resources, int resourceId)
+    {
+        String path = "textures/" + resources.getResourceEntryName(resourceId) + ".ktx";
+        try (InputStream stream = resources.getAssets().open(path))
+        {
+            return KtxTexture.read(stream);
+        }
+        catch (FileNotFoundException e)
+        {
+            return null; //not encoded, use the png
+        }
+        catch (IOException e)
+        {
+            Log.e("AsyncTextureLoader", path + " could not be read, using the png: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * This method uploads some of the images that finished decoding. Call on the GL thread once a frame
+     * @return how many textures were uploaded
+     */
+    public int uploadPending()
+    {
+        int uploaded = 0;
+        PendingUpload upload;
+        while(uploaded < UPLOADS_PER_FRAME && (upload = uploads.poll()) != null)
+        {
+            if(upload.contextGeneration == contextGeneration && upload.bitmap == null && upload.compressed == null)
+            {
+                //the decode failed, the texture keeps its placeholder
+                pendingCount = Math.max(0, pendingCount - 1);
+            }
+            else if(upload.contextGeneration == contextGeneration)
+            {
+                GLManager.bindTextureObject(upload.textureId);
+                long bytes;
+                if(upload.compressed != null)
+                {
+                    //the mip chain was made by the build, only use as many levels as the file has
+                    upload.compressed.upload();
+                    glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, upload.compressed.getMipLevels() - 1);
+                    bytes = upload.compressed.getByteCount();
+                }
+                else
+                {
+                    GLUtils.texImage2D(GL_TEXTURE_2D, 0, upload.bitmap, 0);
+                    glGenerateMipmap(GL_TEXTURE_2D);
+                    //the mip chain adds a third
+                    bytes = upload.bitmap.getByteCount() * 4L / 3;
+                }
+                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR_MIPMAP_LINEAR);
+                GLManager.bindTextureObject(0);
+                pendingCount = Math.max(0, pendingCount - 1);
+                ++uploaded;
+                if(uploadListener != null)
+                {
+                    uploadListener.onTextureUploaded(upload.textureId, bytes);
+                }
+            }
+            upload.recycle();
+        }
+        return uploaded;
+    }
+
+    /**
+     * This method gets how many textures are still showing their placeholder
+     * @return how many textures haven't been uploaded
+     */
+    public int getPendingCount()
+    {
+        return pendingCount;
+    }
+}
@@ -6,6 +6,8 @@ import android.opengl.GLSurfaceView.Renderer;
 import android.util.Log;
 import android.util.Pair;
 
+import java.util.ArrayList;
+
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 import static android.opengl.GLES20.GL_COLOR_BUFFER_BIT;
@@ -45,8 +47,25 @@ public class BladeDashRenderer implements Renderer
     //this is the context of the program
     private Context context;
 
-    //how many frames have passed
-    private long fps;
+    //the level loads the simulation can ask for, they make openGL objects so they have to happen on the render thread
+    private static final int LOAD_NONE = 0;
+    private static final int LOAD_RESTART = 1;
+    private static final int LOAD_NEXT_LEVEL = 2;
+
+    //a level load the simulation is waiting on, the simulation doesn't step until the render thread has done it
+    private volatile int pendingLoad = LOAD_NONE;
+
+    //counts level loads, so snapshots with texture ids from before a load aren't drawn
+    private int generation;
+
+    //hands the state of the world from the simulation thread to the render thread
+    private final SnapshotExchange snapshots = new SnapshotExchange();
+
+    //the simulation's step length, used to interpolate between snapshots. Written by the simulation thread, read by the render thread
+    private volatile long stepNanos = 1;
+
+    //for drawing the slash with a rotation
+    private final float[] viewportModelMatrix = new float[16];
 
     //for determining what to draw on the screen
     private final float[] viewportMatrix = new float[16];
@@ -58,11 +77,27 @@ public class BladeDashRenderer implements Renderer
     private PauseMenu pauseMenu;
 
     //for temporary storing of a point so we don't have to create a new one so often
-    PointF handyPointF;
+    Vector2 handyPointF;
+
+    //reused for the enemies and coins the spatial hashes find touching the player
+    private final ArrayList<Enemy> nearbyEnemies = new ArrayList<>();
+    private final ArrayList<Coin> nearbyCoins = new ArrayList<>();
 
     //an array to keep track of the game controls
     private final GameButton[] gameControls = new GameButton[3]; // 0 is jump, 1 is dash, 2 is slash
 
+    //collects the world sprites (tiles, coins, enemies) so they can be drawn in a handful of draw calls
+    private final SpriteBatch spriteBatch = new SpriteBatch();
+
+    //draws the coins and enemies with one instanced call per texture when ES 3 is there
+    private final InstancedSpriteRenderer instancedSprites = new InstancedSpriteRenderer();
+
+    //works out which tiles and objects the camera can see, so we don't submit the whole map every frame
+    private final ViewportCuller viewportCuller = new ViewportCuller();
+
+    //reacts to entities hitting tiles while the tile collider pushes them out
+    private final TileCollider.Listener tileCollisionListener = this::onTileCollision;
+
     /**
      * the blade dash renderer constructor
      * @param context the context of the program
@@ -74,7 +109,7 @@ public class BladeDashRenderer implements Renderer
         gm = gameManager;
         ic = inputController;
 
-        handyPointF = new PointF();
+        handyPointF = new Vector2();
 
         this.context = context;
     }
@@ -94,7 +129,11 @@ public class BladeDashRenderer implements Renderer
         // screen each frame in onDrawFrame()
         glClearColor(0.0f, 0.5f, 1.0f, 0.0f);
 
-        // Get our GLManager to compile and link the shaders into an object
+        //a new context starts with the default state, whatever we set in the old one is gone
+        GLManager.resetStateCache();
+
+        // Get our GLManager to compile and link the shaders into an object (or load them if they were saved before)
+        GLManager.beginProgramContext(context);
         GLManager.buildProgramTexture();
         GLManager.buildColorProgram();
         GLManager.buildAchievementProgram();
@@ -109,7 +148,21 @@ public class BladeDashRenderer implements Renderer
         uAlphaLocation = glGetUniformLocation(GLManager.getGLAchievementProgram(), U_ALPHA_LOCATION);
         uGreyScaleLocation = glGetUniformLocation(GLManager.getGLAchievementProgram(), U_GREY_SCALE_LOCATION);
 
-        createObjects();
+        //the old buffers went away with the old context
+        spriteBatch.createBuffers();
+        instancedSprites.createBuffers();
+        gm.terrain.invalidate();
+
+        //the textures of the old context are gone, make them again behind the same handles
+        GLManager.beginTextureContext(context);
+
+        //the simulation thread can't touch the game while we make the objects
+        synchronized (gm)
+        {
+            pendingLoad = LOAD_NONE;
+            createObjects();
+            ++generation;
+        }
     }
 
     /**
@@ -129,13 +182,10 @@ public class BladeDashRenderer implements Renderer
     }
 
     /**
-     * this method creats all of our game objects, and resets the GLManager textureMap
+     * this method creats all of our game objects. The textures are kept, the level's objects just take new references to them
      */
     private void createObjects()
     {
-        //important to reset our texture map
-        GLManager.resetTextureMap(context);
-
         // Create our game objects
         ArrayList<Pair<PointF, PointF>> joysticks = ic.getJoystick();
         int i = 0;
@@ -178,66 +228,130 @@ public class BladeDashRenderer implements Renderer
     @Override
     public void onDrawFrame(GL10 glUnused) {
 
-        // Clear both color and depth buffer
-        long startFrameTime = System.currentTimeMillis();
+        if(pendingLoad != LOAD_NONE)
+        {
+            loadRequestedLevel();
+        }
+
+        //textures that finished decoding replace their placeholders
+        GLManager.uploadPendingTextures();
 
-        if (gm.isPlaying())
+        draw(snapshots.acquire());
+    }
+
+    /**
+     * This method does the level load the simulation asked for, on the render thread since it makes openGL objects
+     */
+    private void loadRequestedLevel()
+    {
+        synchronized (gm)
         {
-            update(fps);
+            if(pendingLoad == LOAD_RESTART)
+            {
+                createObjects();
+            }
+            else if(pendingLoad == LOAD_NEXT_LEVEL)
+            {
+                gm.nextLevel(context);
+            }
+            pendingLoad = LOAD_NONE;
+            ++generation;
         }
+    }
 
-        draw();
+    /**
+     * This method applies the queued input, takes the simulation steps that are due and publishes a snapshot to draw.
+     * Called by the simulation thread
+     * @param steps how many fixed steps to take
+     * @param tickRate how many steps per second the simulation runs
+     */
+    public void simulate(int steps, int tickRate)
+    {
+        stepNanos = 1000000000L / tickRate;
+        synchronized (gm)
+        {
+            if(gm.player == null || pendingLoad != LOAD_NONE) //nothing made yet, or waiting on a level load
+            {
+                return;
+            }
+            ic.processCommands(gm);
+            //a slash from the input can break walls and kill enemies
+            gm.flushKills();
+            for(int i = 0; i < steps && gm.isPlaying() && pendingLoad == LOAD_NONE; ++i)
+            {
+                saveMovingObjectLocations();
+                update(tickRate);
+            }
+            if(pendingLoad != LOAD_NONE)
+            {
+                return; //the objects are about to be replaced
+            }
 
-        // Calculate the fps this frame
-        // We can then use the result to
-        // time animations and more.
-        long timeThisFrame = System.currentTimeMillis() - startFrameTime;
-        if (timeThisFrame >= 1)
+            RenderSnapshot snapshot = snapshots.beginWrite();
+            for(int i = 0; i < gm.coins.size(); ++i)
+            {
+                gm.coins.get(i).capture(snapshot);
+            }
+            for(int i = 0; i < gm.enemies.size(); ++i)
+            {
+                gm.enemies.get(i).capture(snapshot);
+            }
+            snapshot.endBatch();
+            gm.player.capture(snapshot);
+            if(gm.teleport != null)
+            {
+                gm.teleport.capture(snapshot);
+            }
+            snapshot.stamp(generation, System.nanoTime());
+            snapshots.publish();
+        }
+    }
+
+    /**
+     * This method remembers where the moving objects are before a simulation step, so drawing can interpolate
+     */
+    private void saveMovingObjectLocations()
+    {
+        gm.player.savePreviousWorldLocation();
+        for(int i = 0; i < gm.enemies.size(); ++i)
         {
-            fps = 1000 / timeThisFrame;
+            gm.enemies.get(i).savePreviousWorldLocation();
         }
     }
 
     /**
      * This method tells the player and enemies to update their positions, as well as handles collisions
-     * @param fps frames per second, used to decide how far something moves
+     * @param fps simulation steps per second, used to decide how far something moves
      */
     private void update(long fps)
     {
         //player has died for 3 seconds, so restart the level
         if(System.currentTimeMillis() - gm.player.getDeathStartTime() > 3000)
         {
-            createObjects();
+            pendingLoad = LOAD_RESTART;
             return;
         }
         gm.player.update(fps);
         handleTileCollisionsEfficient(gm.player);
         handleBorderCollision();
 
-        handyPointF = gm.player.getWorldLocation();
-        float maxDistance = 4 * GameManager.getPixelsPerMeter();
-        for(int i = 0; i < gm.enemies.size(); ++i) // ordered by left to right then up to down
+        for(int i = 0; i < gm.enemies.size(); ++i) // removing only marks the enemy, so the loop is safe
         {
             Enemy enemy = gm.enemies.get(i);
             enemy.update(fps, gm.player);
             handleTileCollisionsEfficient(enemy);
-            if(enemy.getWorldLocation().x - maxDistance <= handyPointF.x &&
-                    enemy.getWorldLocation().x + maxDistance >= handyPointF.x) // only bother checking if the enemy is close enough
-            {
-                handlePlayerEnemyCollisions(enemy);
-            }
+            gm.enemyHash.update(enemy);
             if(enemy.getHP() == 0)
             {
                 //if the enemy has been dead for 2 seconds, remove it
                 if(System.currentTimeMillis() - enemy.getDeathTime() > 2000)
                 {
-                    gm.enemies.remove(i);
-                    --i;
+                    gm.removeEnemy(enemy);
                     //if the enemy is the monster spawner, you win, end the game
                     if(enemy instanceof MonsterSpawner)
                     {
                         gm.player.setControllable(false);
-                        if(gm.enemies.size() != 0) //if there are still enemies, didn't defeat them all (requirement for this achievement)
+                        if(gm.getEnemiesLeft() != 0) //if there are still enemies, didn't defeat them all (requirement for this achievement)
                         {
                             gm.player.setMissedSlash(true);
                         }
@@ -247,8 +361,19 @@ public class BladeDashRenderer implements Renderer
 
             }
         }
+
+        //only the enemies touching the player can hurt them
+        nearbyEnemies.clear();
+        queryPlayerBox(gm.enemyHash, nearbyEnemies);
+        for(int i = 0; i < nearbyEnemies.size(); ++i)
+        {
+            handlePlayerEnemyCollisions(nearbyEnemies.get(i));
+        }
         handleCoinCollisions();
         handleTeleportCollision();
+
+        //everything that died this tick leaves the lists now that nobody is looping over them
+        gm.flushKills();
     }
 
     /**
@@ -282,8 +407,9 @@ public class BladeDashRenderer implements Renderer
                 gm.player.instaKill(gm);
             }
         }
-        for(Enemy enemy : gm.enemies)
+        for(int i = 0; i < gm.enemies.size(); ++i)
         {
+            Enemy enemy = gm.enemies.get(i);
             if(enemy.getWorldLocation().y < -gm.mapHeight - enemy.getHeight()/2)
             {
                 enemy.takeDamage();
@@ -297,23 +423,40 @@ public class BladeDashRenderer implements Renderer
     private void handleCoinCollisions()
     {
         Enum<GameObject.collisionType> collisionType;
-        for(int i = 0; i < gm.coins.size(); ++i)
+        nearbyCoins.clear();
+        queryPlayerBox(gm.coinHash, nearbyCoins);
+        for(int i = 0; i < nearbyCoins.size(); ++i)
         {
-            collisionType = gm.player.getCollisionDirection(gm.coins.get(i));
+            Coin coin = nearbyCoins.get(i);
+            collisionType = gm.player.getCollisionDirection(coin);
             if(collisionType != GameObject.collisionType.NONE)
             {
-                gm.coins.remove(i);
+                gm.removeCoin(coin);
                 break;
             }
         }
         //if all coins collected, handle the achievement getting
-        if(gm.coins.size() == 0)
+        if(gm.getCoinsLeft() == 0)
         {
             gm.achievements.setExplorer(gm.level);
             gm.setSavedAchievements(context);
         }
     }
 
+    /**
+     * This method finds the objects in a spatial hash whose bounding boxes overlap the player's
+     * @param hash the spatial hash to look in
+     * @param out the list the objects are added to
+     * @param <T> the type of object in the hash
+     */
+    private <T extends GameObject> void queryPlayerBox(SpatialHash<T> hash, ArrayList<T> out)
+    {
+        handyPointF = gm.player.getWorldLocation();
+        float halfW = gm.player.getWidth() / 2;
+        float halfH = gm.player.getHeight() / 2;
+        hash.queryBox(handyPointF.x - halfW, handyPointF.y - halfH, handyPointF.x + halfW, handyPointF.y + halfH, out);
+    }
+
     /**
      * This method handles when the enemy hits the player
      * @param enemy is which enemy we are checking if it hits the player
@@ -347,11 +490,11 @@ public class BladeDashRenderer implements Renderer
         Enum<GameObject.collisionType> collisionType = gm.player.getCollisionDirection(gm.teleport);
         if(collisionType != GameObject.collisionType.NONE)
         {
-            if(gm.enemies.size() != 0) //if there are still enemies, didn't defeat them all (requirement for this achievement)
+            if(gm.getEnemiesLeft() != 0) //if there are still enemies, didn't defeat them all (requirement for this achievement)
             {
                 gm.player.setMissedSlash(true);
             }
-            gm.nextLevel(context);
+            pendingLoad = LOAD_NEXT_LEVEL;
         }
     }
 
@@ -361,256 +504,110 @@ public class BladeDashRenderer implements Renderer
      */
     private void handleTileCollisionsEfficient(GameObject entity)
     {
-        // most efficient: find where in the gounndTiles array the entity is, check the column before till after, check rows before till after
-        int columns = gm.getMapColumns();
-        int rows = gm.getMapRows();
-        int entityColumn = (int)(entity.getWorldLocation().x / GameManager.getPixelsPerMeter());
-        if(entityColumn < 0 || entityColumn >= columns) // outside the border somehow
+        int result = TileCollider.resolve(entity, gm.collision, tileCollisionListener);
+        if((result & TileCollider.STOPPED) != 0 || !(entity instanceof Player))
         {
             return;
         }
-        int entityRow = (int)(-entity.getWorldLocation().y / GameManager.getPixelsPerMeter());
-        if(entityRow < 0 || entityRow >= rows) // outside the border somehow
+
+        // no y collsion? that means we walked into the air or are jumping
+        if((result & TileCollider.HIT_Y) == 0)
         {
-            return;
+            gm.player.setIsAirborne(true);
         }
-        //these are to make it less jank, since without them the player will go inside a block and touch the x of the next block, and the top of a previous block
-        //and we'll therefore set the velocity to 0 for x and y even if it's flat ground
-        //same when jumping the x and y will set to zero even if it's a flat wall
-        boolean previousCollisionX = false;
-        boolean previousCollisionY = false;
-        boolean twoCollisions = false;
-        float prevVelocityX = 0;
-        float prevVelocityY = 0;
-
-        //for animation
-        boolean setIdle = false;
-
-        //for double collisions
-        boolean zeroY = false;
-        boolean zeroX = false;
-        float halfWidthPlayer = entity.getWidth()/2;
-        float halfHeightPlayer = entity.getHeight()/2;
-        handyPointF = entity.getWorldLocation();
-        //check before and after
-        for (int col = Math.max(0, entityColumn - 2); col <= Math.min(entityColumn + 2, columns - 1); col++)
-        {
-            for (int row = Math.max(0, entityRow - 2); row <= Math.min(entityRow + 2, rows - 1); row++)
-            {
-                if(gm.groundTiles[row][col] == null) //sparse array, has chance of null
-                {
-                    continue;
-                }
-                Ground ground = gm.groundTiles[row][col];
-
-                //handle double collisions
-                // if we're above or below something, it should be within halfWidthPlayer (assuming player > tile)
-                float x = Math.abs(ground.getWorldLocation().x - handyPointF.x);
-                // if we're hitting a wall, it should be within halfHeightPlayer (assuming player > tile)
-                float y = Math.abs(ground.getWorldLocation().y - handyPointF.y);
-
-                //see if the player is in the same column as the current tile (or close enough to the column to colide)
-                if (x <= halfWidthPlayer) // assumes player is at least as thick as a tile
-                {
-                    if (y <= ground.getHeight() / 2 + halfHeightPlayer)
-                    {
-                        //then we can safely say that something above or below if the y value of the center difference is less than half the player height + half the tile height
-                        zeroY = true;
-                    }
-                }
-
-                //see if the player is in the same row as the current tile (or close enough to the row to colide)
-                if (y <= halfHeightPlayer) // assumes player is at least as tall as a tile
-                {
-                    if (x <= ground.getWidth() / 2 + halfWidthPlayer)
-                    {
-                        //then we can safely say that something above or below if the x value of the center difference is less than half the player width + half the tile width
-                        zeroX = true;
-                    }
-                }
-
-                //handle collisions
-                Enum<GameObject.collisionType> collisionType = entity.getCollisionDirection(ground);
-                if(collisionType != GameObject.collisionType.NONE)
-                {
-                    if(ground.getGroundType() == Ground.GroundType.DEATH && entity instanceof Player) //insta death block sticks you into the spikes
-                    {
-                        if(gm.player.getHP() != 0)
-                        {
-                            gm.player.instaKill(gm);
-                        }
-                        gm.player.setWorldLocation(handyPointF.x, -ground.getWorldLocation().y-ground.getHeight()/2);
-                        return;
-                    }
-                    if(collisionType == GameObject.collisionType.TOP)
-                    {
-                        prevVelocityY = entity.getyVelocity();
-                        previousCollisionY = true;
-                        if(previousCollisionX)
-                        {
-                            twoCollisions = true;
-                        }
-                        entity.setyVelocity(0);
-                        entity.setWorldLocation(handyPointF.x, -(ground.getWorldLocation().y - ground.getHeight() / 2 - entity.getHeight() / 2));
-                    }
-                    else if(collisionType == GameObject.collisionType.BOTTOM)
-                    {
-                        prevVelocityY = entity.getyVelocity();
-                        previousCollisionY = true;
-                        if(previousCollisionX)
-                        {
-                            twoCollisions = true;
-                        }
-                        entity.setyVelocity(0);
-                        entity.setWorldLocation(handyPointF.x, -(ground.getWorldLocation().y + ground.getHeight()/2 + entity.getHeight()/2));
-                        if(entity instanceof Player)
-                        {
-                            gm.player.setIsAirborne(false);
-                            gm.player.setWallSliding(false);
-                            if(gm.player.getAnimator().getCurrentState() == AnimationState.JUMP || gm.player.getAnimator().getCurrentState() == AnimationState.DASH)
-                            {
-                                setIdle = true;
-                            }
-                        }
-                        if(entity instanceof Slime)
-                        {
-                            ((Slime) entity).setIsAirborne(false);
-                        }
-                        if(entity instanceof Goblin)
-                        {
-                            ((Goblin) entity).setIsAirborne(false);
-                        }
-                    }
-                    else if(collisionType == GameObject.collisionType.LEFT)
-                    {
-                        if(prevVelocityX == 0)
-                        {
-                            prevVelocityX = entity.getxVelocity();
-                        }
-                        previousCollisionX = true;
-                        if(previousCollisionY)
-                        {
-                            twoCollisions = true;
-                        }
-                        if(entity instanceof Player && gm.player.getyVelocity() < 6 * GameManager.getPixelsPerMeter())
-                        {
-                            gm.player.setWallSliding(true);
-                            if(gm.player.getyVelocity() < -2 * GameManager.getPixelsPerMeter())
-                            {
-                                gm.player.setyVelocity(-2 * GameManager.getPixelsPerMeter());
-                            }
-                        }
-                        if(entity instanceof Goblin)
-                        {
-                            if(!((Goblin) entity).getIsAirborne())
-                            {
-                                ((Goblin) entity).setJumping(true);
-                            }
-                        }
-
-                        entity.setxVelocity(0);
-                        entity.setWorldLocation(ground.getWorldLocation().x - ground.getWidth()/2 - entity.getWidth()/2, -handyPointF.y);
-                    }
-                    else if(collisionType == GameObject.collisionType.RIGHT)
-                    {
-                        if(prevVelocityX == 0)
-                        {
-                            prevVelocityX = entity.getxVelocity();
-                        }
-                        previousCollisionX = true;
-                        if(previousCollisionY)
-                        {
-                            twoCollisions = true;
-                        }
-                        if(entity instanceof Player && gm.player.getyVelocity() < 6 * GameManager.getPixelsPerMeter())
-                        {
-                            gm.player.setWallSliding(true);
-                            if(gm.player.getyVelocity() < -2 * GameManager.getPixelsPerMeter())
-                            {
-                                gm.player.setyVelocity(-2 * GameManager.getPixelsPerMeter());
-                            }
-                        }
-                        if(entity instanceof Goblin)
-                        {
-                            if(!((Goblin) entity).getIsAirborne())
-                            {
-                                ((Goblin) entity).setJumping(true);
-                            }
-                        }
-
-                        entity.setxVelocity(0);
-                        entity.setWorldLocation(ground.getWorldLocation().x + ground.getWidth()/2 + entity.getWidth()/2, -handyPointF.y);
-                    }
-                }
-            }
+        // no x collision? we walked off the wall ride if there was one
+        if((result & TileCollider.HIT_X) == 0)
+        {
+            gm.player.setWallSliding(false);
+        }
+        AnimationState state = gm.player.getAnimator().getCurrentState();
+        if((result & TileCollider.LANDED) != 0 && (state == AnimationState.JUMP || state == AnimationState.WALLRIDE || state == AnimationState.DASH))
+        {
+            gm.player.setAnimatorState(AnimationState.IDLE);
         }
+    }
 
-        if(entity instanceof Player)
+    /**
+     * This method reacts to an entity hitting a tile, for whatever depends on what kind of entity it is
+     * @param body the entity that hit the tile
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @param side which side of the entity the tile hit
+     * @return true if the entity died and we should stop resolving it
+     */
+    private boolean onTileCollision(Body body, int row, int column, int side)
+    {
+        if(body instanceof Player)
         {
-            // no y collsion? that means we walked into the air or are jumping
-            if(!previousCollisionY)
+            if(gm.isDeadly(row, column)) //insta death block sticks you into the spikes
             {
-                gm.player.setIsAirborne(true);
+                if(gm.player.getHP() != 0)
+                {
+                    gm.player.instaKill(gm);
+                }
+                gm.player.setWorldLocation(gm.player.getX(), row * gm.getTileSize() - gm.getTileSize()/2);
+                return true;
             }
-            // no x collision? we walked off the wall ride if there was one
-            if(!previousCollisionX)
+            if(side == TileCollider.BOTTOM)
             {
+                gm.player.setIsAirborne(false);
                 gm.player.setWallSliding(false);
             }
-        }
-        if(twoCollisions)
-        {
-            //just collided because you glitched into the ground
-            if (!zeroX)
-            {
-                entity.setxVelocity(prevVelocityX);
-            }
-            else if (entity instanceof Player)
+            else if((side == TileCollider.LEFT || side == TileCollider.RIGHT) && gm.player.getyVelocity() < 6 * GameManager.getPixelsPerMeter())
             {
                 gm.player.setWallSliding(true);
-            }
-            //just collided because you glitched into the wall
-            if (!zeroY)
-            {
-                entity.setyVelocity(prevVelocityY);
-            }
-            else if (entity instanceof Player)
-            {
-                gm.player.setIsAirborne(false);
-                gm.player.setWallSliding(false);
-                if(gm.player.getAnimator().getCurrentState() == AnimationState.JUMP || gm.player.getAnimator().getCurrentState() == AnimationState.WALLRIDE || gm.player.getAnimator().getCurrentState() == AnimationState.DASH)
+                if(gm.player.getyVelocity() < -2 * GameManager.getPixelsPerMeter())
                 {
-                    gm.player.setAnimatorState(AnimationState.IDLE);
+                    gm.player.setyVelocity(-2 * GameManager.getPixelsPerMeter());
                 }
             }
-            //in a corner
-            if(zeroX && zeroY)
-            {
-                entity.setxVelocity(prevVelocityX);
-            }
         }
-        else
+        else if(body instanceof Slime && side == TileCollider.BOTTOM)
+        {
+            ((Slime) body).setIsAirborne(false);
+        }
+        else if(body instanceof Goblin)
         {
-            if(setIdle && (gm.player.getAnimator().getCurrentState() == AnimationState.JUMP || gm.player.getAnimator().getCurrentState() == AnimationState.DASH))
+            Goblin goblin = (Goblin) body;
+            if(side == TileCollider.BOTTOM)
             {
-                gm.player.setAnimatorState(AnimationState.IDLE);
+                goblin.setIsAirborne(false);
+            }
+            else if((side == TileCollider.LEFT || side == TileCollider.RIGHT) && !goblin.getIsAirborne())
+            {
+                goblin.setJumping(true);
             }
         }
+        return false;
     }
 
     /**
-     * This method tells each object to get drawn, and also handles the viewport if you get close to the edge of the map
+     * This method draws a snapshot of the world, and also handles the viewport if you get close to the edge of the map
+     * @param snapshot the newest state of the moving objects from the simulation thread
      */
-    private void draw()
+    private void draw(RenderSnapshot snapshot)
     {
+        // Clear the screen
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+        if(snapshot.getGeneration() != generation || snapshot.getPlayerSprite() == -1)
+        {
+            return; //the simulation hasn't caught up with the last level load yet
+        }
+
+        // How far past the snapshot's step are we? Draw that far between its previous and current locations
+        float alpha = Math.min(1, (float) (System.nanoTime() - snapshot.getPublishTime()) / stepNanos);
+
         // Where is the player?
-        handyPointF = gm.player.getWorldLocation();
+        int player = snapshot.getPlayerSprite();
+        float playerX = snapshot.getX(player, alpha);
+        float playerY = snapshot.getY(player, alpha);
 
         // Modify the viewport matrix orthographic projection, but keep it inside the map boundaries
-        float left = handyPointF.x - gm.metresToShowX / 2;
-        float right = handyPointF.x + gm.metresToShowX / 2;
-        float bottom = handyPointF.y - gm.metresToShowY / 2;
-        float top = handyPointF.y + gm.metresToShowY / 2;
+        float left = playerX - gm.metresToShowX / 2;
+        float right = playerX + gm.metresToShowX / 2;
+        float bottom = playerY - gm.metresToShowY / 2;
+        float top = playerY + gm.metresToShowY / 2;
         if(left < 0)
         {
             left = 0;
@@ -632,52 +629,120 @@ public class BladeDashRenderer implements Renderer
             bottom = -gm.metresToShowY;
         }
         orthoM(viewportMatrix, 0, left, right, bottom, top, 0f, 1f);
+        viewportCuller.setViewport(left, right, bottom, top, gm.getMapRows(), gm.getMapColumns());
 
-        // Clear the screen
-        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+        GLManager.resetStateCounters();
 
-        // Draw game objects
-        for(int i = 0; i < gm.groundTiles.length; ++i)
+        // Draw game objects, the terrain first so the entities end up on top of it
+        synchronized (gm)
         {
-            for(int j = 0; j < gm.groundTiles[i].length; ++j)
+            //make the parts of the level the player is getting close to and let go of the ones left behind
+            gm.streamLevel(context);
+            gm.terrain.rebuildDirtyChunks();
+        }
+        gm.terrain.draw(viewportMatrix, viewportCuller);
+
+        spriteBatch.resetStats();
+        instancedSprites.resetStats();
+        spriteBatch.begin(viewportMatrix);
+        instancedSprites.begin(viewportMatrix);
+        float[] quads = snapshot.getQuads();
+        int textureProgram = GLManager.getGLTextureProgram();
+        boolean instancing = instancedSprites.isAvailable();
+        //which of the two the last sprite went to, the other one is drawn before switching so sprites keep their order
+        boolean lastInstanced = false;
+        boolean anyDrawn = false;
+        for(int i = 0; i < snapshot.getBatchedCount(); ++i)
+        {
+            float x = snapshot.getX(i, alpha);
+            float y = snapshot.getY(i, alpha);
+            if(viewportCuller.isVisible(x, y, snapshot.getWidth(i), snapshot.getHeight(i)))
             {
-                if(gm.groundTiles[i][j] != null)
+                int quadOffset = i * RenderSnapshot.FLOATS_PER_QUAD;
+                boolean instanced = instancing && snapshot.getProgram(i) == textureProgram && InstancedSpriteRenderer.isRectangle(quads, quadOffset);
+                if(anyDrawn && instanced != lastInstanced)
                 {
-                    gm.groundTiles[i][j].draw(viewportMatrix);
+                    if(instanced)
+                    {
+                        spriteBatch.end();
+                        spriteBatch.begin(viewportMatrix);
+                    }
+                    else
+                    {
+                        instancedSprites.end();
+                        instancedSprites.begin(viewportMatrix);
+                    }
+                }
+                lastInstanced = instanced;
+                anyDrawn = true;
+                if(instanced)
+                {
+                    instancedSprites.draw(snapshot.getTexture(i), quads, quadOffset, x, y, snapshot.getFrameColumn(i), snapshot.getFrameRow(i), snapshot.isFlipped(i));
+                }
+                else
+                {
+                    spriteBatch.draw(snapshot.getProgram(i), snapshot.getTexture(i), quads, quadOffset, x, y, snapshot.getFrameColumn(i), snapshot.getFrameRow(i), snapshot.isFlipped(i));
                 }
             }
         }
-        for(int i = 0; i < gm.coins.size(); ++i)
+        //only one of these still has sprites waiting, the other was drawn when the last sprite switched away from it
+        spriteBatch.end();
+        instancedSprites.end();
+
+        // The player and teleport are drawn one at a time, in order
+        for(int i = snapshot.getBatchedCount(); i < snapshot.getSpriteCount(); ++i)
         {
+            spriteBatch.begin(viewportMatrix);
+            spriteBatch.draw(snapshot.getProgram(i), snapshot.getTexture(i), quads, i * RenderSnapshot.FLOATS_PER_QUAD, snapshot.getX(i, alpha), snapshot.getY(i, alpha),
+                    snapshot.getFrameColumn(i), snapshot.getFrameRow(i), snapshot.isFlipped(i));
+            spriteBatch.end();
+            if(i == player && snapshot.isSlashVisible())
             {
-                gm.coins.get(i).draw(viewportMatrix);
+                drawSlash(snapshot, playerX, playerY);
             }
         }
-        for(int i = 0; i < gm.enemies.size(); ++i)
+
+        //draw UI, the simulation changes it so it can't be stepping while we draw
+        synchronized (gm)
         {
+            gm.movementJoystick.draw();
+            for(int i = 0; i < gameControls.length; ++i)
             {
-                gm.enemies.get(i).draw(viewportMatrix);
+                {
+                    gameControls[i].draw();
+                }
             }
+            gm.message.draw();
+            gm.achievements.draw();
+            pauseMenu.draw();
+            gm.godModeMessage.draw();
         }
+    }
 
-        gm.player.draw(viewportMatrix);
-        if(gm.teleport != null)
-        {
-            gm.teleport.draw(viewportMatrix);
-        }
+    /**
+     * This method draws the player's slash
+     * @param snapshot the snapshot holding the slash
+     * @param x where the player is drawn on the x-axis
+     * @param y where the player is drawn on the y-axis
+     */
+    private void drawSlash(RenderSnapshot snapshot, float x, float y)
+    {
+        GLManager.enableAlphaBlending();
 
-        //draw UI
-        gm.movementJoystick.draw();
-        for(int i = 0; i < gameControls.length; ++i)
-        {
-            {
-                gameControls[i].draw();
-            }
-        }
-        gm.message.draw();
-        gm.achievements.draw();
-        pauseMenu.draw();
-        gm.godModeMessage.draw();
+        GLManager.useProgram(GLManager.getGLTextureProgram());
+        GLManager.setVertexAttribPointer(snapshot.getSlashVertices());
+        GLManager.translateAndRotate(viewportModelMatrix, viewportMatrix, x, y, snapshot.getSlashAngleDegrees());
+        GLManager.setMatrix(viewportModelMatrix, snapshot.getSlashTexture());
+        GLManager.drawCleanup(snapshot.getNumSlashVertices());
+    }
+
+    /**
+     * This method gets the culler used for the last frame, so the visible/total counters can be read
+     * @return the viewport culler
+     */
+    public ViewportCuller getViewportCuller()
+    {
+        return viewportCuller;
     }
 
 }
\ No newline at end of file
@@ -20,6 +20,12 @@ public class BladeDashView extends GLSurfaceView
     //The BladeDashRenderer is our custom renderer that updates and draws our game
     private BladeDashRenderer bladeDashRenderer;
 
+    //Steps the game on its own thread so updating doesn't wait on drawing
+    private SimulationThread simulationThread;
+
+    //whether the game is in the foreground, so a new simulation thread knows whether to start stepping
+    private boolean resumed;
+
     public BladeDashView(Context context, int screenX, int screenY)
     {
         super(context);
@@ -38,6 +44,9 @@ public class BladeDashView extends GLSurfaceView
         setEGLContextClientVersion(3);
         bladeDashRenderer = new BladeDashRenderer(context, gm, ic);
         setRenderer(bladeDashRenderer);
+
+        simulationThread = new SimulationThread(bladeDashRenderer);
+        simulationThread.start();
     }
 
     /**
@@ -46,6 +55,8 @@ public class BladeDashView extends GLSurfaceView
     @Override
     public void onPause()
     {
+        resumed = false;
+        simulationThread.pauseSimulation();
         super.onPause();
     }
 
@@ -56,17 +67,49 @@ public class BladeDashView extends GLSurfaceView
     public void onResume()
     {
         super.onResume();
+        resumed = true;
+        simulationThread.resumeSimulation();
+    }
+
+    /**
+     * This event is triggered when the view is put back in a window after being taken out of one.
+     * The simulation thread was stopped when it was taken out, so a new one is started
+     */
+    @Override
+    protected void onAttachedToWindow()
+    {
+        super.onAttachedToWindow();
+        if(simulationThread.isShutdown())
+        {
+            simulationThread = new SimulationThread(bladeDashRenderer);
+            simulationThread.start();
+            if(resumed)
+            {
+                simulationThread.resumeSimulation();
+            }
+        }
+    }
+
+    /**
+     * This event is triggered when the view is taken out of its window (the activity is destroyed or recreated).
+     * Stops the simulation thread, otherwise it would sit parked forever holding on to the renderer, game manager and context
+     */
+    @Override
+    protected void onDetachedFromWindow()
+    {
+        simulationThread.shutdown();
+        super.onDetachedFromWindow();
     }
 
     /**
-     * This event is triggered when the user touches the screen
+     * This event is triggered when the user touches the screen. The touches are queued for the simulation thread
      * @param motionEvent The motion event.
      * @return true, always
      */
     @Override
     public boolean onTouchEvent(MotionEvent motionEvent)
     {
-        ic.handleInput(motionEvent, gm);
+        ic.handleInput(motionEvent);
         return true;
     }
 
@@ -18,15 +18,15 @@ public class Breakable extends Ground
      * @param context - context of the program, not used this time
      * @param worldLocationX - center of the block on the x-axis
      * @param worldLocationY - center of the block on the y-axis
-     * @param parentBlock - the Ground block directly above it
+     * @param parentType - the GroundType of the block directly above it
      */
-    public Breakable(Context context, float worldLocationX, float worldLocationY, Ground parentBlock)
+    public Breakable(Context context, float worldLocationX, float worldLocationY, GroundType parentType)
     {
-        super(context, worldLocationX, worldLocationY, parentBlock.getGroundType());
+        super(context, worldLocationX, worldLocationY, parentType);
 
         //set the parentGroundType
-        parentGroundType = parentBlock.getGroundType();
-        if(parentBlock.getGroundType() == GroundType.GRASS)
+        parentGroundType = parentType;
+        if(parentType == GroundType.GRASS)
         {
             //we don't want to draw a grass block
             parentGroundType = GroundType.DIRT;
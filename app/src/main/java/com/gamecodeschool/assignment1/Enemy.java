@@ -38,9 +38,6 @@ public abstract class Enemy extends GameObject
     //how high a specific frame is
     protected float frameHeight;
 
-    //the 8 coordinates that represent the s (x) and t (y) of four vertices
-    protected float[] textureCoords;
-
     //how long before the enemy can be hit again
     protected float invincibilityTime;
 
@@ -61,9 +58,6 @@ public abstract class Enemy extends GameObject
         deathTimeStart = Long.MAX_VALUE;
         startInvincibility = 0;
         invincibilityTime = 2000f;
-
-        //initialization
-        textureCoords = new float[8];
     }
 
     /**
@@ -73,7 +67,7 @@ public abstract class Enemy extends GameObject
      */
     public boolean playerInAggroRange(Player p)
     {
-        setFacingAngle(InputController.getAngle(getWorldLocation(), p.getWorldLocation())); // note, this is the angle from a line straight up, so sin is x and cos is y
+        setFacingAngle(getAngleTo(p)); // note, this is the angle from a line straight up, so sin is x and cos is y
         float distanceX = p.getWorldLocation().x - getWorldLocation().x;
         float distanceY = p.getWorldLocation().y - getWorldLocation().y;
         if(distanceX * distanceX + distanceY * distanceY < getWidth() * getWidth() * aggroRange * aggroRange) // don't take sqrt cause it's slow, we just want to know if it's within a circle of aggroRange
@@ -84,45 +78,15 @@ public abstract class Enemy extends GameObject
     }
 
     /**
-     * Updates the texture coordinates that allows you to draw the different frames of each enemy
+     * Sets the vertices, with the texture coordinates pointing at the first frame of the sprite sheet.
+     * They never change after this, the frame being shown is picked when the enemy is drawn
+     * @param objectVertices the vertices for the enemy in the order of [x, y, z, s, t, ....]
      */
-    protected void updateTextureCoords()
+    @Override
+    public void setVertices(float[] objectVertices)
     {
-        int frameIndex = animator.getCurrentFrame();
-        AnimationState currentState = animator.getCurrentState();
-
-        float textureX = frameIndex * frameWidth;
-
-        // Determine the row in the sprite sheet based on the current state
-        int row = getStateRow(currentState);
-        float textureY = row * frameHeight;
-
-        // Normalize texture coordinates
-        float s = (textureX+2) / (spriteSheetWidth);
-        float t = (textureY+2) / (spriteSheetHeight);
-        float sMax = s + (frameWidth) / spriteSheetWidth;
-        float tMax = t + (frameHeight) / spriteSheetHeight;
-        if(InputController.getFacingRight(getFacingAngle()))
-        {
-            // Update textureCoords array
-            textureCoords[0] = s; textureCoords[1] = tMax; // Bottom left corner
-            textureCoords[2] = sMax; textureCoords[3] = tMax; // Bottom right corner
-            textureCoords[4] = sMax; textureCoords[5] = t; // Top right corner
-            textureCoords[6] = s; textureCoords[7] = t; // Top left corner
-        }
-        else //mirror horizontally
-        {
-            // Update textureCoords array
-            textureCoords[0] = sMax; textureCoords[1] = tMax; // Bottom left corner
-            textureCoords[2] = s; textureCoords[3] = tMax; // Bottom right corner
-            textureCoords[4] = s; textureCoords[5] = t; // Top right corner
-            textureCoords[6] = sMax; textureCoords[7] = t; // Top left corner
-        }
-
-
-        // Update textureCoords array
-        updateVerticesTextureCoords(textureCoords);
-
+        super.setVertices(objectVertices);
+        setFirstFrameTextureCoords(spriteSheetWidth, spriteSheetHeight, frameWidth, frameHeight);
     }
 
     /**
@@ -133,13 +97,14 @@ public abstract class Enemy extends GameObject
     protected abstract int getStateRow(AnimationState state);
 
     /**
-     * This method draws the enemy
-     * @param viewportMatrix the viewport so openGL can decide to draw the enemy or if it's off screen
+     * This method adds the enemy to the render snapshot with its current animation frame
+     * @param snapshot the snapshot the simulation thread is filling
      */
-    protected void draw(float[] viewportMatrix)
+    @Override
+    protected void capture(RenderSnapshot snapshot)
     {
-        updateTextureCoords();
-        super.draw(viewportMatrix);
+        boolean flip = !InputController.getFacingRight(getFacingAngle());
+        capture(snapshot, animator.getCurrentFrame(), getStateRow(animator.getCurrentState()), flip);
     }
 
     /**
@@ -1,37 +1,30 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.GL_FRAGMENT_SHADER;
+import static android.opengl.GLES20.GL_BLEND;
+import static android.opengl.GLES20.GL_ONE_MINUS_SRC_ALPHA;
+import static android.opengl.GLES20.GL_SRC_ALPHA;
+import static android.opengl.GLES20.GL_TEXTURE0;
+import static android.opengl.GLES20.GL_TEXTURE_2D;
 import static android.opengl.GLES20.GL_TRIANGLE_FAN;
-import static android.opengl.GLES20.GL_VERTEX_SHADER;
 import static android.opengl.GLES20.glActiveTexture;
-import static android.opengl.GLES20.glAttachShader;
 import static android.opengl.GLES20.glBindTexture;
-import static android.opengl.GLES20.glCompileShader;
-import static android.opengl.GLES20.glCreateProgram;
-import static android.opengl.GLES20.glCreateShader;
+import static android.opengl.GLES20.glBlendFunc;
 import static android.opengl.GLES20.glDisableVertexAttribArray;
+import static android.opengl.GLES20.glDisable;
 import static android.opengl.GLES20.glDrawArrays;
+import static android.opengl.GLES20.glEnable;
 import static android.opengl.GLES20.glEnableVertexAttribArray;
-import static android.opengl.GLES20.glLinkProgram;
-import static android.opengl.GLES20.glShaderSource;
 import static android.opengl.GLES20.glUniform1i;
 import static android.opengl.GLES20.glUniformMatrix4fv;
 import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.GLES20.glVertexAttribPointer;
-import static android.opengl.Matrix.multiplyMM;
-import static android.opengl.Matrix.rotateM;
-import static android.opengl.Matrix.setIdentityM;
-import static android.opengl.Matrix.translateM;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.opengl.GLES20;
-import android.opengl.GLUtils;
 import android.util.Log;
 
 import java.nio.FloatBuffer;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * This class manages openGL shader programs and texture loading.
@@ -76,16 +69,132 @@ public class GLManager {
     public static int uAlphaLocation;
     public static int uGreyScaleLocation;
 
-    //a map of textures so we don't have to regenerate every texture and can instead reuse many
-    private static HashMap<Integer, Integer> textureMap = new HashMap<>();
+    //the small drawables that get packed together into the texture atlas (sprite sheets stay on their own, their texture coordinates change every frame)
+    private static final int[] ATLAS_RESOURCES = {
+            R.drawable.grass_block, R.drawable.dirt, R.drawable.sandstone, R.drawable.magmastone, R.drawable.death,
+            R.drawable.dirt_breakable, R.drawable.sandstone_breakable, R.drawable.magmastone_breakable,
+            R.drawable.coin, R.drawable.teleport,
+            R.drawable.restartgame, R.drawable.restartlevel, R.drawable.delete, R.drawable.dash, R.drawable.attack,
+            R.drawable.jump, R.drawable.pause_button, R.drawable.close_button, R.drawable.god_mode,
+            R.drawable.active_tab, R.drawable.unactive_tab,
+            R.drawable.no_deaths1, R.drawable.no_deaths2, R.drawable.no_deaths3, R.drawable.progamer,
+            R.drawable.explorer1, R.drawable.explorer2, R.drawable.explorer3, R.drawable.ebenezerkaito,
+            R.drawable.pacifist, R.drawable.godgamer
+    };
+
+    //the atlas pages the drawables above are packed into
+    private static TextureAtlas textureAtlas;
+
+    //decodes the textures that aren't in the atlas in the background
+    private static final AsyncTextureLoader textureLoader = new AsyncTextureLoader();
+
+    //objects hold texture handles, this says which openGL texture each one is in the current context
+    private static final TextureHandleTable textureHandles = new TextureHandleTable();
+
+    //the textures that aren't in the atlas, so we don't have to regenerate every texture and can instead reuse many
+    private static final TextureResidencyManager textures = new TextureResidencyManager(textureLoader, textureHandles);
+
+    //the openGL state we last set, so calls that wouldn't change anything can be skipped. Only used on the GL thread
+    private static int boundProgram;
+    private static int boundTexture;
+    private static int activeTextureUnit;
+    private static boolean blendEnabled;
+    private static int blendSource;
+    private static int blendDestination;
+    private static final boolean[] enabledAttributes = new boolean[16];
+    //which programs already have their sampler pointed at texture unit 0, indexed by program id
+    private static boolean[] samplerSet = new boolean[16];
+
+    //how many state calls were made and skipped since the last resetStateCounters()
+    private static int stateCallsMade;
+    private static int stateCallsAvoided;
 
     /**
-     * Static method to reset the texture map (useful when closing the program and reopening
+     * Static method to get the textures ready when a new openGL context is made. The first time the atlas is packed.
+     * After that (closing the program and reopening) the old textures died with the old context, so the atlas pages and
+     * every resident texture are made again, once each, and their handles pointed at the new textures.
+     * The objects keep their handles, so none of them have to load their textures again
      * @param context the context of the program
      */
-    public static void resetTextureMap(Context context)
+    public static void beginTextureContext(Context context)
     {
-        textureMap = new HashMap<>();
+        textureLoader.beginContext();
+        if(textureAtlas == null)
+        {
+            textureAtlas = TextureAtlas.build(context, ATLAS_RESOURCES, textureLoader, textureHandles);
+            textures.pin(textureAtlas.getByteCount());
+        }
+        else
+        {
+            //the order matters: restoring the atlas submits its page decodes and waits for them, so they have to go in
+            //before textures.restore() queues every other texture on the same decode threads, or the wait is behind all of them
+            textureAtlas.restore(context, textureLoader, textureHandles);
+            textures.restore(context);
+        }
+    }
+
+    /**
+     * Starts loading a level. Every texture loaded until endTextureLevel() counts as used by the level
+     */
+    public static void beginTextureLevel()
+    {
+        textures.beginLevel();
+    }
+
+    /**
+     * Goes back to the level that was loaded last, every texture loaded until pauseTextureLevel() counts as used by it too
+     */
+    public static void resumeTextureLevel()
+    {
+        textures.resumeLevel();
+    }
+
+    /**
+     * Stops counting the textures that are loaded as used by the level
+     */
+    public static void pauseTextureLevel()
+    {
+        textures.pauseLevel();
+    }
+
+    /**
+     * Finishes loading a level, textures the level doesn't use can be deleted if we are over the budget
+     */
+    public static void endTextureLevel()
+    {
+        textures.endLevel();
+        Log.d("TextureResidency", textures.toString());
+    }
+
+    /**
+     * Gets the texture residency manager, for its budget and totals
+     * @return the texture residency manager
+     */
+    public static TextureResidencyManager getTextureResidency()
+    {
+        return textures;
+    }
+
+    /**
+     * Deletes a texture, and forgets it is bound if it was
+     * @param textureId the openGL texture to delete (not a handle)
+     */
+    public static void deleteTexture(int textureId)
+    {
+        if(boundTexture == textureId)
+        {
+            boundTexture = 0; //deleting a bound texture binds 0
+        }
+        GLES20.glDeleteTextures(1, new int[] {textureId}, 0);
+    }
+
+    /**
+     * Gets the texture atlas
+     * @return the texture atlas, or null if the textures haven't been loaded yet
+     */
+    public static TextureAtlas getTextureAtlas()
+    {
+        return textureAtlas;
     }
 
     //vertex shader in GLSL code
@@ -161,117 +270,61 @@ public class GLManager {
         return achievementProgram;
     }
 
-    /**
-     * Compiles and links shader programs for the textureProgram.
-     * @return The handle to the textureProgram.
-     */
-    public static int buildProgramTexture()
-    {
-        int vertexShaderId = compileShader(GL_VERTEX_SHADER, vertexShader);
-        int colorFragmentShaderId = compileShader(GL_FRAGMENT_SHADER, textureFragmentShader);
-        return linkProgramTexture(vertexShaderId,colorFragmentShaderId);
-    }
+    //builds the programs once per context, sharing the vertex shader and loading saved programs when it can
+    private static ShaderProgramRegistry programRegistry;
 
     /**
-     * Compiles and links shader programs for the colorProgram.
-     * @return The handle to the colorProgram.
+     * Gets the programs ready for a new openGL context. Call before building any program
+     * @param context the context of the program, saved programs go in its app storage
      */
-    public static int buildColorProgram()
+    public static void beginProgramContext(Context context)
     {
-        int vertexShaderId = compileShader(GL_VERTEX_SHADER, vertexShader);
-        int colorFragmentShaderId = compileShader(GL_FRAGMENT_SHADER, colorFragmentShader);
-        return linkProgramColor(vertexShaderId, colorFragmentShaderId);
-    }
-
-    /**
-     * Compiles and links shader programs for the achievementProgram.
-     * @return The handle to the achievementProgram.
-     */
-    public static int buildAchievementProgram()
-    {
-        int vertexShaderId = compileShader(GL_VERTEX_SHADER, vertexShader);
-        int achievementFragmentShaderId = compileShader(GL_FRAGMENT_SHADER, achievementFragmentShader);
-        return linkProgramAchievement(vertexShaderId, achievementFragmentShaderId);
-    }
-
-    /**
-     * Compiles a shader
-     * @param type the GL shader type (we only used GL_VERTEX_SHADER and GL_FRAGMENT_SHADER)
-     * @param shaderCode the string of GLSL code
-     * @return the compiled shader id
-     */
-    private static int compileShader(int type, String shaderCode)
-    {
-
-        // Create a shader object and store its ID
-        final int shader = glCreateShader(type);
-
-        // Pass in the code then compile the shader
-        glShaderSource(shader, shaderCode);
-        glCompileShader(shader);
-
-        return shader;
+        if(programRegistry == null)
+        {
+            programRegistry = new ShaderProgramRegistry(context);
+        }
+        programRegistry.beginContext();
     }
 
     /**
-     * This links the shaders into a newly created program
-     * @param vertexShader the id of the vertex shader we want to link
-     * @param fragmentShader the id of the fragment shader we want to link
-     * @return the newly created program id
+     * Builds (or loads) the textureProgram.
+     * @return The handle to the textureProgram.
      */
-    private static int linkShadersIntoProgram(int vertexShader, int fragmentShader)
+    public static int buildProgramTexture()
     {
-        // Create a new GL program
-        int programId = glCreateProgram();
-
-        // Attach the vertex shader to the program.
-        glAttachShader(programId, vertexShader);
-
-        // Attach the fragment shader to the program.
-        glAttachShader(programId, fragmentShader);
-
-        // Link the two shaders together into the program.
-        glLinkProgram(programId);
-
-        // Optionally, add error checking here to validate the linking process
-
-        return programId;
+        textureProgram = buildProgram(vertexShader, textureFragmentShader);
+        return textureProgram;
     }
 
     /**
-     * this creates and links the shaders into the textureProgram
-     * @param vertexShader the id of the vertex shader we want to link
-     * @param fragmentShader the id of the fragment shader we want to link
-     * @return textureProgram's id
+     * Builds (or loads) the colorProgram.
+     * @return The handle to the colorProgram.
      */
-    private static int linkProgramTexture(int vertexShader, int fragmentShader)
+    public static int buildColorProgram()
     {
-        textureProgram = linkShadersIntoProgram(vertexShader, fragmentShader);
-        return textureProgram;
+        colorProgram = buildProgram(vertexShader, colorFragmentShader);
+        return colorProgram;
     }
 
     /**
-     * this creates and links the shaders into the colorProgram
-     * @param vertexShader the id of the vertex shader we want to link
-     * @param fragmentShader the id of the fragment shader we want to link
-     * @return colorProgram's id
+     * Builds (or loads) the achievementProgram.
+     * @return The handle to the achievementProgram.
      */
-    private static int linkProgramColor(int vertexShader, int fragmentShader)
+    public static int buildAchievementProgram()
     {
-        colorProgram = linkShadersIntoProgram(vertexShader, fragmentShader);
-        return colorProgram;
+        achievementProgram = buildProgram(vertexShader, achievementFragmentShader);
+        return achievementProgram;
     }
 
     /**
-     * this creates and links the shaders into the achievementProgram
-     * @param vertexShader the id of the vertex shader we want to link
-     * @param fragmentShader the id of the fragment shader we want to link
-     * @return achievementProgram's id
+     * Builds (or loads) a program that isn't one of the three above (like the instanced sprite program)
+     * @param vertexShaderCode the GLSL code of the vertex shader
+     * @param fragmentShaderCode the GLSL code of the fragment shader
+     * @return the program id, or 0 if it didn't compile or link (like an ES 3 shader on an ES 2 device)
      */
-    private static int linkProgramAchievement(int vertexShader, int fragmentShader)
+    public static int buildProgram(String vertexShaderCode, String fragmentShaderCode)
     {
-        achievementProgram = linkShadersIntoProgram(vertexShader, fragmentShader);
-        return achievementProgram;
+        return programRegistry.getProgram(vertexShaderCode, fragmentShaderCode);
     }
 
     /**
@@ -283,17 +336,23 @@ public class GLManager {
     public static void loadTexture(Context context, Texturable texturable)
     {
         int resourceId = texturable.getTextureResourceId(context);
-        int textureId = getOrLoadTexture(context, resourceId);
 
-        if (textureId != -1)
+        // Use the atlas if the drawable was packed and the object can use a part of a texture
+        TextureRegion region = textureAtlas != null ? textureAtlas.getRegion(resourceId) : null;
+        if (region == null || !texturable.setTextureRegion(region))
         {
-            texturable.setTextureID(textureId);
+            int textureId = getOrLoadTexture(context, resourceId);
+
+            if (textureId != -1)
+            {
+                texturable.setTextureID(textureId);
+            }
         }
         // Check if object is an instance of Player and load specific texture
         if (texturable instanceof Player)
         {
             Player player = (Player) texturable;
-            int slashTextureId = loadTextureFromResourceId(context, player.getSlashTextureId());
+            int slashTextureId = getOrLoadTexture(context, player.getSlashTextureId());
             player.setSlashTexture(slashTextureId);
         }
     }
@@ -310,63 +369,17 @@ public class GLManager {
             return -1; // Early return if the resource ID is invalid
         }
 
-        if (textureMap.containsKey(resourceId)) {
-            return textureMap.get(resourceId); // Return existing texture ID if already loaded
-        } else {
-            // Load the texture and add it to the map
-            int textureId = loadTextureFromResourceId(context, resourceId);
-            textureMap.put(resourceId, textureId);
-            return textureId;
-        }
+        // Reuse the texture if it is resident, otherwise it is decoded in the background and shows a placeholder until it is uploaded
+        return textures.acquire(context, resourceId);
     }
 
     /**
-     * Loads a texture from a resource ID.
-     * Initializes OpenGL texture parameters and binds the texture.
-     * @param context The application context.
-     * @param resourceId The resource ID of the texture.
-     * @return The OpenGL texture ID.
+     * Uploads some of the textures that finished decoding in the background. Called once a frame on the GL thread
+     * @return how many textures were uploaded
      */
-    private static int loadTextureFromResourceId(Context context, int resourceId)
+    public static int uploadPendingTextures()
     {
-        final int[] textureObjectIds = new int[1];
-        GLES20.glGenTextures(1, textureObjectIds, 0);
-
-        if (textureObjectIds[0] == 0) {
-            Log.e("GLManager", "Could not generate a new OpenGL texture object.");
-            return 0;
-        }
-
-        final BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inScaled = true; // No pre-scaling
-
-        final Bitmap bitmap = BitmapFactory.decodeResource(context.getResources(), resourceId, options);
-
-        if (bitmap == null)
-        {
-            Log.e("GLManager", "Resource ID " + resourceId + " could not be decoded.");
-            GLES20.glDeleteTextures(1, textureObjectIds, 0);
-            return 0;
-        }
-
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureObjectIds[0]);
-
-        //adjusting the parameters a bit
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR_MIPMAP_LINEAR);
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
-
-        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, bitmap, 0);
-        GLES20.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
-
-        bitmap.recycle();
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
-
-        //put in textureMap so we don't have to regenerate
-        textureMap.put(resourceId, textureObjectIds[0]);
-
-        return textureObjectIds[0];
+        return textureLoader.uploadPending();
     }
 
     /**
@@ -379,27 +392,27 @@ public class GLManager {
         vertices.position(0);
 
         glVertexAttribPointer(aPositionLocation, POSITION_ATTRIBUTE_SIZE, GLES20.GL_FLOAT, false, STRIDE, vertices);
-        glEnableVertexAttribArray(aPositionLocation);
+        enableVertexAttribArray(aPositionLocation);
 
         // Set texture coordinates attribute
         vertices.position(POSITION_ATTRIBUTE_SIZE); // Move position to the start of texture coordinates
         glVertexAttribPointer(aTextureCoordinatesLocation, TEXTURE_COORDINATES_ATTRIBUTE_SIZE, GLES20.GL_FLOAT, false, STRIDE, vertices);
-        glEnableVertexAttribArray(aTextureCoordinatesLocation);
+        enableVertexAttribArray(aTextureCoordinatesLocation);
     }
 
     /**
      * Passes matrix and texture information to the shader program.
      * @param viewportMatrix The combined model-view-projection matrix.
-     * @param textureID The OpenGL texture ID.
+     * @param textureID The texture handle.
      */
     public static void setMatrix(float[] viewportMatrix, int textureID)
     {
         // Give the matrix to OpenGL
         glUniformMatrix4fv(uMatrixLocation, 1, false, viewportMatrix, 0);
         // Assign a color to the fragment shader
-        glActiveTexture(GLES20.GL_TEXTURE0);
-        glBindTexture(GLES20.GL_TEXTURE_2D, textureID);
-        glUniform1i(uTextureUnit, 0);
+        activeTexture(GL_TEXTURE0);
+        bindTexture(textureID);
+        setSamplerToUnitZero(uTextureUnit);
     }
 
     /**
@@ -410,8 +423,8 @@ public class GLManager {
     {
         glDrawArrays(GL_TRIANGLE_FAN, 0, numVertices);
         // Disable blending and vertex array after drawing
-        glDisableVertexAttribArray(aPositionLocation);
-        glDisableVertexAttribArray(aTextureCoordinatesLocation);
+        disableVertexAttribArray(aPositionLocation);
+        disableVertexAttribArray(aTextureCoordinatesLocation);
     }
 
     /**
@@ -425,14 +438,8 @@ public class GLManager {
      */
     public static void translateAndRotate(float[] viewportModelMatrix, float[] viewportMatrix, float translateX, float translateY, float angle)
     {
-        float[] modelMatrix = new float[16];
-        setIdentityM(modelMatrix, 0);
-        translateM(modelMatrix, 0, translateX, translateY, 0);
-        // Apply rotation here if needed
-        rotateM(modelMatrix, 0, -angle, 0, 0, 1); // note the negative angle
-
-        // Combine model with viewport matrix
-        multiplyMM(viewportModelMatrix, 0, viewportMatrix, 0, modelMatrix, 0);
+        // Translate the viewport matrix, then apply the rotation on top of it (the angle is negated in there)
+        ModelMatrix.translateAndRotate(viewportModelMatrix, viewportMatrix, translateX, translateY, angle);
     }
 
     /**
@@ -445,11 +452,209 @@ public class GLManager {
      */
     public static void translate(float[] viewportModelMatrix, float[] viewportMatrix, float translateX, float translateY)
     {
-        float[] modelMatrix = new float[16];
-        setIdentityM(modelMatrix, 0);
-        translateM(modelMatrix, 0, translateX, translateY, 0);
+        // Same as multiplying the viewport by a translation matrix, without building one
+        ModelMatrix.translate(viewportModelMatrix, viewportMatrix, translateX, translateY);
+    }
+
+    /**
+     * Forgets the state we think openGL is in. Call when a new openGL context is made, since it starts with the defaults
+     */
+    public static void resetStateCache()
+    {
+        boundProgram = 0;
+        boundTexture = 0;
+        activeTextureUnit = GL_TEXTURE0;
+        blendEnabled = false;
+        blendSource = -1;
+        blendDestination = -1;
+        Arrays.fill(enabledAttributes, false);
+        Arrays.fill(samplerSet, false);
+    }
+
+    /**
+     * Uses a program, unless it is already in use
+     * @param program the program to use
+     */
+    public static void useProgram(int program)
+    {
+        if(program == boundProgram)
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glUseProgram(program);
+        boundProgram = program;
+        ++stateCallsMade;
+    }
+
+    /**
+     * Binds the 2D texture a texture handle points at to the active texture unit, unless it is already bound
+     * @param handle the texture handle to bind, as held by the objects
+     */
+    public static void bindTexture(int handle)
+    {
+        bindTextureObject(textureHandles.get(handle));
+    }
+
+    /**
+     * Binds a 2D texture to the active texture unit, unless it is already bound.
+     * Only texture unit 0 is ever used, so one binding is tracked
+     * @param texture the openGL texture to bind (not a handle), used by the code that makes textures
+     */
+    public static void bindTextureObject(int texture)
+    {
+        if(texture == boundTexture)
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glBindTexture(GL_TEXTURE_2D, texture);
+        boundTexture = texture;
+        ++stateCallsMade;
+    }
+
+    /**
+     * Makes a texture unit active, unless it already is
+     * @param unit the texture unit (GL_TEXTURE0, ...)
+     */
+    public static void activeTexture(int unit)
+    {
+        if(unit == activeTextureUnit)
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glActiveTexture(unit);
+        activeTextureUnit = unit;
+        ++stateCallsMade;
+    }
+
+    /**
+     * Points the sampler of the program in use at texture unit 0. Uniforms stay set for the life of the program, so this only
+     * talks to openGL the first time for each program
+     * @param location the location of the sampler uniform in the program in use
+     */
+    public static void setSamplerToUnitZero(int location)
+    {
+        if(boundProgram < samplerSet.length && samplerSet[boundProgram])
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glUniform1i(location, 0);
+        if(boundProgram >= samplerSet.length)
+        {
+            samplerSet = Arrays.copyOf(samplerSet, Math.max(boundProgram + 1, samplerSet.length * 2));
+        }
+        samplerSet[boundProgram] = true;
+        ++stateCallsMade;
+    }
+
+    /**
+     * Turns on normal alpha blending (source alpha, one minus source alpha), unless it is already on
+     */
+    public static void enableAlphaBlending()
+    {
+        if(!blendEnabled)
+        {
+            glEnable(GL_BLEND);
+            blendEnabled = true;
+            ++stateCallsMade;
+        }
+        else
+        {
+            ++stateCallsAvoided;
+        }
+        if(blendSource != GL_SRC_ALPHA || blendDestination != GL_ONE_MINUS_SRC_ALPHA)
+        {
+            glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+            blendSource = GL_SRC_ALPHA;
+            blendDestination = GL_ONE_MINUS_SRC_ALPHA;
+            ++stateCallsMade;
+        }
+        else
+        {
+            ++stateCallsAvoided;
+        }
+    }
+
+    /**
+     * Turns off blending, unless it is already off
+     */
+    public static void disableBlending()
+    {
+        if(!blendEnabled)
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glDisable(GL_BLEND);
+        blendEnabled = false;
+        ++stateCallsMade;
+    }
+
+    /**
+     * Enables a vertex attribute array, unless it is already enabled
+     * @param location the attribute location
+     */
+    public static void enableVertexAttribArray(int location)
+    {
+        if(location >= 0 && location < enabledAttributes.length && enabledAttributes[location])
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glEnableVertexAttribArray(location);
+        if(location >= 0 && location < enabledAttributes.length)
+        {
+            enabledAttributes[location] = true;
+        }
+        ++stateCallsMade;
+    }
+
+    /**
+     * Disables a vertex attribute array, unless it is already disabled
+     * @param location the attribute location
+     */
+    public static void disableVertexAttribArray(int location)
+    {
+        if(location >= 0 && location < enabledAttributes.length && !enabledAttributes[location])
+        {
+            ++stateCallsAvoided;
+            return;
+        }
+        glDisableVertexAttribArray(location);
+        if(location >= 0 && location < enabledAttributes.length)
+        {
+            enabledAttributes[location] = false;
+        }
+        ++stateCallsMade;
+    }
+
+    /**
+     * Gets how many state calls were actually sent to openGL since the last resetStateCounters()
+     * @return how many state calls were made
+     */
+    public static int getStateCallsMade()
+    {
+        return stateCallsMade;
+    }
+
+    /**
+     * Gets how many state calls were skipped because they wouldn't have changed anything since the last resetStateCounters()
+     * @return how many state calls were avoided
+     */
+    public static int getStateCallsAvoided()
+    {
+        return stateCallsAvoided;
+    }
 
-        // Combine model with viewport matrix
-        multiplyMM(viewportModelMatrix, 0, viewportMatrix, 0, modelMatrix, 0);
+    /**
+     * Starts counting state calls from zero again, called at the start of every frame
+     */
+    public static void resetStateCounters()
+    {
+        stateCallsMade = 0;
+        stateCallsAvoided = 0;
     }
-}
\ No newline at end of file
+}
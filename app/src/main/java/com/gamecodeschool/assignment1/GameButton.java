@@ -1,6 +1,5 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 
 import android.content.Context;
@@ -29,6 +28,9 @@ public class GameButton implements Texturable
     //the textureID, used for openGL
     private int textureID;
 
+    //where the texture is on the atlas page, null if it has a texture of its own
+    private TextureRegion textureRegion;
+
     //the viewport so we know what to draw
     private final float[] viewportMatrix = new float[16];
 
@@ -72,6 +74,10 @@ public class GameButton implements Texturable
                 size, -size, 0,     1.0f, 0.0f,  // Top right corner
                 -size, -size, 0,    0.0f, 0.0f   // Top left corner
         };
+        if(textureRegion != null)
+        {
+            textureRegion.mapTextureCoords(modelVertices);
+        }
         // Store number of vertices
         vertices = ByteBuffer.allocateDirect(modelVertices.length * 4)
                 .order(ByteOrder.nativeOrder()).asFloatBuffer();
@@ -86,7 +92,7 @@ public class GameButton implements Texturable
      */
     public void draw()
     {
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         GLManager.setVertexAttribPointer(vertices);
         GLManager.translate(viewportModelMatrix, viewportMatrix, loc.x, loc.y);
@@ -149,4 +155,17 @@ public class GameButton implements Texturable
     {
         textureID = textureId;
     }
+
+    /**
+     * Sets the texture atlas region for this object (for openGL)
+     * @param region - where the texture for this object is on the atlas page
+     * @return true, the texture coordinates are moved onto the region
+     */
+    @Override
+    public boolean setTextureRegion(TextureRegion region)
+    {
+        textureID = region.getTextureId();
+        textureRegion = region;
+        return true;
+    }
 }
@@ -7,6 +7,7 @@ import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -20,11 +21,14 @@ import kotlin.NotImplementedError;
  * This class is used to manage our game objects and has some useful information as well
  * @author Braeden Ruff
  */
-public class GameManager
+public class GameManager implements TileGrid
 {
-    //Contains a string that is used to load the level
+    //The level being played, read from its compiled file
     private LevelData levelData;
 
+    //the compiled level of each level number, made by the build from app/src/main/levels
+    private static final String[] LEVEL_FILES = {"levels/forest.lvl", "levels/desert.lvl", "levels/magma.lvl"};
+
     //The width of the map (from levelData)
     int mapWidth;
 
@@ -40,29 +44,43 @@ public class GameManager
     //The saved player object (useful for when we want to reload)
     Player savedPlayer;
 
-    //Our levels ground tiles (sparse array)
-    Ground[][] groundTiles;
+    //Our level, split into chunks whose tiles, enemies and coins are only made when the player is near
+    LevelStreamer streamer;
+
+    //Our saved level (useful for when we want to reload)
+    LevelStreamer savedStreamer;
+
+    //The solid tiles of our level merged into the boxes everything collides with
+    CollisionGeometry collision;
 
-    //Our saved ground tiles (useful for when we want to reload)
-    Ground[][] savedGroundTiles;
+    //Our saved collision boxes (useful for when we want to reload)
+    CollisionGeometry savedCollision;
+
+    //Our ground tiles baked into static vertex buffers for drawing
+    final TerrainMesh terrain = new TerrainMesh();
 
     //Our list of enemies
-    ArrayList<Enemy> enemies;
+    EntityList<Enemy> enemies;
 
     //Our list of enemies (useful for when we want to reload)
-    ArrayList<Enemy> savedEnemies;
+    EntityList<Enemy> savedEnemies;
 
     //Our list of coins
-    ArrayList<Coin> coins;
+    EntityList<Coin> coins;
 
     //Our saved list of coins (useful for when we want to reload)
-    ArrayList<Coin> savedCoins;
+    EntityList<Coin> savedCoins;
 
     //Our list of breakable walls
-    ArrayList<Breakable> breakables;
+    EntityList<Breakable> breakables;
 
     //Our saved list of breakable walls (useful for when we want to reload)
-    ArrayList<Breakable> savedBreakables;
+    EntityList<Breakable> savedBreakables;
+
+    //Our enemies, coins and breakable walls filed by the tile they are on, so we only check the ones near the player
+    final SpatialHash<Enemy> enemyHash = new SpatialHash<>(pixelsPerMeter, SPATIAL_HASH_BUCKETS);
+    final SpatialHash<Coin> coinHash = new SpatialHash<>(pixelsPerMeter, SPATIAL_HASH_BUCKETS);
+    final SpatialHash<Breakable> breakableHash = new SpatialHash<>(pixelsPerMeter, SPATIAL_HASH_BUCKETS);
 
     //Our teleport/end point
     Teleport teleport;
@@ -123,6 +141,9 @@ public class GameManager
     //used to make sure we don't clip to far through a tile, since we can only move through half a tile
     private static float largestMovement = pixelsPerMeter/2;
 
+    //how many buckets each spatial hash spreads its cells over
+    private static final int SPATIAL_HASH_BUCKETS = 1024;
+
     //used for the no deaths type of achievements
     private boolean died;
 
@@ -190,6 +211,72 @@ public class GameManager
         return mapColumns;
     }
 
+    /**
+     * This method gets the number of rows for the tile collider
+     * @return the number of rows
+     */
+    @Override
+    public int getRows()
+    {
+        return mapRows;
+    }
+
+    /**
+     * This method gets the number of columns for the tile collider
+     * @return the number of columns
+     */
+    @Override
+    public int getColumns()
+    {
+        return mapColumns;
+    }
+
+    /**
+     * This method gets how big a tile is for the tile collider
+     * @return the width and height of a tile
+     */
+    @Override
+    public float getTileSize()
+    {
+        return pixelsPerMeter;
+    }
+
+    /**
+     * This method checks if there is a ground tile at a spot
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if there is a ground tile there
+     */
+    @Override
+    public boolean isSolid(int row, int column)
+    {
+        return streamer.getOccupancy().isSolid(row, column);
+    }
+
+    /**
+     * This method gets which collision group a tile is in, so only tiles that collide the same way are merged
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return the group of the tile, 0 if there isn't a tile
+     */
+    @Override
+    public int getCollisionGroup(int row, int column)
+    {
+        TileType type = streamer.getTileType(row, column);
+        return type != null ? type.getCollisionGroup() : 0;
+    }
+
+    /**
+     * This method checks if a tile is an instant death block
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile kills the player
+     */
+    public boolean isDeadly(int row, int column)
+    {
+        return streamer.getOccupancy().isDeadly(row, column);
+    }
+
     /**
      * this method saves the achievements
      * @param context - context of the program, used to open and save the achievements file
@@ -222,7 +309,8 @@ public class GameManager
     {
         if(reload) //helps the objects stay in the last place
         {
-            savedGroundTiles = groundTiles;
+            savedStreamer = streamer;
+            savedCollision = collision;
             savedCoins = coins;
             savedBreakables = breakables;
             savedEnemies = enemies;
@@ -234,7 +322,8 @@ public class GameManager
         }
         else
         {
-            savedGroundTiles = null;
+            savedStreamer = null;
+            savedCollision = null;
             savedCoins = null;
             savedBreakables = null;
             savedEnemies = null;
@@ -285,11 +374,12 @@ public class GameManager
     {
         playing = false;
 
-        mapRows = levelData.tiles.size();
-        mapColumns =  levelData.tiles.get(0).length(); // all will be the same length or issue will occur
+        mapRows = levelData.getRows();
+        mapColumns = levelData.getColumns(); // the build made sure the level is a rectangle
         if(reload)
         {
-            groundTiles = savedGroundTiles;
+            streamer = savedStreamer;
+            collision = savedCollision;
             enemies = savedEnemies;
             coins = savedCoins;
             breakables = savedBreakables;
@@ -300,46 +390,25 @@ public class GameManager
 
             //can't directly change reference to achievements since achievementsTab uses this and they need to point to the same object
             achievements.setBooleans(savedAchievements.toString());
-            //openGL needs to reload all the textures, since genTexture is non-deterministic and clears when you close your phone
-            for (int j = 0; j < mapColumns; j++)
-            {
-                for (int i = 0; i < mapRows; i++)
-                {
-                    if(groundTiles[i][j] != null)
-                    {
-                        reloadTextures(context, groundTiles[i][j]);
-                    }
-                }
-            }
-            for(Enemy enemy : enemies)
-            {
-                reloadTextures(context, enemy);
-            }
-            for(Coin coin : coins)
-            {
-                reloadTextures(context, coin);
-            }
-            for(Breakable breakable : breakables)
-            {
-                reloadTextures(context, breakable);
-            }
-            reloadTextures(context, player);
-            reloadTextures(context, teleport);
-            reloadTextures(context, message);
-            reloadTextures(context, achievements);
-            ArrayList<AchievementIcon> icons = achievements.getIcons();
-            for(AchievementIcon icon : icons)
-            {
-                reloadTextures(context, icon);
-            }
-            reloadTextures(context, achievements.message);
-            reloadTextures(context, godModeMessage);
+            //the objects hold texture handles, GLManager already pointed them at the textures of the new context
+
+            //the text meshes were in buffers of the old context too
+            message.invalidate();
+            achievements.message.invalidate();
+            godModeMessage.invalidate();
+
+            //the terrain buffers were in the old context, so bake the terrain again
+            terrain.build(streamer);
+            buildSpatialHashes();
 
             reload = true;
             playing = true;
             return;
         }
 
+        //every texture the objects of this level ask for counts as used by the level
+        GLManager.beginTextureLevel();
+
         if(delete)
         {
             clearSaveAchievements(context);
@@ -349,119 +418,182 @@ public class GameManager
         godModeMessage = new Message(context, screenWidth, screenHeight);
         godModeMessage.setPersistent(true);
         generateGodModeText();
-        char c;
-
-        //enforce this
-        for(int i = 0; i < mapRows; ++i)
-        {
-            if(levelData.tiles.get(i).length() != mapColumns)
-            {
-                Log.e("Not Rect", "The levelData must be a rectangle");
-                throw new NotImplementedError();
-            }
-        }
 
-        groundTiles = new Ground[mapRows][mapColumns];
-        enemies = new ArrayList<Enemy>();
-        coins = new ArrayList<Coin>();
-        breakables = new ArrayList<Breakable>();
+        enemies = new EntityList<Enemy>();
+        coins = new EntityList<Coin>();
+        breakables = new EntityList<Breakable>();
         message = new Message(context, screenWidth, screenHeight);
         if(achievements == null)
         {
             achievements = new Achievements(context, screenWidth, screenHeight);
         }
+        else
+        {
+            //the achievements live through every level, so the new level uses their textures too
+            reloadTextures(context, achievements);
+            for(AchievementIcon icon : achievements.getIcons())
+            {
+                reloadTextures(context, icon);
+            }
+            reloadTextures(context, achievements.message);
+        }
         loadSavedAchievements(context);
 
         message.generateText("");
-        mapWidth = 0;
-        mapHeight = 0; // reset these
+        mapWidth = (mapColumns - 1) * pixelsPerMeter;
+        mapHeight = (mapRows - 1) * pixelsPerMeter;
 
-        for (int j = 0; j < mapColumns; j++) //i want to populate our array list from left to right, for logic in BladeDashRenderer's handlePlayerEnemyCollisions()
+        //the player and the end are made right away, everything else is made by the streamer as the player gets near
+        for(int spawn = 0; spawn < levelData.getSpawnCount(); ++spawn)
         {
-            int x = j * pixelsPerMeter;
-            mapWidth = Math.max(mapWidth, x);
-            for (int i = 0; i < mapRows; i++)
+            int x = levelData.getSpawnColumn(spawn) * pixelsPerMeter;
+            int y = levelData.getSpawnRow(spawn) * pixelsPerMeter;
+            switch (levelData.getSpawnType(spawn))
             {
-                int y = i * pixelsPerMeter;
-                mapHeight = Math.max(mapHeight, y);
-
-                c = levelData.tiles.get(i).charAt(j);
-                if (c != '.') {// Don't want to load the empty spaces
-                    switch (c)
-                    {
-                        // Ground
-                        case '1':
-                            // Add a tile to the tiles
-                            groundTiles[i][j] = new Ground(context, x, y,Ground.GroundType.GRASS);
-                            break;
-
-                        case '2':
-                            // Add a ground block to tiles
-                            groundTiles[i][j] = new Ground(context, x, y, Ground.GroundType.DIRT);
-                            break;
-
-                        case '3':
-                            // Add a Sandstone block to tiles
-                            groundTiles[i][j] = new Ground(context, x, y, Ground.GroundType.SANDSTONE);
-                            break;
-
-                        case '4':
-                            // Add a Sandstone block to tiles
-                            groundTiles[i][j] = new Ground(context, x, y, Ground.GroundType.MAGMASTONE);
-                            break;
-
-                        case 'w':
-                            // Add a breakable wall to tiles, depending on the parent block
-                            groundTiles[i][j] = new Breakable(context, x, y, groundTiles[i - 1][j]);
-                            breakables.add((Breakable) (groundTiles[i][j]));
-                            break;
-                        case 'd':
-                            // Add an instant death block tiles
-                            groundTiles[i][j] = new Ground(context, x, y, Ground.GroundType.DEATH);
-                            break;
-
-                        // Enemies
-                        case 's':
-                            // Add a slime to the enemies
-
-                            enemies.add(new Slime(context, x, y));
-
-                            break;
-
-                        case 'g':
-                            // Add a goblin to the enemies
-                            enemies.add(new Goblin(context, x, y));
-                            break;
-                        case 'm':
-                            enemies.add(new MonsterSpawner(context, x, y, message));
-                            break;
-
-                        // Collectibles
-                        case 'c':
-                            // Add a coin to the coins if not already collected
-                            coins.add(new Coin(context, x, y));
-                            break;
-
-                        // Start and end
-                        case 'p':// player start
-                            //Make the player
-                            // by teleporters pixelsPerMeter * 276, pixelsPerMeter * 15
-
-                            player = new Player(context, x, y, godMode);
-                            break;
-                        case 'f': //player end
-                            teleport = new Teleport(context, x, y);
-
-                    }
-                }
+                case 'p':// player start
+                    //Make the player
+                    // by teleporters pixelsPerMeter * 276, pixelsPerMeter * 15
+
+                    player = new Player(context, x, y, godMode);
+                    break;
+                case 'f': //player end
+                    teleport = new Teleport(context, x, y);
             }
         }
+        TileType.loadTextures(context);
+        streamer = new LevelStreamer(levelData, this);
+        streamer.update(context, player.getX(), player.getWorldLocation().y, metresToShowX / 2, metresToShowY / 2);
+        collision = new CollisionGeometry(this, streamer.getOccupancy());
+
+        terrain.build(streamer);
+        buildSpatialHashes();
+        GLManager.endTextureLevel();
 
         reload = true;
         playing = true;
         saveGameObjectsState();
     }
 
+    /**
+     * This method puts an enemy a monster spawner made in the game. It is let go of with the spawner's chunk
+     * @param enemy the new enemy
+     * @param spawner the enemy that made it
+     */
+    public void spawnEnemy(Enemy enemy, Enemy spawner)
+    {
+        streamer.addSpawnedEnemy(enemy, spawner);
+    }
+
+    /**
+     * This method takes an enemy out of the game, it is removed from the enemy list at the end of the tick
+     * @param enemy the enemy to remove
+     */
+    public void removeEnemy(Enemy enemy)
+    {
+        streamer.spawnRemoved(enemy);
+        enemies.kill(enemy);
+        enemyHash.remove(enemy);
+    }
+
+    /**
+     * This method takes a coin out of the game, it is removed from the coin list at the end of the tick
+     * @param coin the coin to remove
+     */
+    public void removeCoin(Coin coin)
+    {
+        streamer.spawnRemoved(coin);
+        coins.kill(coin);
+        coinHash.remove(coin);
+    }
+
+    /**
+     * This method takes a breakable wall out of the game, it is removed from the breakable list at the end of the tick
+     * @param breakable the breakable wall to remove
+     */
+    public void removeBreakable(Breakable breakable)
+    {
+        breakables.kill(breakable);
+        breakableHash.remove(breakable);
+    }
+
+    /**
+     * This method removes the enemies, coins and breakable walls that were taken out of the game this tick
+     */
+    public void flushKills()
+    {
+        enemies.flushKills();
+        coins.flushKills();
+        breakables.flushKills();
+    }
+
+    /**
+     * This method files the level's enemies, coins and breakable walls into their spatial hashes
+     */
+    private void buildSpatialHashes()
+    {
+        enemyHash.clear();
+        for(int i = 0; i < enemies.size(); ++i)
+        {
+            enemyHash.insert(enemies.get(i));
+        }
+        coinHash.clear();
+        for(int i = 0; i < coins.size(); ++i)
+        {
+            coinHash.insert(coins.get(i));
+        }
+        breakableHash.clear();
+        for(int i = 0; i < breakables.size(); ++i)
+        {
+            breakableHash.insert(breakables.get(i));
+        }
+    }
+
+    /**
+     * This method makes the chunks of the level the player is getting close to and lets go of the ones left behind.
+     * Makes objects with textures, so it runs on the render thread while the simulation can't change the game
+     * @param context the context of the program, used to make the objects
+     */
+    public void streamLevel(Context context)
+    {
+        if(streamer == null || player == null)
+        {
+            return;
+        }
+        GLManager.resumeTextureLevel();
+        streamer.update(context, player.getX(), player.getWorldLocation().y, metresToShowX / 2, metresToShowY / 2);
+        GLManager.pauseTextureLevel();
+    }
+
+    /**
+     * This method gets how many coins of the level haven't been collected, including the ones that aren't loaded
+     * @return how many coins are left
+     */
+    public int getCoinsLeft()
+    {
+        return streamer.getCoinsLeft();
+    }
+
+    /**
+     * This method gets how many enemies of the level haven't been killed, including the ones that aren't loaded
+     * @return how many enemies are left
+     */
+    public int getEnemiesLeft()
+    {
+        return streamer.getEnemiesLeft();
+    }
+
+    /**
+     * This method removes a tile from the map (like when a breakable wall is slashed) and tells the collision boxes and the terrain to rebuild that part
+     * @param row the row of the tile
+     * @param column the column of the tile
+     */
+    public void removeTile(int row, int column)
+    {
+        streamer.removeTile(row, column);
+        collision.tileChanged(row, column);
+        terrain.markDirty(row, column);
+    }
+
     /**
      * This method clears achievments obtained by the player
      * @param context - the the context of the program, used to open achievements.txt and clear it
@@ -519,20 +651,22 @@ public class GameManager
      */
     public void switchLevel(Context context)
     {
-        switch (level)
+        if(level >= LEVEL_FILES.length)
+        {
+            throw new NotImplementedError();
+        }
+        if(level == 0)
+        {
+            startTime = System.currentTimeMillis(); //start time here, so we know how long it took to beat the game
+        }
+        try (InputStream in = context.getAssets().open(LEVEL_FILES[level]))
         {
-            case 0:
-                levelData = new LevelForest();
-                startTime = System.currentTimeMillis(); //start time here, so we know how long it took to beat the game
-                break;
-            case 1:
-                levelData = new LevelDesert();
-                break;
-            case 2:
-                levelData = new LevelMagma();
-                break;
-            default:
-                throw new NotImplementedError();
+            levelData = LevelData.read(in);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            throw new IllegalStateException("Level " + LEVEL_FILES[level] + " could not be read", e);
         }
         loadMapData(context);
     }
@@ -605,40 +739,44 @@ public class GameManager
         {
             @Override
             public void onNameEntered(String name) {
-                // Now you have the name, proceed with the logic that depends on the name
-                ArrayList<TimeRecord> topTimes = loadTopTimes(context);
+                //this is called on the UI thread, so keep the simulation out while we change the message
+                synchronized (GameManager.this)
+                {
+                    // Now you have the name, proceed with the logic that depends on the name
+                    ArrayList<TimeRecord> topTimes = loadTopTimes(context);
 
-                TimeRecord currentRecord = new TimeRecord(System.currentTimeMillis() - startTime, name);
-                topTimes.add(currentRecord);
-                Collections.sort(topTimes);
+                    TimeRecord currentRecord = new TimeRecord(System.currentTimeMillis() - startTime, name);
+                    topTimes.add(currentRecord);
+                    Collections.sort(topTimes);
 
-                String times = "";
-                int longestNumChars = 0;
-                for(TimeRecord time : topTimes)
-                {
-                    String timeString = formatTime((time.getTimeMillis()));
-                    times += time.getPlayerName() + ": " + timeString + "\n";
-                    int tempLongest = 0;
-                    tempLongest += time.getPlayerName().length() + 2 + timeString.length();
-                    if(tempLongest > longestNumChars)
+                    String times = "";
+                    int longestNumChars = 0;
+                    for(TimeRecord time : topTimes)
                     {
-                        longestNumChars = tempLongest;
+                        String timeString = formatTime((time.getTimeMillis()));
+                        times += time.getPlayerName() + ": " + timeString + "\n";
+                        int tempLongest = 0;
+                        tempLongest += time.getPlayerName().length() + 2 + timeString.length();
+                        if(tempLongest > longestNumChars)
+                        {
+                            longestNumChars = tempLongest;
+                        }
+                    }
+                    if (topTimes.size() > 3) {
+                        topTimes.subList(3, topTimes.size()).clear(); // Keep only top three
                     }
-                }
-                if (topTimes.size() > 3) {
-                    topTimes.subList(3, topTimes.size()).clear(); // Keep only top three
-                }
 
-                saveTopTimes(topTimes, context);
-                float char_width = screenWidth / 20;
-                float x = screenWidth/2 - char_width/2 * longestNumChars;
-                while(x < 0) // keep it all on screen in case they have a long name
-                {
-                    char_width *= 0.9;
-                    x = screenWidth/2 - char_width/2 * longestNumChars;
+                    saveTopTimes(topTimes, context);
+                    float char_width = screenWidth / 20;
+                    float x = screenWidth/2 - char_width/2 * longestNumChars;
+                    while(x < 0) // keep it all on screen in case they have a long name
+                    {
+                        char_width *= 0.9;
+                        x = screenWidth/2 - char_width/2 * longestNumChars;
+                    }
+                    float y = screenHeight/2;
+                    message.generateText(times, char_width, x, y);
                 }
-                float y = screenHeight/2;
-                message.generateText(times, char_width, x, y);
             }
         });
     }
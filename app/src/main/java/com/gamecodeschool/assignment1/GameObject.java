@@ -2,12 +2,10 @@
 
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 
 import static com.gamecodeschool.assignment1.GLManager.*;
 
 import android.content.Context;
-import android.graphics.PointF;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -17,34 +15,20 @@ import kotlin.NotImplementedError;
 
 /**
  * This class is used as a base for all of our game objects, (something the player can interact with, or is the player themselves)
+ * It adds the textures and vertices for drawing to the Entity the simulation moves around
  * @author Braeden Ruff
  */
-public abstract class GameObject implements Texturable
+public abstract class GameObject extends Entity implements Texturable
 {
     //the texture id for openGL to draw
     private int textureID;
 
-    //for how fast the object can move
-    private float maxVelocity = 0f;
-
-    //for how fast the object can accelerate
-    private float maxAccel = 5f;
-
-    //objects current velocity in the x-axis
-    private float xVelocity = 0f;
-
-    //objects current velocity in the y-axis
-    private float yVelocity = 0f;
-
-    //how fast gravity accelerates the object
-    protected float gravity = 3;
+    //where our image is on a texture atlas page, null if we have a texture of our own
+    private TextureRegion textureRegion;
 
     //the glProgram we are using
     private static int glProgram =-1;
 
-    //the angle we are facing, 0 is to the right
-    private double facingAngle = -Math.PI/2; //straight up
-
     // how many vertices does openGL need to draw
     private int numVertices;
 
@@ -52,89 +36,25 @@ public abstract class GameObject implements Texturable
     // the coordinates of the vertices (x,y,z,s,t) per vertex, and there is four for a default gameobject
     private float[] modelVertices;
 
-    // the centre of the object in game world coordinates
-    private PointF worldLocation = new PointF();
-
     // basically will have what is in modelVertices, but openGL likes FloatBuffer
     private FloatBuffer vertices;
 
     // intermediary matrix for openGL translation and rotation
     float[] viewportModelMatrix = new float[16];
 
-    // dimensions of the game object
-    private float width, height;
-
-    /**
-     * This enum is used to determine how two objects collided
-     */
-    public enum collisionType {NONE, TOP, BOTTOM, LEFT, RIGHT};
-
     /**
      * This is the constructor of the game object
      * @param context - the context of the program, needed for animation spritesheets to determine the height and width
      */
     public GameObject(Context context)
     {
+        super(GameManager.getLargestMovement());
         GLManager.loadTexture(context, this);
         if (glProgram == -1){
             setGLProgram();
         }
     }
 
-    /**
-     * This method is used to determine how two objects collided
-     * @param other the object that this object is colliding with
-     * @return how two objects collided. E.g: other is above this object and collided, it will return TOP
-     */
-    Enum<collisionType> getCollisionDirection(GameObject other)
-    {
-        PointF centerThis = this.getWorldLocation();
-        PointF centerOther = other.getWorldLocation();
-
-        float dx = centerOther.x - centerThis.x; //+
-        float dy = centerOther.y - centerThis.y; //+
-
-        float combinedHalfWidths = (this.width + other.width) / 2;
-        float combinedHalfHeights = (this.height + other.height) / 2;
-
-        if (Math.abs(dx) < combinedHalfWidths && Math.abs(dy) < combinedHalfHeights) //then they collided
-        {
-            float overlapX = combinedHalfWidths - Math.abs(dx); //how deep in the x direction
-            float overlapY = combinedHalfHeights - Math.abs(dy); //how deep in the y direction
-
-            if (overlapX >= overlapY) {
-                return (dy > 0) ? collisionType.TOP : collisionType.BOTTOM;
-            } else {
-                return (dx > 0) ? collisionType.LEFT : collisionType.RIGHT;
-            }
-        }
-        return collisionType.NONE;
-    }
-
-    /**
-     * This method slows the object to a stop, using the maximum acceleration
-     * @param fps how much time has passed (influences how much the velocity should be adjusted)
-     */
-    public void comeToStop(long fps)
-    {
-        if(getxVelocity() > 0)
-        {
-            setxVelocity(Math.max(getxVelocity() + (-getMaxVelocity() * getMaxAccel() / fps), -getMaxVelocity()));
-            if(getxVelocity() < 0) //we passed 0
-            {
-                setxVelocity(0);
-            }
-        }
-        else
-        {
-            setxVelocity(Math.min(getxVelocity() + (getMaxVelocity() * getMaxAccel() / fps), getMaxVelocity()));
-            if(getxVelocity() > 0) //we passed 0
-            {
-                setxVelocity(0);
-            }
-        }
-    }
-
     /**
      * This method sets the glProgram and the locations for our GLManager
      */
@@ -143,26 +63,14 @@ public abstract class GameObject implements Texturable
         glProgram = GLManager.getGLTextureProgram();
     }
 
-    /**
-     * This method sets the size of the GameObject
-     * @param w is the width
-     * @param h is the height
-     */
-    public void setSize(float w, float h)
-    {
-        width = w;
-        height = h;
-
-    }
-
     /**
      * This method sets the vertices for most of the game objects (which are rectangles)
      */
     public void setDefaultVertices()
     {
         //define center of object as worldlocationx and worldlocationy
-        float halfW = width / 2;
-        float halfH = height / 2;
+        float halfW = getWidth() / 2;
+        float halfH = getHeight() / 2;
 
         float[] vertices = new float[] {
                 // Position         // Texture Coordinates
@@ -175,145 +83,6 @@ public abstract class GameObject implements Texturable
         setVertices(vertices);
     }
 
-    /**
-     * This method sets the width of the GameObject
-     * @return the width
-     */
-    public float getWidth()
-    {
-        return width;
-    }
-
-    /**
-     * This method sets the height of the GameObject
-     * @return the height
-     */
-    public float getHeight()
-    {
-        return height;
-    }
-
-    /**
-     * Sets the GameObject's facing angle. 0 is to the right, and the angle increases clockwise until PI, then switches to -PI and decreases.
-     * @param angle the new facing angle in radians.
-     */
-    public void setFacingAngle(double angle)
-    {
-        facingAngle = angle;
-    }
-
-    /**
-     * Retrieves the GameObject's current facing angle.
-     * @return the facing angle in radians.
-     */
-    public double getFacingAngle()
-    {
-        return facingAngle;
-    }
-
-    /**
-     * Retrieves the GameObject's current velocity along the x-axis.
-     * @return the x-axis velocity.
-     */
-    public float getxVelocity()
-    {
-        return xVelocity;
-    }
-
-    /**
-     * Sets the GameObject's velocity along the x-axis.
-     * @param xVelocity the new x-axis velocity.
-     */
-    public void setxVelocity(float xVelocity)
-    {
-        this.xVelocity = xVelocity;
-    }
-
-    /**
-     * Retrieves the GameObject's current velocity along the y-axis.
-     * @return the y-axis velocity.
-     */
-    public float getyVelocity()
-    {
-        return yVelocity;
-    }
-
-    /**
-     * Sets the GameObject's velocity along the y-axis.
-     * @param yVelocity the new y-axis velocity.
-     */
-    public void setyVelocity(float yVelocity)
-    {
-        this.yVelocity = yVelocity;
-    }
-
-    /**
-     * This method applies gravity to the object
-     * @param fps the current frame rate (frames per second)
-     */
-    public void applyGravity(long fps)
-    {
-        setyVelocity(getyVelocity() - (getMaxVelocity() * gravity / fps));
-    }
-
-    /**
-     * Retrieves the maximum acceleration of the GameObject.
-     * @return the maximum acceleration.
-     */
-    float getMaxAccel()
-    {
-        return maxAccel;
-    }
-
-    /**
-     * Sets the maximum acceleration for the GameObject.
-     * @param maxAccel the new maximum acceleration.
-     */
-    public void setMaxAccel(float maxAccel)
-    {
-        this.maxAccel = maxAccel;
-    }
-
-    /**
-     * Retrieves the maximum velocity of the GameObject.
-     * @return the maximum velocity.
-     */
-    public float getMaxVelocity()
-    {
-        return maxVelocity;
-    }
-
-    /**
-     * Moves the GameObject based on its velocity and the frame rate.
-     * Ensures movement does not exceed the largest allowed per frame to prevent clipping.
-     * @param fps the current frame rate.
-     */
-    void move(float fps)
-    {
-        // Calculate movement while considering the maximum possible movement to avoid clipping
-        float xVel = xVelocity > 0 ? Math.min(xVelocity / fps, GameManager.getLargestMovement()) : Math.max(xVelocity / fps, -GameManager.getLargestMovement());
-        float yVel = yVelocity > 0 ? Math.min(yVelocity / fps, GameManager.getLargestMovement()) : Math.max(yVelocity / fps, -GameManager.getLargestMovement());
-
-        // Update position if there is movement
-        if(xVelocity != 0)
-        {
-            worldLocation.x += xVel;
-        }
-
-        if(yVelocity != 0)
-        {
-            worldLocation.y += yVel;
-        }
-    }
-
-    /**
-     * Sets the maximum velocity allowed by this object
-     * @param maxSpeed the maximum velocity allowed of this object
-     */
-    public void setMaxVelocity(float maxSpeed) {
-        this.maxVelocity = maxSpeed;
-    }
-
     /**
      * Sets the texture ID for the GameObject.
      * The texture ID is used by OpenGL to bind the correct texture during drawing.
@@ -322,26 +91,34 @@ public abstract class GameObject implements Texturable
     public void setTextureID(int id)
     {
         textureID = id;
+        textureRegion = null;
     }
 
     /**
-     * Retrieves the world location of the GameObject.
-     * @return the world location as a PointF object.
+     * Sets the texture atlas region for the GameObject and moves the texture coordinates onto it
+     * @param region where our image is on the atlas page
+     * @return true, GameObjects can always use a region
      */
-    public PointF getWorldLocation()
+    @Override
+    public boolean setTextureRegion(TextureRegion region)
     {
-        return worldLocation;
+        textureID = region.getTextureId();
+        textureRegion = region;
+        //loadTexture can be called again after the vertices are set (reloads and Breakable), so remap from the originals
+        if(modelVertices != null)
+        {
+            setVertices(modelVertices);
+        }
+        return true;
     }
 
     /**
-     * Sets the world location of the GameObject.
-     * @param x the x-coordinate in world space.
-     * @param y the y-coordinate in world space, negated to match OpenGL's coordinate system.
+     * Gets the texture ID of the GameObject
+     * @return the OpenGL texture ID
      */
-    public void setWorldLocation(float x, float y)
+    public int getTextureID()
     {
-        this.worldLocation.x = x;
-        this.worldLocation.y = -y;
+        return textureID;
     }
 
     /**
@@ -351,6 +128,15 @@ public abstract class GameObject implements Texturable
      */
     public void setVertices(float[] objectVertices)
     {
+        // Keep the vertices as given, so we can remap them if the texture region changes
+        modelVertices = objectVertices;
+        float[] mappedVertices = objectVertices;
+        if(textureRegion != null)
+        {
+            mappedVertices = objectVertices.clone();
+            textureRegion.mapTextureCoords(mappedVertices);
+        }
+
         // Store how many elements
         int numElements = objectVertices.length;
         // Store num vertices for future use
@@ -363,7 +149,7 @@ public abstract class GameObject implements Texturable
                 .order(ByteOrder.nativeOrder()).asFloatBuffer();
 
         //add the vertices to FloatBuffer
-        vertices.put(objectVertices);
+        vertices.put(mappedVertices);
         //reset the position to the start
         vertices.position(0);
     }
@@ -378,6 +164,17 @@ public abstract class GameObject implements Texturable
             // Position to start updating in the buffer for each vertex
             int bufferPosition = i * (POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE) + POSITION_ATTRIBUTE_SIZE;
 
+            // Keep the originals in case the texture region changes
+            modelVertices[bufferPosition] = newTextureCoords[i * 2];
+            modelVertices[bufferPosition + 1] = newTextureCoords[i * 2 + 1];
+            if(textureRegion != null)
+            {
+                // Update s and t coordinate on the atlas page
+                vertices.put(bufferPosition, textureRegion.mapS(newTextureCoords[i * 2]));
+                vertices.put(bufferPosition + 1, textureRegion.mapT(newTextureCoords[i * 2 + 1]));
+                continue;
+            }
+
             // Update s coordinate
             vertices.put(bufferPosition, newTextureCoords[i * 2]);
 
@@ -395,14 +192,82 @@ public abstract class GameObject implements Texturable
     protected void draw(float[] viewportMatrix)
     {
         // tell OpenGl to use the glProgram
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         GLManager.setVertexAttribPointer(vertices);
-        GLManager.translate(viewportModelMatrix, viewportMatrix, worldLocation.x,worldLocation.y);
+        GLManager.translate(viewportModelMatrix, viewportMatrix, getX(), getY());
         GLManager.setMatrix(viewportModelMatrix, textureID);
         GLManager.drawCleanup(numVertices);
     }
 
+    /**
+     * This method copies what is needed to draw the GameObject into a render snapshot. Only works for the default 4 vertex quads
+     * @param snapshot the snapshot the simulation thread is filling
+     */
+    protected void capture(RenderSnapshot snapshot)
+    {
+        capture(snapshot, 0, 0, false);
+    }
+
+    /**
+     * This method copies what is needed to draw the GameObject into a render snapshot, showing one frame of its sprite sheet.
+     * The vertices always hold the first frame, the renderer moves the texture coordinates over to the frame being shown
+     * @param snapshot the snapshot the simulation thread is filling
+     * @param frameColumn how many frames right of the first frame to show
+     * @param frameRow how many frames down from the first frame to show
+     * @param flip true to mirror the sprite horizontally
+     */
+    protected void capture(RenderSnapshot snapshot, int frameColumn, int frameRow, boolean flip)
+    {
+        //objects that haven't been stepped yet are drawn where they are
+        snapshot.addSprite(glProgram, textureID, vertices, getPreviousWorldLocation(), getWorldLocation(), getWidth(), getHeight(),
+                frameColumn, frameRow, flip);
+    }
+
+    /**
+     * This method points the texture coordinates at the first frame of a sprite sheet. Only works if there is 4 vertices
+     * @param spriteSheetWidth how wide the sprite sheet is
+     * @param spriteSheetHeight how high the sprite sheet is
+     * @param frameWidth how wide a frame is
+     * @param frameHeight how high a frame is
+     */
+    protected void setFirstFrameTextureCoords(float spriteSheetWidth, float spriteSheetHeight, float frameWidth, float frameHeight)
+    {
+        if(spriteSheetWidth == 0 || spriteSheetHeight == 0)
+        {
+            return; //the sheet isn't loaded yet, loading it sets the vertices again
+        }
+        // Skip the 2 pixel border of the sheet, every other frame is a whole number of frames from here
+        float s = 2 / spriteSheetWidth;
+        float t = 2 / spriteSheetHeight;
+        float sMax = s + frameWidth / spriteSheetWidth;
+        float tMax = t + frameHeight / spriteSheetHeight;
+        updateVerticesTextureCoords(new float[] {
+                s, tMax, // Bottom left corner
+                sMax, tMax, // Bottom right corner
+                sMax, t, // Top right corner
+                s, t // Top left corner
+        });
+    }
+
+    /**
+     * This method writes the quad of the GameObject, already moved to its world location, into an array. Only works for the default 4 vertex quads
+     * @param dest the array to write the 4 vertices (x, y, z, s, t) into
+     * @param offset where in the array to start writing
+     */
+    public void writeQuad(float[] dest, int offset)
+    {
+        int floatsPerVertex = POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+        for(int i = 0; i < 4 * floatsPerVertex; i += floatsPerVertex)
+        {
+            dest[offset + i] = vertices.get(i) + getX();
+            dest[offset + i + 1] = vertices.get(i + 1) + getY();
+            dest[offset + i + 2] = vertices.get(i + 2);
+            dest[offset + i + 3] = vertices.get(i + 3);
+            dest[offset + i + 4] = vertices.get(i + 4);
+        }
+    }
+
     /**
      * This method needs to be implemented because it implements texturable, but we only use it on subclasses
      * @param context is the context of the program, since some instances of texturable need context
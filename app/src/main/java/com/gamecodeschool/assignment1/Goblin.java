@@ -1,7 +1,7 @@
 package com.gamecodeschool.assignment1;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
+import android.graphics.BitmapFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -171,9 +171,9 @@ public class Goblin extends Enemy
      */
     @Override
     public int getTextureResourceId(Context context){
-        Drawable drawable = context.getDrawable(R.drawable.goblin);
-        spriteSheetWidth = drawable.getIntrinsicWidth();
-        spriteSheetHeight = drawable.getIntrinsicHeight();
+        BitmapFactory.Options size = AsyncTextureLoader.readSize(context, R.drawable.goblin);
+        spriteSheetWidth = size.outWidth;
+        spriteSheetHeight = size.outHeight;
         numberOfColumnsInSpriteSheet = 40;
         numberOfRowsInSpriteSheet = 4;
         frameWidth = spriteSheetWidth / numberOfColumnsInSpriteSheet;
@@ -46,6 +46,12 @@ public class InputController
     // Represents the pause menu.
     private PauseMenu pauseMenu;
 
+    // Touches waiting for the simulation thread, filled by the UI thread. Lock free so neither thread waits on the other.
+    private final InputQueue commands = new InputQueue();
+
+    // Reused for the touch being applied, simulation thread only
+    private final PointF touchPoint = new PointF();
+
     /**
      * Initializes the controller with screen dimensions and positions UI elements.
      * @param screenWidth The width of the game screen.
@@ -121,16 +127,12 @@ public class InputController
     }
 
     /**
-     * Handles touch input, interpreting it as player movement, actions, or menu interactions.
+     * Handles touch input on the UI thread. Every pointer is copied into a command and queued for the simulation thread,
+     * nothing in the game is touched here.
      * @param motionEvent The MotionEvent object containing touch details.
-     * @param gm The GameManager handling game logic.
      */
-    public void handleInput(MotionEvent motionEvent, GameManager gm) //add sound here later
+    public void handleInput(MotionEvent motionEvent) //add sound here later
     {
-        if(gm.player == null || pauseMenu == null)
-        {
-            return;
-        }
         int action = motionEvent.getActionMasked();
         int actionIndex = motionEvent.getActionIndex(); // Get index for down/up events.
         int actionId = motionEvent.getPointerId(actionIndex); // Get ID for consistent tracking.
@@ -139,89 +141,118 @@ public class InputController
 
         for (int i = 0; i < pointerCount; i++)
         {
+            if(!commands.offer(action, actionId, motionEvent.getPointerId(i), (int) motionEvent.getX(i), (int) motionEvent.getY(i))
+                    && commands.getDropped() == 1)
+            {
+                Log.e("InputController", "input queue full, dropping touches");
+            }
+        }
+    }
 
-            int pointerId = motionEvent.getPointerId(i);
-            int x = (int) motionEvent.getX(i);
-            int y = (int) motionEvent.getY(i);
-            PointF point = new PointF(x, y);
-            float distanceToJoystick = distanceToCircle(movementJoystick.first, point);
-            switch (action)
+    /**
+     * Applies the queued touches to the game. Called by the simulation thread before it steps
+     * @param gm The GameManager handling game logic.
+     */
+    public void processCommands(GameManager gm)
+    {
+        InputCommand command;
+        while((command = commands.peek()) != null)
+        {
+            if(gm.player != null && pauseMenu != null) //otherwise nothing to control yet
             {
+                applyCommand(command, gm);
+            }
+            commands.release();
+        }
+    }
+
+    /**
+     * Interprets one touch as player movement, actions, or menu interactions.
+     * @param command The touch to apply.
+     * @param gm The GameManager handling game logic.
+     */
+    private void applyCommand(InputCommand command, GameManager gm)
+    {
+        int pointerId = command.pointerId;
+        PointF point = touchPoint;
+        point.set(command.x, command.y);
+        float distanceToJoystick = distanceToCircle(movementJoystick.first, point);
+        switch (command.action)
+        {
 
-                case MotionEvent.ACTION_DOWN: case MotionEvent.ACTION_POINTER_DOWN:
-                    pauseMenu.handleInput(point, gm);
-                    if(gm.player.getControllable())
+            case MotionEvent.ACTION_DOWN: case MotionEvent.ACTION_POINTER_DOWN:
+                pauseMenu.handleInput(point, gm);
+                if(gm.player.getControllable())
+                {
+                    if (distanceToJoystick < gm.screenWidth / 16) //clicked down on somewhere on the outer radius
                     {
-                        if (distanceToJoystick < gm.screenWidth / 16) //clicked down on somewhere on the outer radius
-                        {
-                            //find direction
-                            double angle = getScreenAngle(outerCenter, point);
-                            gm.movementJoystick.setInnerCenter(point);
-                            gm.player.setFacingAngle(angle);
-                            gm.player.setMoving(true);
-                            movingPointer = pointerId;
-                        }
-                        else if (distanceToCircle(jump, point) < outerRadius)
-                        {
-                            if (!gm.player.getIsAirborne())
-                            {
-                                gm.player.jump();
-                            }
-                            if (gm.player.getWallSliding())
-                            {
-                                gm.player.wallJump();
-                            }
-                        }
-                        else if (distanceToCircle(dash, point) < outerRadius)
+                        //find direction
+                        double angle = getScreenAngle(outerCenter, point);
+                        gm.movementJoystick.setInnerCenter(point);
+                        gm.player.setFacingAngle(angle);
+                        gm.player.setMoving(true);
+                        movingPointer = pointerId;
+                    }
+                    else if (distanceToCircle(jump, point) < outerRadius)
+                    {
+                        if (!gm.player.getIsAirborne())
                         {
-                            gm.player.dash();
+                            gm.player.jump();
                         }
-                        else if (distanceToCircle(slash, point) < outerRadius)
+                        if (gm.player.getWallSliding())
                         {
-                            gm.player.slash(gm);
+                            gm.player.wallJump();
                         }
                     }
-                    break;
-
-
-                case MotionEvent.ACTION_UP: case MotionEvent.ACTION_POINTER_UP:
-                    if(movingPointer == actionId)
+                    else if (distanceToCircle(dash, point) < outerRadius)
                     {
-                        movingPointer = -1;
-                        gm.movementJoystick.setInnerCenter(outerCenter);
-                        gm.player.setMoving(false);
+                        gm.player.dash();
                     }
-
-                    break;
-
-                case MotionEvent.ACTION_MOVE:
-                    if (gm.player.getMoving() && movingPointer == pointerId) //clicked down on somewhere on the outer radius
+                    else if (distanceToCircle(slash, point) < outerRadius)
                     {
-                        //find direction
-                        double angle = getScreenAngle(outerCenter, point);
-                        if(distanceToJoystick < movementJoystick.second.x)
-                        {
-                            gm.movementJoystick.setInnerCenter(point);
-                            if(gm.player.getControllable()) {
-                                gm.player.setFacingAngle(angle);
-                                gm.player.setMoving(true);
-                            }
+                        gm.player.slash(gm);
+                    }
+                }
+                break;
+
+
+            case MotionEvent.ACTION_UP: case MotionEvent.ACTION_POINTER_UP:
+                if(movingPointer == command.actionId)
+                {
+                    movingPointer = -1;
+                    gm.movementJoystick.setInnerCenter(outerCenter);
+                    gm.player.setMoving(false);
+                }
+
+                break;
+
+            case MotionEvent.ACTION_MOVE:
+                if (gm.player.getMoving() && movingPointer == pointerId) //clicked down on somewhere on the outer radius
+                {
+                    //find direction
+                    double angle = getScreenAngle(outerCenter, point);
+                    if(distanceToJoystick < movementJoystick.second.x)
+                    {
+                        gm.movementJoystick.setInnerCenter(point);
+                        if(gm.player.getControllable()) {
+                            gm.player.setFacingAngle(angle);
+                            gm.player.setMoving(true);
                         }
-                        else
-                        {
+                    }
+                    else
+                    {
 
-                            //get outside edge of circle
-                            float new_x = outerCenter.x + outerRadius * (float) Math.cos(angle); // x
-                            float new_y= outerCenter.y + outerRadius * (float) Math.sin(angle); // y
-                            gm.movementJoystick.setInnerCenter(new PointF(new_x, new_y));
-                            if(gm.player.getControllable())
-                            {
-                                gm.player.setFacingAngle(angle);
-                                gm.player.setMoving(true);
-                            }
+                        //get outside edge of circle
+                        float new_x = outerCenter.x + outerRadius * (float) Math.cos(angle); // x
+                        float new_y= outerCenter.y + outerRadius * (float) Math.sin(angle); // y
+                        gm.movementJoystick.setInnerCenter(new_x, new_y);
+                        if(gm.player.getControllable())
+                        {
+                            gm.player.setFacingAngle(angle);
+                            gm.player.setMoving(true);
                         }
                     }
-            }
+                }
         }
     }
 
@@ -233,14 +264,7 @@ public class InputController
      */
     private double getScreenAngle(PointF point1, PointF point2)
     {
-        float ndcX1 = (2.0f * point1.x) / screenWidth - 1;
-        float ndcY1 = 1-(2.0f * point1.y) / screenHeight; // Flipping the y-coordinate;
-
-
-        float ndcX2 = (2.0f * point2.x) / screenWidth - 1;
-        float ndcY2 = 1-(2.0f * point2.y) / screenHeight; // Flipping the y-coordinate;
-
-        return getAngle(new PointF(ndcX1, ndcY1), new PointF(ndcX2, ndcY2));
+        return TouchMath.getScreenAngle(point1.x, point1.y, point2.x, point2.y, screenWidth, screenHeight);
     }
 
     /**
@@ -261,17 +285,6 @@ public class InputController
         return distance;
     }
 
-    /**
-     * Calculates the angle between two points.
-     * @param pointFrom Starting point.
-     * @param pointTo Ending point.
-     * @return The angle in radians.
-     */
-    public static double getAngle(PointF pointFrom, PointF pointTo)
-    {
-        return Math.atan2((-pointTo.y + pointFrom.y),(pointTo.x - pointFrom.x));
-    }
-
     /**
      * Determines if the facing direction is right based on the angle.
      * Used to draw the animation in reverse if false
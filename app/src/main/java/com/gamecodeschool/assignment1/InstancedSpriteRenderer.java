@@ -0,0 +1,361 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_FLOAT;
+import static android.opengl.GLES20.GL_STATIC_DRAW;
+import static android.opengl.GLES20.GL_STREAM_DRAW;
+import static android.opengl.GLES20.GL_TEXTURE0;
+import static android.opengl.GLES20.GL_TRIANGLE_FAN;
+import static android.opengl.GLES20.glBindBuffer;
+import static android.opengl.GLES20.glBufferData;
+import static android.opengl.GLES20.glGenBuffers;
+import static android.opengl.GLES20.glGetAttribLocation;
+import static android.opengl.GLES20.glGetUniformLocation;
+import static android.opengl.GLES20.glUniformMatrix4fv;
+import static android.opengl.GLES20.glVertexAttribPointer;
+import static android.opengl.GLES30.glDrawArraysInstanced;
+import static android.opengl.GLES30.glVertexAttribDivisor;
+import static com.gamecodeschool.assignment1.GLManager.FLOAT_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.U_MATRIX;
+import static com.gamecodeschool.assignment1.GLManager.U_TEXTURE_UNIT;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Draws many copies of textured rectangles with one instanced draw call per texture (OpenGL ES 3.0).
+ * A single unit quad is shared by every sprite, and each sprite only sends its rectangle, the texture of its first
+ * animation frame, which frame to show and whether it is flipped, so animating never rewrites any vertices. Since everything in the atlas shares a texture, all the coins and enemies end up in one call.
+ * Sprites that aren't plain rectangles, or use a different program, should still go through the SpriteBatch.
+ * @author Braeden Ruff
+ */
+public class InstancedSpriteRenderer
+{
+    //how many sprites we can hold before we have to flush
+    public static final int MAX_INSTANCES = 4096;
+
+    //x0, y0, x1, y1 of the rectangle, the left, top, right and bottom of the first frame's texture, then the frame column, row and flip flag
+    private static final int FLOATS_PER_INSTANCE = 11;
+    private static final int INSTANCE_STRIDE = FLOATS_PER_INSTANCE * FLOAT_SIZE;
+
+    //how many bits of the sort key are used for the sprite index
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    //the attribute and uniform names of the instanced shaders
+    private static final String A_CORNER = "a_Corner";
+    private static final String A_RECT = "a_Rect";
+    private static final String A_UV_RECT = "a_UvRect";
+    private static final String A_FRAME = "a_Frame";
+
+    //each corner of the shared quad picks between the two sides of the rectangle. The texture starts at the first frame
+    //and moves over by whole frames (the size of the first frame) to the frame being shown, and the flip flag mirrors it
+    private static final String vertexShader =
+            "#version 300 es\n" +
+                    "uniform mat4 u_Matrix;" +
+                    "in vec2 a_Corner;" +
+                    "in vec4 a_Rect;" +
+                    "in vec4 a_UvRect;" +
+                    "in vec3 a_Frame;" +
+                    "out vec2 v_TextureCoordinates;" +
+
+                    "void main()" +
+                    "{" +
+                    "    vec2 corner = vec2(abs(a_Frame.z - a_Corner.x), 1.0 - a_Corner.y);" +
+                    "    v_TextureCoordinates = a_UvRect.xy + (a_Frame.xy + corner) * (a_UvRect.zw - a_UvRect.xy);" +
+                    "    gl_Position = u_Matrix * vec4(mix(a_Rect.xy, a_Rect.zw, a_Corner), 0.0, 1.0);" +
+                    "}";
+
+    //the same as the texture program's fragment shader
+    private static final String fragmentShader =
+            "#version 300 es\n" +
+                    "precision mediump float;" +
+                    "uniform sampler2D u_TextureUnit;" +
+                    "in vec2 v_TextureCoordinates;" +
+                    "out vec4 fragColor;" +
+
+                    "void main()" +
+                    "{" +
+                    "    vec4 texColor = texture(u_TextureUnit, v_TextureCoordinates);" +
+                    "    if(texColor.a < 0.1) {" +
+                    "         discard;" +
+                    "     }" +
+                    "     fragColor = texColor;" +
+                    "}";
+
+    //the corners of the shared quad, in triangle fan order (bottom left, bottom right, top right, top left)
+    private static final float[] CORNERS = {0, 0, 1, 0, 1, 1, 0, 1};
+
+    //the instance data of every sprite added since begin(), in the order they were added
+    private final float[] staging = new float[MAX_INSTANCES * FLOATS_PER_INSTANCE];
+
+    //the texture of every sprite added since begin()
+    private final int[] instanceTextures = new int[MAX_INSTANCES];
+
+    //texture and index packed into one long so we can sort without allocating
+    private final long[] sortKeys = new long[MAX_INSTANCES];
+
+    //how many sprites are waiting to be drawn
+    private int instanceCount;
+
+    //the sorted instance data we hand to openGL
+    private final FloatBuffer instanceData;
+
+    //the program and where its attributes and uniforms are, the program is 0 if instancing isn't available
+    private int program;
+    private int aCornerLocation;
+    private int aRectLocation;
+    private int aUvRectLocation;
+    private int aFrameLocation;
+    private int uMatrixLocation;
+    private int uTextureUnitLocation;
+
+    //the openGL buffer objects
+    private int cornerBufferId;
+    private int instanceBufferId;
+
+    //the viewport we were given in begin()
+    private float[] viewportMatrix;
+
+    //whether we are between begin() and end()
+    private boolean drawing;
+
+    //how many draw calls and sprites were issued since the last resetStats()
+    private int drawCalls;
+    private int instancesDrawn;
+
+    /**
+     * The constructor allocates the client side memory. The openGL side is made in createBuffers()
+     */
+    public InstancedSpriteRenderer()
+    {
+        instanceData = ByteBuffer.allocateDirect(staging.length * FLOAT_SIZE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * This method builds the program and the buffers. It needs to be called again whenever the openGL context is recreated
+     */
+    public void createBuffers()
+    {
+        program = GLManager.buildProgram(vertexShader, fragmentShader);
+        if(program == 0)
+        {
+            return; //no ES 3, everything will go through the SpriteBatch
+        }
+        aCornerLocation = glGetAttribLocation(program, A_CORNER);
+        aRectLocation = glGetAttribLocation(program, A_RECT);
+        aUvRectLocation = glGetAttribLocation(program, A_UV_RECT);
+        aFrameLocation = glGetAttribLocation(program, A_FRAME);
+        uMatrixLocation = glGetUniformLocation(program, U_MATRIX);
+        uTextureUnitLocation = glGetUniformLocation(program, U_TEXTURE_UNIT);
+
+        final int[] bufferIds = new int[2];
+        glGenBuffers(2, bufferIds, 0);
+        cornerBufferId = bufferIds[0];
+        instanceBufferId = bufferIds[1];
+
+        FloatBuffer corners = ByteBuffer.allocateDirect(CORNERS.length * FLOAT_SIZE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        corners.put(CORNERS);
+        corners.position(0);
+        glBindBuffer(GL_ARRAY_BUFFER, cornerBufferId);
+        glBufferData(GL_ARRAY_BUFFER, CORNERS.length * FLOAT_SIZE, corners, GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * This method checks if instanced drawing can be used
+     * @return true if the instanced program linked
+     */
+    public boolean isAvailable()
+    {
+        return program != 0;
+    }
+
+    /**
+     * This method checks if a quad is a plain rectangle with a rectangular part of its texture, which is all we can draw
+     * @param quads an array holding the 4 vertices (x, y, z, s, t) of the quad, in triangle fan order
+     * @param offset where in the array the quad starts
+     * @return true if the quad can be drawn instanced
+     */
+    public static boolean isRectangle(float[] quads, int offset)
+    {
+        //bottom left is at 0, bottom right at 5, top right at 10 and top left at 15
+        return quads[offset] == quads[offset + 15] && quads[offset + 5] == quads[offset + 10]
+                && quads[offset + 1] == quads[offset + 6] && quads[offset + 11] == quads[offset + 16]
+                && quads[offset + 3] == quads[offset + 18] && quads[offset + 8] == quads[offset + 13]
+                && quads[offset + 4] == quads[offset + 9] && quads[offset + 14] == quads[offset + 19];
+    }
+
+    /**
+     * This method starts a new batch
+     * @param viewportMatrix the viewport every sprite in this batch will be drawn with
+     */
+    public void begin(float[] viewportMatrix)
+    {
+        this.viewportMatrix = viewportMatrix;
+        instanceCount = 0;
+        drawing = true;
+    }
+
+    /**
+     * This method adds a sprite to the batch. Flushes first if the batch is full
+     * @param textureId the openGL texture of this sprite
+     * @param quads an array holding the 4 vertices (x, y, z, s, t) of the quad around its center, see isRectangle()
+     * @param quadOffset where in the array the quad starts
+     * @param x where the center of the sprite is on the x-axis
+     * @param y where the center of the sprite is on the y-axis
+     * @param frameColumn how many frames right of the quad's texture coordinates to show
+     * @param frameRow how many frames down from the quad's texture coordinates to show
+     * @param flip true to mirror the sprite horizontally
+     */
+    public void draw(int textureId, float[] quads, int quadOffset, float x, float y, int frameColumn, int frameRow, boolean flip)
+    {
+        if(!drawing)
+        {
+            throw new IllegalStateException("InstancedSpriteRenderer.draw() called outside of begin()/end()");
+        }
+        if(instanceCount == MAX_INSTANCES)
+        {
+            flush();
+        }
+
+        int offset = instanceCount * FLOATS_PER_INSTANCE;
+        //the rectangle, from the bottom left and top right corners
+        staging[offset] = quads[quadOffset] + x;
+        staging[offset + 1] = quads[quadOffset + 1] + y;
+        staging[offset + 2] = quads[quadOffset + 10] + x;
+        staging[offset + 3] = quads[quadOffset + 11] + y;
+
+        //the texture of the first frame, from the bottom left, bottom right and top left corners
+        staging[offset + 4] = quads[quadOffset + 3];
+        staging[offset + 5] = quads[quadOffset + 19];
+        staging[offset + 6] = quads[quadOffset + 8];
+        staging[offset + 7] = quads[quadOffset + 4];
+
+        //the frame being shown
+        staging[offset + 8] = frameColumn;
+        staging[offset + 9] = frameRow;
+        staging[offset + 10] = flip ? 1 : 0;
+
+        instanceTextures[instanceCount] = textureId;
+        ++instanceCount;
+    }
+
+    /**
+     * This method draws everything left in the batch and ends it
+     */
+    public void end()
+    {
+        flush();
+        drawing = false;
+    }
+
+    /**
+     * This method sorts the waiting sprites by texture, uploads them, and draws each texture with one instanced call
+     */
+    private void flush()
+    {
+        if(instanceCount == 0)
+        {
+            return;
+        }
+
+        //sort by texture, then the order they were added (so the sort is stable)
+        for(int i = 0; i < instanceCount; ++i)
+        {
+            sortKeys[i] = ((long) instanceTextures[i] << INDEX_BITS) | i;
+        }
+        Arrays.sort(sortKeys, 0, instanceCount);
+
+        instanceData.position(0);
+        for(int i = 0; i < instanceCount; ++i)
+        {
+            int instance = (int) (sortKeys[i] & INDEX_MASK);
+            instanceData.put(staging, instance * FLOATS_PER_INSTANCE, FLOATS_PER_INSTANCE);
+        }
+        instanceData.position(0);
+
+        GLManager.useProgram(program);
+        glUniformMatrix4fv(uMatrixLocation, 1, false, viewportMatrix, 0);
+        GLManager.activeTexture(GL_TEXTURE0);
+        GLManager.setSamplerToUnitZero(uTextureUnitLocation);
+
+        //the shared quad, one corner per vertex
+        glBindBuffer(GL_ARRAY_BUFFER, cornerBufferId);
+        glVertexAttribPointer(aCornerLocation, 2, GL_FLOAT, false, 0, 0);
+        GLManager.enableVertexAttribArray(aCornerLocation);
+
+        //orphan the old storage so we don't wait on the GPU still reading last frame's sprites
+        glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+        glBufferData(GL_ARRAY_BUFFER, instanceCount * INSTANCE_STRIDE, instanceData, GL_STREAM_DRAW);
+        GLManager.enableVertexAttribArray(aRectLocation);
+        GLManager.enableVertexAttribArray(aUvRectLocation);
+        GLManager.enableVertexAttribArray(aFrameLocation);
+        glVertexAttribDivisor(aRectLocation, 1);
+        glVertexAttribDivisor(aUvRectLocation, 1);
+        glVertexAttribDivisor(aFrameLocation, 1);
+
+        int runStart = 0;
+        for(int i = 1; i <= instanceCount; ++i)
+        {
+            int texture = instanceTextures[(int) (sortKeys[runStart] & INDEX_MASK)];
+            if(i < instanceCount && instanceTextures[(int) (sortKeys[i] & INDEX_MASK)] == texture)
+            {
+                continue;
+            }
+            //ES 3.0 has no base instance, so point the instance attributes at the start of this run instead
+            int runOffset = runStart * INSTANCE_STRIDE;
+            glVertexAttribPointer(aRectLocation, 4, GL_FLOAT, false, INSTANCE_STRIDE, runOffset);
+            glVertexAttribPointer(aUvRectLocation, 4, GL_FLOAT, false, INSTANCE_STRIDE, runOffset + 4 * FLOAT_SIZE);
+            glVertexAttribPointer(aFrameLocation, 3, GL_FLOAT, false, INSTANCE_STRIDE, runOffset + 8 * FLOAT_SIZE);
+            GLManager.bindTexture(texture);
+            glDrawArraysInstanced(GL_TRIANGLE_FAN, 0, 4, i - runStart);
+            ++drawCalls;
+            runStart = i;
+        }
+
+        //the divisors belong to the attribute slots, and the other programs reuse the same slots without instancing
+        glVertexAttribDivisor(aRectLocation, 0);
+        glVertexAttribDivisor(aUvRectLocation, 0);
+        glVertexAttribDivisor(aFrameLocation, 0);
+        GLManager.disableVertexAttribArray(aCornerLocation);
+        GLManager.disableVertexAttribArray(aRectLocation);
+        GLManager.disableVertexAttribArray(aUvRectLocation);
+        GLManager.disableVertexAttribArray(aFrameLocation);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        instancesDrawn += instanceCount;
+        instanceCount = 0;
+    }
+
+    /**
+     * This method gets how many draw calls were made since the last resetStats()
+     * @return how many draw calls were made
+     */
+    public int getDrawCalls()
+    {
+        return drawCalls;
+    }
+
+    /**
+     * This method gets how many sprites were drawn since the last resetStats()
+     * @return how many sprites were drawn
+     */
+    public int getInstancesDrawn()
+    {
+        return instancesDrawn;
+    }
+
+    /**
+     * This method resets the draw call and sprite counters, call it once per frame
+     */
+    public void resetStats()
+    {
+        drawCalls = 0;
+        instancesDrawn = 0;
+    }
+}
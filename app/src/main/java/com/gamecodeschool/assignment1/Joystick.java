@@ -2,13 +2,10 @@ package com.gamecodeschool.assignment1;
 
 import static android.opengl.GLES20.GL_FLOAT;
 import static android.opengl.GLES20.GL_LINE_LOOP;
-import static android.opengl.GLES20.glDisableVertexAttribArray;
 import static android.opengl.GLES20.glDrawArrays;
-import static android.opengl.GLES20.glEnableVertexAttribArray;
 import static android.opengl.GLES20.glLineWidth;
 import static android.opengl.GLES20.glUniform4f;
 import static android.opengl.GLES20.glUniformMatrix4fv;
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.GLES20.glVertexAttribPointer;
 import static android.opengl.Matrix.orthoM;
 import static android.opengl.Matrix.translateM;
@@ -48,10 +45,10 @@ public class Joystick
     int numberOfSides;
 
     // Model matrix for transformations.
-    private float[] modelMatrix = new float[16];
+    private final float[] modelMatrix = new float[16];
 
-    // Center of the inner circle (joystick position).
-    private PointF innerCenter;
+    // Center of the inner circle (joystick position), its own copy so input can move it without allocating.
+    private final PointF innerCenter = new PointF();
 
     // Center of the outer circle (joystick boundary).
     private PointF outerCenter;
@@ -64,7 +61,7 @@ public class Joystick
      */
     public Joystick(PointF centerOfJoyStick, PointF radii, GameManager gm)
     {
-        innerCenter = centerOfJoyStick;
+        innerCenter.set(centerOfJoyStick.x, centerOfJoyStick.y);
         outerCenter = centerOfJoyStick;
         // The HUD needs its own viewport
         orthoM(viewportMatrix, 0, 0, gm.screenWidth, gm.screenHeight, 0, 0f, 1f);
@@ -114,7 +111,7 @@ public class Joystick
     public void draw()
     {
         // And tell OpenGl to use the glProgram
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         verticesInner.position(0);
 
@@ -126,7 +123,7 @@ public class Joystick
                 3*4,
                 verticesInner);
 
-        glEnableVertexAttribArray(aPositionLocation);
+        GLManager.enableVertexAttribArray(aPositionLocation);
 
         // Just give the passed in matrix to OpenGL
         glUniformMatrix4fv(uMatrixLocation, 1, false, viewportMatrix, 0);
@@ -147,10 +144,9 @@ public class Joystick
                 3*4,
                 verticesOuter);
 
-        glEnableVertexAttribArray(aPositionLocation);
-        modelMatrix = viewportMatrix.clone();
-        // Make a translation matrix
-        translateM(modelMatrix, 0, innerCenter.x-outerCenter.x, -outerCenter.y + innerCenter.y, 0);
+        GLManager.enableVertexAttribArray(aPositionLocation);
+        // Make a translation matrix on top of the viewport
+        translateM(modelMatrix, 0, viewportMatrix, 0, innerCenter.x-outerCenter.x, -outerCenter.y + innerCenter.y, 0);
 
         // Give the matrix to OpenGL
         glUniformMatrix4fv(uMatrixLocation, 1, false, modelMatrix, 0);
@@ -159,16 +155,26 @@ public class Joystick
         glDrawArrays(GL_LINE_LOOP, 0, numberOfSides);
 
         // Disable vertex array after drawing
-        glDisableVertexAttribArray(aPositionLocation);
-        glDisableVertexAttribArray(aTextureCoordinatesLocation);
+        GLManager.disableVertexAttribArray(aPositionLocation);
+        GLManager.disableVertexAttribArray(aTextureCoordinatesLocation);
     }
 
     /**
      * Sets the center position of the inner circle, representing the joystick's current position.
-     * @param point The new center point for the inner circle.
+     * @param point The new center point for the inner circle, copied so the caller can reuse it.
      */
     public void setInnerCenter(PointF point)
     {
-        innerCenter = point;
+        innerCenter.set(point.x, point.y);
+    }
+
+    /**
+     * Sets the center position of the inner circle, representing the joystick's current position.
+     * @param x The new center of the inner circle on the x-axis.
+     * @param y The new center of the inner circle on the y-axis.
+     */
+    public void setInnerCenter(float x, float y)
+    {
+        innerCenter.set(x, y);
     }
 }
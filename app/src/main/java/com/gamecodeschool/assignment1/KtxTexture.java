@@ -0,0 +1,162 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_TEXTURE_2D;
+import static android.opengl.GLES20.glCompressedTexImage2D;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A compressed texture read from a KTX (version 1) file, with its whole mip chain. The build encodes the big sprite
+ * sheets to ETC2/EAC KTX files, so they can be handed to openGL as they are instead of being decoded and mipmapped on the phone.
+ * Reading is plain file work so it can happen on a background thread, only upload() needs the GL thread.
+ * @author Braeden Ruff
+ */
+public class KtxTexture
+{
+    //every KTX 1 file starts with these bytes
+    private static final byte[] IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+
+    //written by the encoder in its own byte order, so we can tell if the rest needs swapping
+    private static final int ENDIAN_REFERENCE = 0x04030201;
+
+    //the compressed format of the texture (like GL_COMPRESSED_RGBA8_ETC2_EAC)
+    private final int internalFormat;
+
+    //the size of the top mip level
+    private final int width;
+    private final int height;
+
+    //each mip level's data, largest first
+    private final ByteBuffer[] levels;
+
+    /**
+     * This is the constructor for a texture that was read
+     * @param internalFormat the compressed format
+     * @param width how wide the top level is
+     * @param height how high the top level is
+     * @param levels the data of each mip level
+     */
+    private KtxTexture(int internalFormat, int width, int height, ByteBuffer[] levels)
+    {
+        this.internalFormat = internalFormat;
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+    }
+
+    /**
+     * This method reads a KTX file. Only 2D compressed textures are supported, which is all the build makes
+     * @param stream the file, closed by the caller
+     * @return the texture
+     * @throws IOException if the file couldn't be read or isn't a compressed 2D KTX file
+     */
+    public static KtxTexture read(InputStream stream) throws IOException
+    {
+        DataInputStream in = new DataInputStream(stream);
+        byte[] identifier = new byte[IDENTIFIER.length];
+        in.readFully(identifier);
+        if(!Arrays.equals(identifier, IDENTIFIER))
+        {
+            throw new IOException("not a KTX 1 file");
+        }
+
+        //the header is 13 ints
+        byte[] headerBytes = new byte[13 * 4];
+        in.readFully(headerBytes);
+        ByteBuffer header = ByteBuffer.wrap(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        if(header.getInt(0) != ENDIAN_REFERENCE)
+        {
+            header.order(ByteOrder.BIG_ENDIAN);
+        }
+        int glType = header.getInt(4);
+        int glInternalFormat = header.getInt(16);
+        int pixelWidth = header.getInt(24);
+        int pixelHeight = Math.max(1, header.getInt(28));
+        int faces = header.getInt(40);
+        int mipLevels = Math.max(1, header.getInt(44));
+        int keyValueBytes = header.getInt(48);
+        if(glType != 0 || faces != 1)
+        {
+            throw new IOException("only compressed 2D textures are supported");
+        }
+        skipFully(in, keyValueBytes);
+
+        ByteBuffer[] levels = new ByteBuffer[mipLevels];
+        byte[] sizeBytes = new byte[4];
+        for(int level = 0; level < mipLevels; ++level)
+        {
+            in.readFully(sizeBytes);
+            int imageSize = ByteBuffer.wrap(sizeBytes).order(header.order()).getInt();
+            byte[] data = new byte[imageSize];
+            in.readFully(data);
+            levels[level] = ByteBuffer.allocateDirect(imageSize).order(ByteOrder.nativeOrder());
+            levels[level].put(data);
+            levels[level].position(0);
+            //each level is padded to 4 bytes
+            skipFully(in, 3 - ((imageSize + 3) % 4));
+        }
+        return new KtxTexture(glInternalFormat, pixelWidth, pixelHeight, levels);
+    }
+
+    /**
+     * This method skips bytes of the file
+     * @param in the file
+     * @param count how many bytes to skip
+     * @throws IOException if the file ended first
+     */
+    private static void skipFully(DataInputStream in, int count) throws IOException
+    {
+        while(count > 0)
+        {
+            int skipped = in.skipBytes(count);
+            if(skipped <= 0)
+            {
+                throw new IOException("KTX file ended early");
+            }
+            count -= skipped;
+        }
+    }
+
+    /**
+     * This method uploads every mip level into the bound 2D texture. Call on the GL thread
+     */
+    public void upload()
+    {
+        for(int level = 0; level < levels.length; ++level)
+        {
+            int levelWidth = Math.max(1, width >> level);
+            int levelHeight = Math.max(1, height >> level);
+            glCompressedTexImage2D(GL_TEXTURE_2D, level, internalFormat, levelWidth, levelHeight, 0, levels[level].capacity(), levels[level]);
+        }
+    }
+
+    /**
+     * This method gets how many mip levels the file has
+     * @return how many mip levels there are
+     */
+    public int getMipLevels()
+    {
+        return levels.length;
+    }
+
+    /**
+     * This method gets how many bytes the texture takes on the GPU, all levels included
+     * @return the size in bytes
+     */
+    public int getByteCount()
+    {
+        int bytes = 0;
+        for(ByteBuffer level : levels)
+        {
+            bytes += level.capacity();
+        }
+        return bytes;
+    }
+}
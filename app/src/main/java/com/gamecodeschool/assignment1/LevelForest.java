@@ -1,59 +0,0 @@
-package com.gamecodeschool.assignment1;
-
-import java.util.ArrayList;
-
-/**
- * This class represents the forest level
- * @author Braeden Ruff
- */
-public class LevelForest extends LevelData
-{
-    /**
-     * The constructor sets up tiles to contain the level information
-     */
-    public LevelForest() {
-        tiles = new ArrayList<String>();
-        this.tiles.add("...................................................................................................................................................................................................................................................................................................................");
-        this.tiles.add("...................................................................................................................................................................................................................................................................................................................");
-        this.tiles.add("...................................................................................................................................................................................................................................................................................................................");
-        this.tiles.add("...................................................................................................................................................................................................................................................................................................................");
-        this.tiles.add(".......................................................................2...........................................................................................................................................................................................................................................");
-        this.tiles.add(".......................................................................2...........................................................................................................................................................................................................................................");
-        this.tiles.add(".......................................................................2....11111111...........................................................................................................................................................................................g.......g...........................");
-        this.tiles.add(".......................................................................2....22222222...........................................................................................................................................................................................2.......2...........................");
-        this.tiles.add(".........................................................c.............2....22222222...........................................................................................................................................................................................g.......g...........................");
-        this.tiles.add("....................................................1...111............2....22222222...........................................................................................................................................................................................2.......2...........................");
-        this.tiles.add("....................................................2..................2....22222222...........................................................................................................................................................................................g.......g...........................");
-        this.tiles.add("..................1.................................2..................2....22222222...........................................................................................................................................................................................2.......2...........................");
-        this.tiles.add("..................2.................................2................s.2....22222222...........................................................................................................................................................................................g.......g...........................");
-        this.tiles.add("..................2.................................2...............1112....22222222...........................................................................................................................................................................................2.......2...........................");
-        this.tiles.add("..................2.................................2111...............2....22222222.............................................................................111...........................................................................................................g.......g...........................");
-        this.tiles.add("..................2....................................2...............2....22222222...........................................................................................................................................................................................2.......2...........................");
-        this.tiles.add("..................2....................................2...............2....22222222...............................................................................................................................................................................................................................");
-        this.tiles.add("..................2..................s.................2..s............2....22222222..................................................11111.............111111.........................................................................................................................f...........................");
-        this.tiles.add("..................2....11111111111111111111111.........21111...........2....22222222...................................................................................................................................................................................2.........2222222...........................");
-        this.tiles.add("..................2....222222222222222222222211........................2....22222222...............................................................................................................................................................................................................................");
-        this.tiles.add("..................2....2222222222222222222222211.......................2....22222222...........................................1111................................................................................................................................2.........222...................................");
-        this.tiles.add("..................2....22222222222222222222222211..................................2...............................................................................................................................................................................................................................");
-        this.tiles.add("..................2....222222222222222222222222211..................s..............2...............................................................................................................................................................................................................................");
-        this.tiles.add("..................2....2222222222222222222222222211....1111111111111111111111......2....................................1111...........................................................................................................................................2...........................................");
-        this.tiles.add("..................2....2222222222222222222222222222....2222222222222222222222......2...............................................................................................................................................................................................................................");
-        this.tiles.add("..................2....2222222222222222222222222222....2222222222222222222222......2.....................g.............................................................................................................................g...........................................................................");
-        this.tiles.add("..................2....2222222222222222222222222222....2222222222222222222222......2.........111111111111111111111111..................................................................................................................1...........................2...............................................");
-        this.tiles.add("..................2....2222222222222222222222222222....2222222222222222222222......2........1112222222222222222222222...........................................................................................s..................................................................................................");
-        this.tiles.add("..................2....2222222222222222222222222222....2222222222222222222222......2.......11122222222222222222222222...........................................................................................1111....1...1...1..1...............................................................................");
-        this.tiles.add("..................2....2222222222222222222222222222dddd2222222222222222222222......2......111222222222222222222222222.........................................................................................................................1......1.................2...........................................");
-        this.tiles.add(".......................222222222222222222222222222222222222222222222222222222......2.....1112222222222222222222222222..............................................................................................................................................................................................");
-        this.tiles.add(".......................222222222222222222222222222222222222222222222222222222......2....11122222222222222222222222222.....................................................................................1111.....................................................................................................");
-        this.tiles.add(".p.....................2222222222222222222222222222222222222222222222.......w......2...111222222222222222222222222222......................................................................................................................1.......................2...............................................");
-        this.tiles.add("111111111111111111111112222222222222222222222222222222222222222222222.......w.........1112222222222222222222222222222.....................................................................g.g.g....................................................................................................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222.c.....w........11122222222222222222222222222222........................................................111111111111111111111111111...........................................................................................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222111111111111111112222222222222222222222222222222........................................................222222222222222222222222222...............................................................2...........................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222........................................................222222222222222222222222222...........................................................................................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222........................................................222222222222222222222222222...........................................................................................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222........................................................222222222222222222222222222.........................................c.............1...1...............................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222........................................................222222222222222222222222222.........................................1.................................................................");
-        this.tiles.add("222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222222........................................................222222222222222222222222222...........................................................................................................");
-    }
-}
-
@@ -0,0 +1,491 @@
+package com.gamecodeschool.assignment1;
+
+import android.content.Context;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Splits a level into square chunks (the same size as the terrain chunks) and only keeps the enemies, coins and
+ * breakable walls of the chunks near the player as objects. Chunks are made when the player gets close and let go of once
+ * they are far behind, so memory and load time depend on how much of the level is around the player, not how big it is.
+ * What happened in a chunk is remembered after it is let go of: collected coins, dead enemies and broken walls don't come back.
+ * The tiles themselves are never objects, they are one byte each holding their TileType id, and collisions and the
+ * terrain read that grid, so they work the same whether a chunk is loaded or not.
+ * @author Braeden Ruff
+ */
+public class LevelStreamer
+{
+    //how many tiles wide and high a chunk is, the same as the terrain so a chunk is one terrain buffer
+    public static final int CHUNK_SIZE = TerrainMesh.CHUNK_SIZE;
+
+    //how many chunks past the edge of the screen are kept loaded, so things are made before they are seen
+    private static final int LOAD_MARGIN = 1;
+
+    //chunks are let go of one chunk further out than they are loaded, so walking back and forth doesn't reload them
+    private static final int UNLOAD_MARGIN = LOAD_MARGIN + 1;
+
+    //the level being streamed
+    private final LevelData level;
+
+    //the game manager whose lists the objects go in
+    private final GameManager gm;
+
+    //how many chunks the level has
+    private final int chunkRows;
+    private final int chunkColumns;
+
+    //the TileType id of every tile, row by row, broken walls are set to TileType.EMPTY
+    private final byte[] tileTypes;
+
+    //which tiles are solid and deadly as bits, what collisions read
+    private final OccupancyGrid occupancy;
+
+    //whether each chunk is loaded
+    private final boolean[] loaded;
+
+    //the spawns of chunk i are chunkSpawns[chunkSpawnStart[i]] to chunkSpawns[chunkSpawnStart[i + 1] - 1]
+    private final int[] chunkSpawnStart;
+    private final int[] chunkSpawns;
+
+    //the objects each loaded chunk made (and the enemies its spawners made), so letting go of a chunk only looks at its own
+    private final GameObject[][] chunkObjects;
+    private final int[] chunkObjectCount;
+
+    //the spawns that were collected or killed, kept when their chunk is let go of
+    private final BitSet removedSpawns;
+
+    //how many coins and enemies of the whole level are left, loaded or not
+    private int coinsLeft;
+    private int enemiesLeft;
+
+    //the chunks that are loaded, so letting go of them doesn't look at every chunk of the level
+    private int[] loadedChunks = new int[16];
+    private int loadedCount;
+
+    /**
+     * This is the constructor for a streamer, nothing is loaded until update() is called
+     * @param level the level to stream
+     * @param gm the game manager whose lists the objects go in
+     */
+    public LevelStreamer(LevelData level, GameManager gm)
+    {
+        this.level = level;
+        this.gm = gm;
+        chunkRows = (level.getRows() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunkColumns = (level.getColumns() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        loaded = new boolean[chunkRows * chunkColumns];
+        chunkObjects = new GameObject[loaded.length][];
+        chunkObjectCount = new int[loaded.length];
+        removedSpawns = new BitSet();
+
+        //look up the type of every tile once, a breakable wall takes the type of the tile above it so go top down
+        int columns = level.getColumns();
+        tileTypes = new byte[level.getRows() * columns];
+        occupancy = new OccupancyGrid(level.getRows(), columns);
+        for(int i = 0; i < level.getRows(); ++i)
+        {
+            for(int j = 0; j < columns; ++j)
+            {
+                byte above = i > 0 ? tileTypes[(i - 1) * columns + j] : TileType.EMPTY;
+                byte id = TileType.fromSymbol(level.getTile(i, j), above);
+                tileTypes[i * columns + j] = id;
+                if(id != TileType.EMPTY)
+                {
+                    occupancy.set(i, j, true, TileType.get(id).isDeadly());
+                }
+            }
+        }
+
+        //group the spawns by chunk (counting sort, so each chunk keeps the level's left to right order)
+        int spawnCount = level.getSpawnCount();
+        chunkSpawnStart = new int[loaded.length + 1];
+        for(int i = 0; i < spawnCount; ++i)
+        {
+            ++chunkSpawnStart[chunkOf(level.getSpawnRow(i), level.getSpawnColumn(i)) + 1];
+            char type = level.getSpawnType(i);
+            if(type == 'c')
+            {
+                ++coinsLeft;
+            }
+            else if(type == 's' || type == 'g' || type == 'm')
+            {
+                ++enemiesLeft;
+            }
+        }
+        for(int i = 0; i < loaded.length; ++i)
+        {
+            chunkSpawnStart[i + 1] += chunkSpawnStart[i];
+        }
+        chunkSpawns = new int[spawnCount];
+        int[] next = new int[loaded.length];
+        for(int i = 0; i < spawnCount; ++i)
+        {
+            int chunk = chunkOf(level.getSpawnRow(i), level.getSpawnColumn(i));
+            chunkSpawns[chunkSpawnStart[chunk] + next[chunk]++] = i;
+        }
+    }
+
+    /**
+     * This method finds the chunk a tile is in
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return the index of the chunk
+     */
+    private int chunkOf(int row, int column)
+    {
+        return (row / CHUNK_SIZE) * chunkColumns + column / CHUNK_SIZE;
+    }
+
+    /**
+     * This method loads the chunks around a spot and lets go of the ones far from it
+     * @param context the context of the program, used to make the objects
+     * @param x the centre of the screen on the x-axis
+     * @param y the centre of the screen on the y-axis (negative going down, like the world locations)
+     * @param halfWidth half of how much of the world the screen shows on the x-axis
+     * @param halfHeight half of how much of the world the screen shows on the y-axis
+     */
+    public void update(Context context, float x, float y, float halfWidth, float halfHeight)
+    {
+        float chunkPixels = CHUNK_SIZE * GameManager.getPixelsPerMeter();
+        int firstColumn = (int) Math.floor((x - halfWidth) / chunkPixels);
+        int lastColumn = (int) Math.floor((x + halfWidth) / chunkPixels);
+        int firstRow = (int) Math.floor((-y - halfHeight) / chunkPixels);
+        int lastRow = (int) Math.floor((-y + halfHeight) / chunkPixels);
+
+        //let go of the loaded chunks that are too far away
+        for(int k = loadedCount - 1; k >= 0; --k)
+        {
+            int chunk = loadedChunks[k];
+            int i = chunk / chunkColumns;
+            int j = chunk % chunkColumns;
+            if(i < firstRow - UNLOAD_MARGIN || i > lastRow + UNLOAD_MARGIN || j < firstColumn - UNLOAD_MARGIN || j > lastColumn + UNLOAD_MARGIN)
+            {
+                unloadChunk(chunk);
+                loadedChunks[k] = loadedChunks[--loadedCount];
+            }
+        }
+
+        //load the chunks on and around the screen that aren't yet
+        for(int i = Math.max(0, firstRow - LOAD_MARGIN); i <= Math.min(chunkRows - 1, lastRow + LOAD_MARGIN); ++i)
+        {
+            for(int j = Math.max(0, firstColumn - LOAD_MARGIN); j <= Math.min(chunkColumns - 1, lastColumn + LOAD_MARGIN); ++j)
+            {
+                int chunk = i * chunkColumns + j;
+                if(!loaded[chunk])
+                {
+                    loadChunk(context, chunk);
+                    if(loadedCount == loadedChunks.length)
+                    {
+                        loadedChunks = Arrays.copyOf(loadedChunks, loadedCount * 2);
+                    }
+                    loadedChunks[loadedCount++] = chunk;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method makes the objects of a chunk, leaving out what was broken, collected or killed
+     * @param context the context of the program, used to make the objects
+     * @param chunk the chunk to load
+     */
+    private void loadChunk(Context context, int chunk)
+    {
+        int ppm = GameManager.getPixelsPerMeter();
+        int firstRow = (chunk / chunkColumns) * CHUNK_SIZE;
+        int firstColumn = (chunk % chunkColumns) * CHUNK_SIZE;
+        int lastRow = Math.min(firstRow + CHUNK_SIZE, level.getRows());
+        int lastColumn = Math.min(firstColumn + CHUNK_SIZE, level.getColumns());
+        for(int i = firstRow; i < lastRow; ++i)
+        {
+            for(int j = firstColumn; j < lastColumn; ++j)
+            {
+                TileType type = getTileType(i, j);
+                if(type != null && type.isBreakable())
+                {
+                    //the wall only needs to be an object so the player can slash it, the terrain draws it from the grid
+                    Breakable breakable = new Breakable(context, j * ppm, i * ppm, type.getGroundType());
+                    gm.breakables.add(breakable);
+                    gm.breakableHash.insert(breakable);
+                    addToChunk(chunk, breakable);
+                }
+            }
+        }
+        loaded[chunk] = true;
+
+        for(int s = chunkSpawnStart[chunk]; s < chunkSpawnStart[chunk + 1]; ++s)
+        {
+            int spawn = chunkSpawns[s];
+            if(removedSpawns.get(spawn))
+            {
+                continue;
+            }
+            int x = level.getSpawnColumn(spawn) * ppm;
+            int y = level.getSpawnRow(spawn) * ppm;
+            switch (level.getSpawnType(spawn))
+            {
+                // Enemies
+                case 's':
+                    addEnemy(new Slime(context, x, y), spawn, chunk);
+                    break;
+                case 'g':
+                    addEnemy(new Goblin(context, x, y), spawn, chunk);
+                    break;
+                case 'm':
+                    addEnemy(new MonsterSpawner(context, x, y, gm.message), spawn, chunk);
+                    break;
+
+                // Collectibles
+                case 'c':
+                    Coin coin = new Coin(context, x, y);
+                    coin.spawnIndex = spawn;
+                    gm.coins.add(coin);
+                    gm.coinHash.insert(coin);
+                    addToChunk(chunk, coin);
+                    break;
+            }
+            //the player and the end aren't streamed, the game manager makes them with the level
+        }
+
+        gm.terrain.markDirty(firstRow, firstColumn);
+    }
+
+    /**
+     * This method puts a streamed enemy in the game
+     * @param enemy the enemy
+     * @param spawn which spawn of the level it is, -1 if it wasn't one
+     * @param chunk the chunk that owns it
+     */
+    private void addEnemy(Enemy enemy, int spawn, int chunk)
+    {
+        enemy.spawnIndex = spawn;
+        gm.enemies.add(enemy);
+        gm.enemyHash.insert(enemy);
+        addToChunk(chunk, enemy);
+    }
+
+    /**
+     * This method puts an enemy made during the game (by a monster spawner) in the game. It belongs to the spawner's
+     * chunk, so it is let go of along with the spawner, and isn't made again when the chunk is loaded again
+     * @param enemy the new enemy
+     * @param spawner the streamed enemy that made it
+     */
+    public void addSpawnedEnemy(Enemy enemy, Enemy spawner)
+    {
+        int chunk = spawner.spawnIndex >= 0 ? chunkOf(level.getSpawnRow(spawner.spawnIndex), level.getSpawnColumn(spawner.spawnIndex)) : -1;
+        if(chunk == -1 || !loaded[chunk])
+        {
+            return; //the spawner isn't streamed in, there's nothing to own the enemy
+        }
+        addEnemy(enemy, -1, chunk);
+    }
+
+    /**
+     * This method remembers that a chunk owns an object. When the chunk's list is full the objects already taken out
+     * of the game are dropped before it grows, so a spawner that keeps making enemies doesn't grow it forever
+     * @param chunk the chunk
+     * @param object the object it made
+     */
+    private void addToChunk(int chunk, GameObject object)
+    {
+        GameObject[] objects = chunkObjects[chunk];
+        int count = chunkObjectCount[chunk];
+        if(objects == null)
+        {
+            objects = new GameObject[16];
+            chunkObjects[chunk] = objects;
+        }
+        else if(count == objects.length)
+        {
+            int kept = 0;
+            for(int i = 0; i < count; ++i)
+            {
+                if(isInGame(objects[i]))
+                {
+                    objects[kept++] = objects[i];
+                }
+            }
+            Arrays.fill(objects, kept, count, null);
+            count = kept;
+            if(count > objects.length / 2)
+            {
+                objects = Arrays.copyOf(objects, objects.length * 2);
+                chunkObjects[chunk] = objects;
+            }
+        }
+        objects[count] = object;
+        chunkObjectCount[chunk] = count + 1;
+    }
+
+    /**
+     * This method checks if an object is still in one of the game manager's lists
+     * @param object the enemy, coin or breakable wall
+     * @return true if it hasn't been taken out of the game
+     */
+    private boolean isInGame(GameObject object)
+    {
+        if(object instanceof Enemy)
+        {
+            return gm.enemies.contains((Enemy) object);
+        }
+        if(object instanceof Coin)
+        {
+            return gm.coins.contains((Coin) object);
+        }
+        return gm.breakables.contains((Breakable) object);
+    }
+
+    /**
+     * This method lets go of the objects a chunk made. Enemies belong to the chunk they spawned in wherever they walked to,
+     * and start from their spawn again when it is loaded again. Only the chunk's own objects are looked at
+     * @param chunk the chunk to let go of
+     */
+    private void unloadChunk(int chunk)
+    {
+        GameObject[] objects = chunkObjects[chunk];
+        int count = chunkObjectCount[chunk];
+        for(int i = 0; i < count; ++i)
+        {
+            GameObject object = objects[i];
+            objects[i] = null;
+            if(!isInGame(object))
+            {
+                continue; //already collected, killed or broken
+            }
+            if(object instanceof Enemy)
+            {
+                Enemy enemy = (Enemy) object;
+                if(enemy.getHP() == 0)
+                {
+                    spawnRemoved(enemy); //its corpse was still showing, it is dead all the same
+                }
+                gm.enemies.kill(enemy);
+                gm.enemyHash.remove(enemy);
+            }
+            else if(object instanceof Coin)
+            {
+                gm.coins.kill((Coin) object);
+                gm.coinHash.remove((Coin) object);
+            }
+            else
+            {
+                gm.breakables.kill((Breakable) object);
+                gm.breakableHash.remove((Breakable) object);
+            }
+        }
+        chunkObjectCount[chunk] = 0;
+        loaded[chunk] = false;
+        gm.flushKills();
+
+        gm.terrain.markDirty((chunk / chunkColumns) * CHUNK_SIZE, (chunk % chunkColumns) * CHUNK_SIZE);
+    }
+
+    /**
+     * This method gets the type of the tile at a spot, even if its chunk isn't loaded
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return the tile type, or null if there isn't a tile (or it was broken)
+     */
+    public TileType getTileType(int row, int column)
+    {
+        return TileType.get(tileTypes[row * level.getColumns() + column]);
+    }
+
+    /**
+     * This method checks if the chunk a tile is in is loaded
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile's chunk is loaded
+     */
+    public boolean isLoaded(int row, int column)
+    {
+        return loaded[chunkOf(row, column)];
+    }
+
+    /**
+     * This method breaks a tile, it stays broken if its chunk is let go of and loaded again
+     * @param row the row of the tile
+     * @param column the column of the tile
+     */
+    public void removeTile(int row, int column)
+    {
+        tileTypes[row * level.getColumns() + column] = TileType.EMPTY;
+        occupancy.set(row, column, false, false);
+    }
+
+    /**
+     * This method remembers that a coin was collected or an enemy was killed, so its chunk doesn't make it again
+     * @param object the coin or enemy
+     */
+    public void spawnRemoved(GameObject object)
+    {
+        if(object.spawnIndex < 0 || removedSpawns.get(object.spawnIndex))
+        {
+            return;
+        }
+        removedSpawns.set(object.spawnIndex);
+        if(object instanceof Coin)
+        {
+            --coinsLeft;
+        }
+        else
+        {
+            --enemiesLeft;
+        }
+    }
+
+    /**
+     * This method gets which tiles are solid and deadly, even in chunks that aren't loaded
+     * @return the occupancy grid of the level
+     */
+    public OccupancyGrid getOccupancy()
+    {
+        return occupancy;
+    }
+
+    /**
+     * This method gets how many rows the level has
+     * @return the number of rows
+     */
+    public int getRows()
+    {
+        return level.getRows();
+    }
+
+    /**
+     * This method gets how many columns the level has
+     * @return the number of columns
+     */
+    public int getColumns()
+    {
+        return level.getColumns();
+    }
+
+    /**
+     * This method gets how many coins of the level haven't been collected, loaded or not
+     * @return how many coins are left
+     */
+    public int getCoinsLeft()
+    {
+        return coinsLeft;
+    }
+
+    /**
+     * This method gets how many enemies of the level haven't been killed, loaded or not
+     * @return how many enemies are left
+     */
+    public int getEnemiesLeft()
+    {
+        return enemiesLeft;
+    }
+
+    /**
+     * This method gets how many chunks are loaded
+     * @return how many chunks are loaded
+     */
+    public int getLoadedChunkCount()
+    {
+        return loadedCount;
+    }
+}
@@ -1,6 +1,5 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 
 import android.content.Context;
@@ -128,7 +127,7 @@ public class MainTab implements Tab, Texturable
     @Override
     public void draw()
     {
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         GLManager.setVertexAttribPointer(vertices);
         GLManager.setMatrix(viewportMatrix, textureID);
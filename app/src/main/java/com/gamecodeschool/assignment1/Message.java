@@ -1,28 +1,40 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.GL_TRIANGLE_FAN;
-import static android.opengl.GLES20.glDisableVertexAttribArray;
-import static android.opengl.GLES20.glDrawArrays;
-import static android.opengl.GLES20.glUseProgram;
+import static android.opengl.GLES20.GL_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_DYNAMIC_DRAW;
+import static android.opengl.GLES20.GL_ELEMENT_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_FLOAT;
+import static android.opengl.GLES20.GL_STATIC_DRAW;
+import static android.opengl.GLES20.GL_TRIANGLES;
+import static android.opengl.GLES20.GL_UNSIGNED_SHORT;
+import static android.opengl.GLES20.glBindBuffer;
+import static android.opengl.GLES20.glBufferData;
+import static android.opengl.GLES20.glBufferSubData;
+import static android.opengl.GLES20.glDrawElements;
+import static android.opengl.GLES20.glGenBuffers;
+import static android.opengl.GLES20.glVertexAttribPointer;
 import static android.opengl.Matrix.orthoM;
 import static com.gamecodeschool.assignment1.GLManager.FLOAT_SIZE;
 import static com.gamecodeschool.assignment1.GLManager.POSITION_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.STRIDE;
 import static com.gamecodeschool.assignment1.GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
 import static com.gamecodeschool.assignment1.GLManager.aPositionLocation;
 import static com.gamecodeschool.assignment1.GLManager.aTextureCoordinatesLocation;
 import static com.gamecodeschool.assignment1.GLManager.uAlphaLocation;
 
 import android.content.Context;
+import android.graphics.BitmapFactory;
 import android.graphics.PointF;
-import android.graphics.drawable.Drawable;
 import android.opengl.GLES20;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 
 /**
  * Handles displaying messages on the screen (text), including fading animations and positioning.
+ * Every glyph of a message is put into one indexed triangle mesh in a vertex buffer, so a whole message is a single draw call.
  * @author Braeden Ruff
  */
 public class Message implements Texturable
@@ -33,9 +45,44 @@ public class Message implements Texturable
     // openGL shader program ID
     private int glProgram;
 
-    // Vertex buffer for rendering the text
+    //x, y, z, s, t for 4 vertices
+    private static final int FLOATS_PER_GLYPH = 4 * (POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE);
+
+    //2 triangles per glyph
+    private static final int INDICES_PER_GLYPH = 6;
+
+    //the most glyphs a short index can reach
+    private static final int MAX_GLYPHS = 65536 / 4;
+
+    //the characters in the sheet start at the space (ascii 32) and go to the end of ascii
+    private static final int FIRST_GLYPH = 32;
+    private static final int GLYPH_COUNT = 96;
+
+    //how many built meshes each message remembers
+    private static final int CACHED_MESHES = 16;
+
+    // The s and t of the bottom-left, top-left, top-right and bottom-right of every character, built once from the sheet
+    private final float[] glyphTexCoords = new float[GLYPH_COUNT * 8];
+
+    // The meshes of recent messages, so showing the same message again doesn't build it again
+    private final TextMeshCache meshCache = new TextMeshCache(CACHED_MESHES);
+
+    // The glyph quads of the current message, owned by the mesh cache
+    private float[] meshVertices = new float[0];
+
+    // Client side copy of the mesh, uploaded to the vertex buffer when the message changes
     private FloatBuffer vertices;
 
+    //the openGL vertex and index buffers, 0 if they haven't been made yet
+    private int vertexBufferId;
+    private int indexBufferId;
+
+    //how many glyphs the buffers have room for
+    private int bufferCapacity;
+
+    //true if the message changed since the mesh was last uploaded
+    private boolean meshDirty;
+
     // Dimensions of the sprite sheet containing characters
     private int spriteSheetWidth;
     private int spriteSheetHeight;
@@ -60,8 +107,8 @@ public class Message implements Texturable
     // The message to display
     private String message;
 
-    // Number of vertices for rendering the message
-    private int numVertices;
+    // Number of glyphs in the mesh
+    private int glyphCount;
 
     // Default size and position for the message
     private float defaultSize;
@@ -101,36 +148,31 @@ public class Message implements Texturable
     }
 
     /**
-     * Gets the coordinates based off the text atlas
-     * @param c the character we want
-     * @return the 8 texture coordinates that represent the bottom-left, top-left, top-right, and bottom-right respectively
+     * Works out the texture coordinates of every character in the text atlas once, so laying out text is just a lookup
      */
-    private float[] getTexCoordsForChar(char c)
+    private void buildGlyphTable()
     {
-        // Assuming the first character in the atlas is '!' and has ASCII value 33
-        int ascii = (int) c;
-        int index = ascii - 32; // Adjust the starting index based on your texture atlas
-
-        // Calculate the row and column in the atlas
-        int row = (index / numberOfRowsInSpriteSheet);
-        int col = (index % numberOfColumnsInSpriteSheet);
-
-        // Calculate the normalized texture coordinates
-        float s = (float)(col * frameWidth) / (spriteSheetWidth);
-        float t = (float)(row * frameHeight) / (spriteSheetHeight);
-        float sMax = s + (float)(frameWidth) / spriteSheetWidth;
-        float tMax = t + (float)(frameHeight) / spriteSheetHeight;
-
-        // OpenGL ES texture coordinates start at the bottom-left corner
-        // so we need to invert the y-coords by subtracting from 1
-        float[] texCoords = {
-                s, t, // Bottom-left corner
-                s, tMax,    // Top-left corner
-                sMax, tMax, // Top-right corner
-                sMax, t    // Bottom-right corner
-        };
-
-        return texCoords;
+        for(int index = 0; index < GLYPH_COUNT; ++index)
+        {
+            // Calculate the row and column in the atlas
+            int row = (index / numberOfColumnsInSpriteSheet);
+            int col = (index % numberOfColumnsInSpriteSheet);
+
+            // Calculate the normalized texture coordinates
+            float s = (float)(col * frameWidth) / (spriteSheetWidth);
+            float t = (float)(row * frameHeight) / (spriteSheetHeight);
+            float sMax = s + (float)(frameWidth) / spriteSheetWidth;
+            float tMax = t + (float)(frameHeight) / spriteSheetHeight;
+
+            int offset = index * 8;
+            glyphTexCoords[offset] = s; glyphTexCoords[offset + 1] = t; // Bottom-left corner
+            glyphTexCoords[offset + 2] = s; glyphTexCoords[offset + 3] = tMax; // Top-left corner
+            glyphTexCoords[offset + 4] = sMax; glyphTexCoords[offset + 5] = tMax; // Top-right corner
+            glyphTexCoords[offset + 6] = sMax; glyphTexCoords[offset + 7] = t; // Bottom-right corner
+        }
+
+        //meshes built before used the old table
+        meshCache.clear();
     }
 
     /**
@@ -198,6 +240,32 @@ public class Message implements Texturable
      * @param y the beginning right position
      */
     public void generateText(String text, float size, float x, float y)
+    {
+        float[] mesh = meshCache.get(text, size, x, y);
+        if(mesh == null)
+        {
+            mesh = buildMesh(text, size, x, y);
+            meshCache.put(text, size, x, y, mesh);
+        }
+        if(mesh != meshVertices)
+        {
+            meshVertices = mesh;
+            glyphCount = mesh.length / FLOATS_PER_GLYPH;
+            meshDirty = true;
+        }
+
+        message = text;
+        startTime = System.currentTimeMillis();
+    }
+    /**
+     * Lays out the glyph quads of a message
+     * @param text The text string to render.
+     * @param size the size of the characters
+     * @param x the beginning left position
+     * @param y the beginning right position
+     * @return the quads (x, y, z, s, t for 4 vertices) of every character that isn't a new line
+     */
+    private float[] buildMesh(String text, float size, float x, float y)
     {
         final float CHAR_WIDTH = size; // Width of each character quad
         final float CHAR_HEIGHT = size; // Height of each character quad
@@ -213,98 +281,177 @@ public class Message implements Texturable
                 ++newLines;
             }
         }
-        float[] modelVertices = new float[(text.length()-newLines) * 5 * 4]; // there is 5 floats per vertex and 4 vertices per char
+        int glyphs = Math.min(text.length() - newLines, MAX_GLYPHS);
+        float[] mesh = new float[glyphs * FLOATS_PER_GLYPH];
 
-        newLines = 0;
-        vertices = null;
+        int glyph = 0;
         // Iterate over each character in the text
-        for (int i = 0; i < text.length(); i++) {
+        for (int i = 0; i < text.length() && glyph < glyphs; i++) {
             char c = text.charAt(i);
             if(c == '\n')
             {
                 //skip and go down and back to beginning left
                 cursorY += CHAR_HEIGHT;
                 cursorX = x;
-                ++newLines;
                 continue;
             }
-            // Calculate texture coordinates for the character
-            float[] texCoords = getTexCoordsForChar(c);
-
-            float[] verticesPos = new float[]{
-                    cursorX, cursorY, 0.0f, // Bottom left
-                    cursorX, cursorY + CHAR_HEIGHT, 0.0f, // Top left
-                    cursorX + CHAR_WIDTH, cursorY + CHAR_HEIGHT, 0.0f, // Top right
-                    cursorX + CHAR_WIDTH, cursorY, 0.0f // Bottom right
-            };
-
-            // each vertex has 20 bytes (5 floats (x, y, z, s, t) * 4 bytes per float)
-            int bytesPerVertex = 5 * FLOAT_SIZE;
-            for (int j = 0; j < 4; j++)
+            // Look up the texture coordinates for the character, anything not in the sheet shows as a space
+            int index = c - FIRST_GLYPH;
+            if(index < 0 || index >= GLYPH_COUNT)
             {
-                // Position to start updating in the buffer for each vertex
-                int bufferPosition = (i-newLines) * bytesPerVertex + j * (POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE);
-
-                // Update x coordinate
-                modelVertices[bufferPosition] = verticesPos[j * POSITION_ATTRIBUTE_SIZE]; //times by just the POISITION_ATTRIBUTE_SIZE since that's what it is
-
-                // Update y coordinate
-                modelVertices[bufferPosition+1] = verticesPos[j * POSITION_ATTRIBUTE_SIZE + 1];
-
-                // Update z coordinate
-                modelVertices[bufferPosition+2] = verticesPos[j * POSITION_ATTRIBUTE_SIZE + 2];
-
-                // Update s coordinate
-                modelVertices[bufferPosition+3] = texCoords[j * TEXTURE_COORDINATES_ATTRIBUTE_SIZE]; //times by just the TEXTURE_COORDINATES_ATTRIBUTE_SIZE since that's what it is
-
-                // Update t coordinate
-                modelVertices[bufferPosition+4] = texCoords[j * TEXTURE_COORDINATES_ATTRIBUTE_SIZE + 1];
+                index = 0;
             }
+            int texOffset = index * 8;
+
+            // Bottom left, top left, top right, bottom right
+            int offset = glyph * FLOATS_PER_GLYPH;
+            offset = putVertex(mesh, offset, cursorX, cursorY, texOffset);
+            offset = putVertex(mesh, offset, cursorX, cursorY + CHAR_HEIGHT, texOffset + 2);
+            offset = putVertex(mesh, offset, cursorX + CHAR_WIDTH, cursorY + CHAR_HEIGHT, texOffset + 4);
+            putVertex(mesh, offset, cursorX + CHAR_WIDTH, cursorY, texOffset + 6);
+            ++glyph;
 
             // Move cursor to the right for the next character
             cursorX += CHAR_WIDTH;
         }
-        numVertices = modelVertices.length/5;
-        vertices = ByteBuffer.allocateDirect(modelVertices.length * FLOAT_SIZE) // 5 vertices per char and float is 4 bytes
-                .order(ByteOrder.nativeOrder()).asFloatBuffer();
-        vertices.put(modelVertices);
-        vertices.position(0);
+        return mesh;
+    }
 
-        message = text;
-        startTime = System.currentTimeMillis();
+    /**
+     * Writes one vertex of a glyph into a mesh
+     * @param mesh the mesh being built
+     * @param offset where the vertex starts in the mesh
+     * @param x the x of the vertex
+     * @param y the y of the vertex
+     * @param texOffset where the vertex's s and t are in the glyph table
+     * @return where the next vertex starts
+     */
+    private int putVertex(float[] mesh, int offset, float x, float y, int texOffset)
+    {
+        mesh[offset] = x;
+        mesh[offset + 1] = y;
+        mesh[offset + 2] = 0.0f;
+        mesh[offset + 3] = glyphTexCoords[texOffset];
+        mesh[offset + 4] = glyphTexCoords[texOffset + 1];
+        return offset + POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
     }
+
     /**
      * Draws the generated text on the screen.
      */
     public void draw()
     {
-        if(message == "")
+        if(message == "" || glyphCount == 0)
         {
             return;
         }
 
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLManager.enableAlphaBlending();
         // tell openGL to use the glProgram
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
         float alphaValue = calculateAlphaValue();
         if(persistent)
         {
             alphaValue = 1;
         }
-        GLManager.setVertexAttribPointer(vertices);
+        uploadMesh();
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferId);
+        glVertexAttribPointer(aPositionLocation, POSITION_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, 0);
+        GLManager.enableVertexAttribArray(aPositionLocation);
+        glVertexAttribPointer(aTextureCoordinatesLocation, TEXTURE_COORDINATES_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, POSITION_ATTRIBUTE_SIZE * FLOAT_SIZE);
+        GLManager.enableVertexAttribArray(aTextureCoordinatesLocation);
         GLManager.setMatrix(viewportMatrix, textureID);
 
         GLES20.glUniform1f(uAlphaLocation, alphaValue);
-        // Draw the point, lines or triangle one character at a time
-        for(int i = 0; i < numVertices; i+=4)
+        // Draw every character at once
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        glDrawElements(GL_TRIANGLES, glyphCount * INDICES_PER_GLYPH, GL_UNSIGNED_SHORT, 0);
+
+        // Disable blending and vertex array after drawing, the rest of the game draws from client side arrays so leave no buffers bound
+        GLManager.disableBlending();
+        GLManager.disableVertexAttribArray(aPositionLocation);
+        GLManager.disableVertexAttribArray(aTextureCoordinatesLocation);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Uploads the mesh to the vertex buffer if the message changed. Makes bigger buffers first if the message doesn't fit
+     */
+    private void uploadMesh()
+    {
+        if(glyphCount > bufferCapacity || vertexBufferId == 0)
+        {
+            createBuffers(Math.max(glyphCount, 16));
+        }
+        if(!meshDirty)
+        {
+            return;
+        }
+        vertices.position(0);
+        vertices.put(meshVertices, 0, glyphCount * FLOATS_PER_GLYPH);
+        vertices.position(0);
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferId);
+        glBufferSubData(GL_ARRAY_BUFFER, 0, glyphCount * FLOATS_PER_GLYPH * FLOAT_SIZE, vertices);
+        meshDirty = false;
+    }
+
+    /**
+     * Makes the vertex and index buffers with room for some glyphs. The old ids are just replaced, since they are either
+     * too small (and get deleted here) or belonged to a lost openGL context
+     * @param capacity how many glyphs to make room for
+     */
+    private void createBuffers(int capacity)
+    {
+        capacity = Math.min(Integer.highestOneBit(capacity - 1) << 1, MAX_GLYPHS);
+        if(vertexBufferId != 0)
+        {
+            GLES20.glDeleteBuffers(2, new int[] {vertexBufferId, indexBufferId}, 0);
+        }
+
+        short[] indices = new short[capacity * INDICES_PER_GLYPH];
+        for(int i = 0; i < capacity; ++i)
         {
-            glDrawArrays(GL_TRIANGLE_FAN, i, 4);
+            //glyphs are bottom left, top left, top right, bottom right (same as a triangle fan)
+            short first = (short) (i * 4);
+            int index = i * INDICES_PER_GLYPH;
+            indices[index] = first;
+            indices[index + 1] = (short) (first + 1);
+            indices[index + 2] = (short) (first + 2);
+            indices[index + 3] = first;
+            indices[index + 4] = (short) (first + 2);
+            indices[index + 5] = (short) (first + 3);
         }
-        // Disable blending and vertex array after drawing
-        GLES20.glDisable(GLES20.GL_BLEND);
-        glDisableVertexAttribArray(aPositionLocation);
-        glDisableVertexAttribArray(aTextureCoordinatesLocation);
+        ShortBuffer indexData = ByteBuffer.allocateDirect(indices.length * 2)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        indexData.put(indices);
+        indexData.position(0);
+
+        vertices = ByteBuffer.allocateDirect(capacity * FLOATS_PER_GLYPH * FLOAT_SIZE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+        final int[] bufferIds = new int[2];
+        glGenBuffers(2, bufferIds, 0);
+        vertexBufferId = bufferIds[0];
+        indexBufferId = bufferIds[1];
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices.length * 2, indexData, GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferId);
+        glBufferData(GL_ARRAY_BUFFER, capacity * FLOATS_PER_GLYPH * FLOAT_SIZE, null, GL_DYNAMIC_DRAW);
+        bufferCapacity = capacity;
+
+        //the new buffers are empty, the whole mesh needs uploading
+        meshDirty = true;
+    }
+
+    /**
+     * Forgets the openGL buffers without deleting them. Used when the openGL context was lost, since the old ids are meaningless now
+     */
+    public void invalidate()
+    {
+        vertexBufferId = 0;
+        indexBufferId = 0;
+        bufferCapacity = 0;
     }
 
     /**
@@ -341,13 +488,14 @@ public class Message implements Texturable
      */
     public int getTextureResourceId(Context context)
     {
-        Drawable drawable = context.getDrawable(R.drawable.characters);
-        spriteSheetWidth = drawable.getIntrinsicWidth();
-        spriteSheetHeight = drawable.getIntrinsicHeight();
+        BitmapFactory.Options size = AsyncTextureLoader.readSize(context, R.drawable.characters);
+        spriteSheetWidth = size.outWidth;
+        spriteSheetHeight = size.outHeight;
         numberOfColumnsInSpriteSheet = 10;
         numberOfRowsInSpriteSheet = 10;
         frameWidth = spriteSheetWidth / numberOfColumnsInSpriteSheet;
         frameHeight = spriteSheetHeight / numberOfRowsInSpriteSheet;
+        buildGlyphTable();
         return R.drawable.characters;
     }
 
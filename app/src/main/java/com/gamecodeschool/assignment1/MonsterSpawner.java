@@ -1,7 +1,7 @@
 package com.gamecodeschool.assignment1;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
+import android.graphics.BitmapFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -99,9 +99,9 @@ public class MonsterSpawner extends Enemy
     @Override
     public int getTextureResourceId(Context context)  {
         //animation stuff
-        Drawable drawable = context.getDrawable(R.drawable.monsterspawner);
-        spriteSheetWidth = drawable.getIntrinsicWidth();
-        spriteSheetHeight = drawable.getIntrinsicHeight();
+        BitmapFactory.Options size = AsyncTextureLoader.readSize(context, R.drawable.monsterspawner);
+        spriteSheetWidth = size.outWidth;
+        spriteSheetHeight = size.outHeight;
         numberOfColumnsInSpriteSheet = 5;
         numberOfRowsInSpriteSheet = 3;
         frameWidth = spriteSheetWidth / numberOfColumnsInSpriteSheet;
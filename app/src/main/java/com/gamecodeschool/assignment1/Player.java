@@ -1,21 +1,16 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.GL_BLEND;
-import static android.opengl.GLES20.GL_ONE_MINUS_SRC_ALPHA;
-import static android.opengl.GLES20.GL_SRC_ALPHA;
-import static android.opengl.GLES20.glBlendFunc;
-import static android.opengl.GLES20.glEnable;
 import static com.gamecodeschool.assignment1.GLManager.FLOAT_SIZE;
 import static com.gamecodeschool.assignment1.GLManager.POSITION_ATTRIBUTE_SIZE;
 import static com.gamecodeschool.assignment1.GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
 
 import android.content.Context;
-import android.graphics.PointF;
-import android.graphics.drawable.Drawable;
+import android.graphics.BitmapFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +66,13 @@ public class Player extends GameObject
     // Radius of the slashing action
     private float slashRadius;
 
+    // How much further than the slash radius still counts as a hit
+    private static final double SLASH_GRACE_BUFFER = 1.2;
+
+    // Reused for the enemies and breakable walls the spatial hashes find near the slash
+    private final ArrayList<Enemy> slashEnemies = new ArrayList<>();
+    private final ArrayList<Breakable> slashBreakables = new ArrayList<>();
+
     // Buffer for the vertex data of the slashing animation
     private FloatBuffer slashVertices;
 
@@ -104,9 +106,6 @@ public class Player extends GameObject
     // Width and height of a single frame in the sprite sheet
     private float frameWidth, frameHeight;
 
-    // Array holding texture coordinates for the current frame
-    private float[] textureCoords;
-
     // Number of columns and rows in the player's sprite sheet
     private int numberOfColumnsInSpriteSheet;
     private int numberOfRowsInSpriteSheet;
@@ -169,7 +168,6 @@ public class Player extends GameObject
         animations.put(AnimationState.DASH, new int[] {0, 2, 4, 6, 8, 10}); // Indices of frames for dashing
 
         animator = new Animator(animations, 50f); // 0.1f is the time each frame is displayed
-        textureCoords = new float[8];
     }
 
     /**
@@ -255,44 +253,15 @@ public class Player extends GameObject
     }
 
     /**
-     * Updates the texture coordinates for the player based on the current animation frame
+     * Sets the vertices, with the texture coordinates pointing at the first frame of the sprite sheet.
+     * They never change after this, the frame being shown is picked when the player is drawn
+     * @param objectVertices the vertices for the player in the order of [x, y, z, s, t, ....]
      */
-    protected void updateTextureCoords() {
-        int frameIndex = animator.getCurrentFrame();
-        AnimationState currentState = animator.getCurrentState();
-
-        float textureX = frameIndex * frameWidth;
-
-        // Determine the row in the sprite sheet based on the current state
-        int row = getStateRow(currentState);
-        float textureY = row * frameHeight;
-
-        // Normalize texture coordinates
-        float s = (textureX+2) / (spriteSheetWidth);
-        float t = (textureY+2) / (spriteSheetHeight);
-        float sMax = s + (frameWidth) / spriteSheetWidth;
-        float tMax = t + (frameHeight) / spriteSheetHeight;
-        if(InputController.getFacingRight(getFacingAngle()))
-        {
-            // Update textureCoords array
-            textureCoords[0] = s; textureCoords[1] = tMax; // Bottom left corner
-            textureCoords[2] = sMax; textureCoords[3] = tMax; // Bottom right corner
-            textureCoords[4] = sMax; textureCoords[5] = t; // Top right corner
-            textureCoords[6] = s; textureCoords[7] = t; // Top left corner
-        }
-        else
-        {
-            // Update textureCoords array
-            textureCoords[0] = sMax; textureCoords[1] = tMax; // Bottom left corner
-            textureCoords[2] = s; textureCoords[3] = tMax; // Bottom right corner
-            textureCoords[4] = s; textureCoords[5] = t; // Top right corner
-            textureCoords[6] = sMax; textureCoords[7] = t; // Top left corner
-        }
-
-
-        // Update textureCoords array
-        updateVerticesTextureCoords(textureCoords);
-
+    @Override
+    public void setVertices(float[] objectVertices)
+    {
+        super.setVertices(objectVertices);
+        setFirstFrameTextureCoords(spriteSheetWidth, spriteSheetHeight, frameWidth, frameHeight);
     }
 
     /**
@@ -303,9 +272,9 @@ public class Player extends GameObject
     @Override
     public int getTextureResourceId(Context context) {
         //animation stuff
-        Drawable drawable = context.getDrawable(R.drawable.samurai);
-        spriteSheetWidth = drawable.getIntrinsicWidth();
-        spriteSheetHeight = drawable.getIntrinsicHeight();
+        BitmapFactory.Options size = AsyncTextureLoader.readSize(context, R.drawable.samurai);
+        spriteSheetWidth = size.outWidth;
+        spriteSheetHeight = size.outHeight;
         numberOfColumnsInSpriteSheet = 18;
         numberOfRowsInSpriteSheet = 9;
         frameWidth = spriteSheetWidth / numberOfColumnsInSpriteSheet;
@@ -696,24 +665,29 @@ public class Player extends GameObject
             startSlashTime = System.currentTimeMillis();
             slashAngle = getFacingAngle();
             boolean hitSlash = false;
-            for (int i = 0; i < gm.enemies.size(); ++i)
+            Vector2 location = getWorldLocation();
+            slashEnemies.clear();
+            gm.enemyHash.queryRadius(location.x, location.y, getSlashReach(gm.enemyHash), slashEnemies);
+            for (int i = 0; i < slashEnemies.size(); ++i)
             {
-                Enemy enemy = gm.enemies.get(i);
+                Enemy enemy = slashEnemies.get(i);
                 if (isEnemyWithinCone(enemy))
                 {
                     hitSlash = true;
                     enemy.takeDamage();
                 }
             }
-            for(int i = 0; i < gm.breakables.size(); ++i)
+            slashBreakables.clear();
+            gm.breakableHash.queryRadius(location.x, location.y, getSlashReach(gm.breakableHash), slashBreakables);
+            for(int i = 0; i < slashBreakables.size(); ++i)
             {
-                if(isEnemyWithinCone(gm.breakables.get(i)))
+                Breakable breakable = slashBreakables.get(i);
+                if(isEnemyWithinCone(breakable))
                 {
                     hitSlash = true;
-                    PointF worldLoc = gm.breakables.get(i).getWorldLocation();
-                    gm.groundTiles[(int)-worldLoc.y/GameManager.getPixelsPerMeter()][(int) worldLoc.x/GameManager.getPixelsPerMeter()] = null;
-                    gm.breakables.remove(i);
-                    --i;
+                    Vector2 worldLoc = breakable.getWorldLocation();
+                    gm.removeTile((int)-worldLoc.y/GameManager.getPixelsPerMeter(), (int) worldLoc.x/GameManager.getPixelsPerMeter());
+                    gm.removeBreakable(breakable);
                 }
             }
             if(!hitSlash) // as long as it hits an enemy or breakable wall you can still get the achievement
@@ -733,13 +707,15 @@ public class Player extends GameObject
     }
 
     /**
-     * Draws the player and their slash effect, if applicable.
-     * @param viewportMatrix The current viewport matrix for rendering.
+     * Adds the player and their slash effect, if applicable, to the render snapshot.
+     * @param snapshot The snapshot the simulation thread is filling.
      */
-    protected void draw(float[] viewportMatrix)
+    @Override
+    protected void capture(RenderSnapshot snapshot)
     {
-        updateTextureCoords();
-        super.draw(viewportMatrix);
+        boolean flip = !InputController.getFacingRight(getFacingAngle());
+        capture(snapshot, animator.getCurrentFrame(), getStateRow(animator.getCurrentState()), flip);
+        snapshot.markPlayer();
         if(isSlashing)
         {
             if(System.currentTimeMillis() - startSlashTime > rechargeSlashTime)
@@ -750,32 +726,33 @@ public class Player extends GameObject
             if(!isSlashDrawn)
             {
                 isSlashDrawn = true;
-                float slashAngleDegrees = (float) Math.toDegrees(slashAngle);
-                glEnable(GL_BLEND);
-                glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-
-                GLManager.setVertexAttribPointer(slashVertices);
-                GLManager.translateAndRotate(viewportModelMatrix, viewportMatrix, getWorldLocation().x, getWorldLocation().y, slashAngleDegrees);
-                GLManager.setMatrix(viewportModelMatrix, slashTexture);
-                GLManager.drawCleanup(numSlashVertices);
+                snapshot.setSlash(slashVertices, numSlashVertices, slashTexture, (float) Math.toDegrees(slashAngle));
             }
         }
     }
 
+    /**
+     * Gets how far from the player a bounding box in the hash can be and still be caught by the slash cone.
+     * @param hash The spatial hash the targets are in.
+     * @return The distance to search the hash with.
+     */
+    private float getSlashReach(SpatialHash<?> hash)
+    {
+        return (float) ((slashRadius + hash.getMaxHalfWidth() + hash.getMaxHalfHeight()) * SLASH_GRACE_BUFFER);
+    }
+
     /**
      * Checks if an enemy is within the cone of the player's slash attack.
      * @param entity The target entity to check.
      * @return true if the entity is within the slash cone, false otherwise.
      */
     boolean isEnemyWithinCone(GameObject entity) {
-        double distance = InputController.distanceToCircle(getWorldLocation(), entity.getWorldLocation());
+        double distance = getDistanceTo(entity);
 
-        double angleToEnemy = InputController.getAngle(getWorldLocation(), entity.getWorldLocation());
+        double angleToEnemy = getAngleTo(entity);
         double widthError = Math.abs(entity.getWidth()/2 * Math.cos(angleToEnemy));
         double heightError = Math.abs(entity.getHeight()/2 * Math.sin(angleToEnemy));
-        double graceBuffer = 1.2;
-
-        if (distance > (slashRadius + widthError + heightError) * graceBuffer)
+        if (distance > (slashRadius + widthError + heightError) * SLASH_GRACE_BUFFER)
         {
             return false;
         }
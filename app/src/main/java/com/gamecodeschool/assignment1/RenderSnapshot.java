@@ -0,0 +1,367 @@
+package com.gamecodeschool.assignment1;
+
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Everything the renderer needs to draw the moving part of the world for one simulation step, copied out of the
+ * game objects by the simulation thread. The renderer only ever reads a snapshot, so it never touches a game object
+ * while the simulation is changing it. Each sprite keeps where it was before and after the step so drawing can
+ * interpolate between them.
+ * @author Braeden Ruff
+ */
+public class RenderSnapshot
+{
+    //x, y, z, s, t for 4 vertices
+    public static final int FLOATS_PER_QUAD = 4 * (GLManager.POSITION_ATTRIBUTE_SIZE + GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE);
+
+    //how many sprites are in the snapshot
+    private int spriteCount;
+
+    //the first sprites are batched together (coins and enemies), the rest are drawn one at a time in order
+    private int batchedCount;
+
+    //which sprite is the player, so the slash can be drawn right after it
+    private int playerSprite = -1;
+
+    //the program, texture and quad (around its center, showing the first animation frame) of every sprite
+    private int[] programs = new int[64];
+    private int[] textures = new int[64];
+    private float[] quads = new float[64 * FLOATS_PER_QUAD];
+
+    //which animation frame of its sprite sheet every sprite shows, and if it is mirrored
+    private int[] frameColumns = new int[64];
+    private int[] frameRows = new int[64];
+    private boolean[] flipped = new boolean[64];
+
+    //where every sprite was before and after the step
+    private float[] previousX = new float[64];
+    private float[] previousY = new float[64];
+    private float[] currentX = new float[64];
+    private float[] currentY = new float[64];
+
+    //the size of every sprite, for culling
+    private float[] widths = new float[64];
+    private float[] heights = new float[64];
+
+    //the player's slash, a one time effect
+    private boolean slashVisible;
+    private FloatBuffer slashVertices;
+    private int numSlashVertices;
+    private int slashTexture;
+    private float slashAngleDegrees;
+
+    //which level load this snapshot belongs to, texture ids from an older one can't be used anymore
+    private int generation = -1;
+
+    //when the snapshot was published, from System.nanoTime()
+    private long publishTime;
+
+    /**
+     * This method empties the snapshot so it can be filled again
+     * @param keepEffects true if the last fill was never drawn, so its one time effects (the slash) still need to be shown
+     */
+    void clear(boolean keepEffects)
+    {
+        spriteCount = 0;
+        batchedCount = 0;
+        playerSprite = -1;
+        if(!keepEffects)
+        {
+            slashVisible = false;
+        }
+    }
+
+    /**
+     * This method adds a sprite to the snapshot
+     * @param program the glProgram to draw it with
+     * @param textureId the openGL texture to draw it with
+     * @param quad the 4 vertices (x, y, z, s, t) of the quad around its center, the texture coordinates are of the first frame
+     * @param previous where the center was before the step
+     * @param current where the center is now
+     * @param width how wide the sprite is
+     * @param height how high the sprite is
+     * @param frameColumn how many frames right of the first frame to show
+     * @param frameRow how many frames down from the first frame to show
+     * @param flip true to mirror the sprite horizontally
+     */
+    void addSprite(int program, int textureId, FloatBuffer quad, Vector2 previous, Vector2 current, float width, float height,
+                   int frameColumn, int frameRow, boolean flip)
+    {
+        if(spriteCount == programs.length)
+        {
+            grow();
+        }
+        programs[spriteCount] = program;
+        textures[spriteCount] = textureId;
+        for(int i = 0; i < FLOATS_PER_QUAD; ++i)
+        {
+            quads[spriteCount * FLOATS_PER_QUAD + i] = quad.get(i);
+        }
+        previousX[spriteCount] = previous.x;
+        previousY[spriteCount] = previous.y;
+        currentX[spriteCount] = current.x;
+        currentY[spriteCount] = current.y;
+        widths[spriteCount] = width;
+        heights[spriteCount] = height;
+        frameColumns[spriteCount] = frameColumn;
+        frameRows[spriteCount] = frameRow;
+        flipped[spriteCount] = flip;
+        ++spriteCount;
+    }
+
+    /**
+     * This method doubles the size of the sprite arrays
+     */
+    private void grow()
+    {
+        int size = programs.length * 2;
+        programs = Arrays.copyOf(programs, size);
+        textures = Arrays.copyOf(textures, size);
+        quads = Arrays.copyOf(quads, size * FLOATS_PER_QUAD);
+        previousX = Arrays.copyOf(previousX, size);
+        previousY = Arrays.copyOf(previousY, size);
+        currentX = Arrays.copyOf(currentX, size);
+        currentY = Arrays.copyOf(currentY, size);
+        widths = Arrays.copyOf(widths, size);
+        heights = Arrays.copyOf(heights, size);
+        frameColumns = Arrays.copyOf(frameColumns, size);
+        frameRows = Arrays.copyOf(frameRows, size);
+        flipped = Arrays.copyOf(flipped, size);
+    }
+
+    /**
+     * This method marks every sprite added so far as part of the batch (drawn together, in any order)
+     */
+    void endBatch()
+    {
+        batchedCount = spriteCount;
+    }
+
+    /**
+     * This method marks the sprite that was just added as the player
+     */
+    void markPlayer()
+    {
+        playerSprite = spriteCount - 1;
+    }
+
+    /**
+     * This method shows the player's slash in this snapshot
+     * @param vertices the vertices of the slash, never changed after they are made
+     * @param numVertices how many vertices the slash has
+     * @param textureId the openGL texture of the slash
+     * @param angleDegrees which way the slash faces
+     */
+    void setSlash(FloatBuffer vertices, int numVertices, int textureId, float angleDegrees)
+    {
+        slashVisible = true;
+        slashVertices = vertices;
+        numSlashVertices = numVertices;
+        slashTexture = textureId;
+        slashAngleDegrees = angleDegrees;
+    }
+
+    /**
+     * This method stamps the snapshot before it is handed to the renderer
+     * @param generation which level load the snapshot belongs to
+     * @param publishTime the current time from System.nanoTime()
+     */
+    void stamp(int generation, long publishTime)
+    {
+        this.generation = generation;
+        this.publishTime = publishTime;
+    }
+
+    /**
+     * This method gets how many sprites are in the snapshot
+     * @return how many sprites there are
+     */
+    public int getSpriteCount()
+    {
+        return spriteCount;
+    }
+
+    /**
+     * This method gets how many of the first sprites can be batched together
+     * @return how many sprites are batched
+     */
+    public int getBatchedCount()
+    {
+        return batchedCount;
+    }
+
+    /**
+     * This method gets which sprite is the player
+     * @return the index of the player sprite, -1 if there isn't one
+     */
+    public int getPlayerSprite()
+    {
+        return playerSprite;
+    }
+
+    /**
+     * This method gets the glProgram of a sprite
+     * @param i which sprite
+     * @return the glProgram
+     */
+    public int getProgram(int i)
+    {
+        return programs[i];
+    }
+
+    /**
+     * This method gets the texture of a sprite
+     * @param i which sprite
+     * @return the openGL texture
+     */
+    public int getTexture(int i)
+    {
+        return textures[i];
+    }
+
+    /**
+     * This method gets the array holding the quads of all the sprites
+     * @return the quads, sprite i starts at i * FLOATS_PER_QUAD
+     */
+    public float[] getQuads()
+    {
+        return quads;
+    }
+
+    /**
+     * This method gets which column of frames a sprite shows, counted from its first frame
+     * @param i which sprite
+     * @return the frame column
+     */
+    public int getFrameColumn(int i)
+    {
+        return frameColumns[i];
+    }
+
+    /**
+     * This method gets which row of frames a sprite shows, counted from its first frame
+     * @param i which sprite
+     * @return the frame row
+     */
+    public int getFrameRow(int i)
+    {
+        return frameRows[i];
+    }
+
+    /**
+     * This method checks if a sprite is mirrored horizontally
+     * @param i which sprite
+     * @return true if the sprite is flipped
+     */
+    public boolean isFlipped(int i)
+    {
+        return flipped[i];
+    }
+
+    /**
+     * This method gets where a sprite is between the last two steps on the x-axis
+     * @param i which sprite
+     * @param alpha how far between the previous step (0) and the current step (1)
+     * @return the x of the sprite's center
+     */
+    public float getX(int i, float alpha)
+    {
+        return previousX[i] + (currentX[i] - previousX[i]) * alpha;
+    }
+
+    /**
+     * This method gets where a sprite is between the last two steps on the y-axis
+     * @param i which sprite
+     * @param alpha how far between the previous step (0) and the current step (1)
+     * @return the y of the sprite's center
+     */
+    public float getY(int i, float alpha)
+    {
+        return previousY[i] + (currentY[i] - previousY[i]) * alpha;
+    }
+
+    /**
+     * This method gets how wide a sprite is
+     * @param i which sprite
+     * @return the width
+     */
+    public float getWidth(int i)
+    {
+        return widths[i];
+    }
+
+    /**
+     * This method gets how high a sprite is
+     * @param i which sprite
+     * @return the height
+     */
+    public float getHeight(int i)
+    {
+        return heights[i];
+    }
+
+    /**
+     * This method checks if the slash should be drawn
+     * @return true if the slash is visible
+     */
+    public boolean isSlashVisible()
+    {
+        return slashVisible;
+    }
+
+    /**
+     * This method gets the vertices of the slash
+     * @return the slash vertices
+     */
+    public FloatBuffer getSlashVertices()
+    {
+        return slashVertices;
+    }
+
+    /**
+     * This method gets how many vertices the slash has
+     * @return how many vertices the slash has
+     */
+    public int getNumSlashVertices()
+    {
+        return numSlashVertices;
+    }
+
+    /**
+     * This method gets the texture of the slash
+     * @return the openGL texture of the slash
+     */
+    public int getSlashTexture()
+    {
+        return slashTexture;
+    }
+
+    /**
+     * This method gets which way the slash faces
+     * @return the angle of the slash in degrees
+     */
+    public float getSlashAngleDegrees()
+    {
+        return slashAngleDegrees;
+    }
+
+    /**
+     * This method gets which level load the snapshot belongs to
+     * @return the generation of the snapshot, -1 if it was never filled
+     */
+    public int getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * This method gets when the snapshot was published
+     * @return the publish time from System.nanoTime()
+     */
+    public long getPublishTime()
+    {
+        return publishTime;
+    }
+}
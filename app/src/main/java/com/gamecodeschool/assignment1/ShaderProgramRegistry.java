@@ -0,0 +1,334 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_COMPILE_STATUS;
+import static android.opengl.GLES20.GL_FRAGMENT_SHADER;
+import static android.opengl.GLES20.GL_LINK_STATUS;
+import static android.opengl.GLES20.GL_RENDERER;
+import static android.opengl.GLES20.GL_VENDOR;
+import static android.opengl.GLES20.GL_VERSION;
+import static android.opengl.GLES20.GL_VERTEX_SHADER;
+import static android.opengl.GLES20.glAttachShader;
+import static android.opengl.GLES20.glCompileShader;
+import static android.opengl.GLES20.glCreateProgram;
+import static android.opengl.GLES20.glCreateShader;
+import static android.opengl.GLES20.glDeleteProgram;
+import static android.opengl.GLES20.glDeleteShader;
+import static android.opengl.GLES20.glDetachShader;
+import static android.opengl.GLES20.glGetIntegerv;
+import static android.opengl.GLES20.glGetProgramInfoLog;
+import static android.opengl.GLES20.glGetProgramiv;
+import static android.opengl.GLES20.glGetShaderInfoLog;
+import static android.opengl.GLES20.glGetShaderiv;
+import static android.opengl.GLES20.glGetString;
+import static android.opengl.GLES20.glLinkProgram;
+import static android.opengl.GLES20.glShaderSource;
+import static android.opengl.GLES30.GL_NUM_PROGRAM_BINARY_FORMATS;
+import static android.opengl.GLES30.GL_PROGRAM_BINARY_LENGTH;
+import static android.opengl.GLES30.GL_PROGRAM_BINARY_RETRIEVABLE_HINT;
+import static android.opengl.GLES30.glGetProgramBinary;
+import static android.opengl.GLES30.glProgramBinary;
+import static android.opengl.GLES30.glProgramParameteri;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+
+/**
+ * Builds every shader program the game uses, and only once per openGL context. Shader stages shared by several programs
+ * (like the common vertex shader) are compiled once, and compile and link errors are logged with the driver's info log.
+ * On ES 3 drivers that can save programs, each linked program is written to app storage and loaded straight from there
+ * next time, so starting the game or coming back after the context was lost doesn't compile anything.
+ * Saved programs are thrown away when the driver changes (a system update) or the shader code changes.
+ * @author Braeden Ruff
+ */
+public class ShaderProgramRegistry
+{
+    //bumped if the layout of the saved files changes
+    private static final int FILE_VERSION = 1;
+
+    //saved programs are called this followed by a hash of their code
+    private static final String FILE_PREFIX = "program_";
+
+    //the context of the program, for app storage
+    private final Context context;
+
+    //the programs and shader stages of the current openGL context, keyed by their code
+    private final HashMap<String, Integer> programs = new HashMap<>();
+    private final HashMap<String, Integer> shaders = new HashMap<>();
+
+    //who made the driver, what gpu it is and its version, saved programs only work on the exact same driver
+    private String driver = "";
+
+    //whether the driver can hand us linked programs to save
+    private boolean binariesSupported;
+
+    //how many programs came from app storage and how many had to be compiled, to see the cache working
+    private int programsLoaded;
+    private int programsCompiled;
+
+    /**
+     * This is the constructor for the registry
+     * @param context the context of the program, saved programs go in its app storage
+     */
+    public ShaderProgramRegistry(Context context)
+    {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * This method forgets every program and shader. Call it when a new openGL context is made, since the old ids are meaningless now
+     */
+    public void beginContext()
+    {
+        programs.clear();
+        shaders.clear();
+        driver = glGetString(GL_VENDOR) + "|" + glGetString(GL_RENDERER) + "|" + glGetString(GL_VERSION);
+        final int[] formats = new int[1];
+        String version = glGetString(GL_VERSION);
+        if(version != null && version.startsWith("OpenGL ES 3"))
+        {
+            glGetIntegerv(GL_NUM_PROGRAM_BINARY_FORMATS, formats, 0);
+        }
+        binariesSupported = formats[0] > 0;
+    }
+
+    /**
+     * This method gets a program, building it if this context doesn't have it yet
+     * @param vertexShaderCode the GLSL code of the vertex shader
+     * @param fragmentShaderCode the GLSL code of the fragment shader
+     * @return the program id, or 0 if it didn't compile or link
+     */
+    public int getProgram(String vertexShaderCode, String fragmentShaderCode)
+    {
+        String key = vertexShaderCode + '\u0000' + fragmentShaderCode;
+        Integer existing = programs.get(key);
+        if(existing != null)
+        {
+            return existing;
+        }
+
+        int programId = 0;
+        String fileName = FILE_PREFIX + Integer.toHexString(key.hashCode());
+        if(binariesSupported)
+        {
+            programId = loadBinary(fileName, vertexShaderCode, fragmentShaderCode);
+        }
+        if(programId != 0)
+        {
+            ++programsLoaded;
+        }
+        else
+        {
+            programId = compileAndLink(vertexShaderCode, fragmentShaderCode);
+            if(programId != 0)
+            {
+                ++programsCompiled;
+                if(binariesSupported)
+                {
+                    saveBinary(fileName, programId, vertexShaderCode, fragmentShaderCode);
+                }
+            }
+        }
+        programs.put(key, programId);
+        return programId;
+    }
+
+    /**
+     * This method compiles a shader stage, reusing it if the same code was already compiled in this context
+     * @param type GL_VERTEX_SHADER or GL_FRAGMENT_SHADER
+     * @param shaderCode the GLSL code
+     * @return the shader id, or 0 if it didn't compile
+     */
+    private int getShader(int type, String shaderCode)
+    {
+        String key = type + shaderCode;
+        Integer existing = shaders.get(key);
+        if(existing != null)
+        {
+            return existing;
+        }
+
+        // Create a shader object, pass in the code then compile the shader
+        int shader = glCreateShader(type);
+        glShaderSource(shader, shaderCode);
+        glCompileShader(shader);
+
+        final int[] compileStatus = new int[1];
+        glGetShaderiv(shader, GL_COMPILE_STATUS, compileStatus, 0);
+        if(compileStatus[0] == 0)
+        {
+            Log.e("ShaderProgramRegistry", (type == GL_VERTEX_SHADER ? "vertex" : "fragment") + " shader failed to compile: " + glGetShaderInfoLog(shader));
+            glDeleteShader(shader);
+            shader = 0;
+        }
+        shaders.put(key, shader);
+        return shader;
+    }
+
+    /**
+     * This method compiles (or reuses) both stages and links them into a new program
+     * @param vertexShaderCode the GLSL code of the vertex shader
+     * @param fragmentShaderCode the GLSL code of the fragment shader
+     * @return the program id, or 0 if it didn't compile or link
+     */
+    private int compileAndLink(String vertexShaderCode, String fragmentShaderCode)
+    {
+        int vertexShader = getShader(GL_VERTEX_SHADER, vertexShaderCode);
+        int fragmentShader = getShader(GL_FRAGMENT_SHADER, fragmentShaderCode);
+        if(vertexShader == 0 || fragmentShader == 0)
+        {
+            return 0;
+        }
+
+        int programId = glCreateProgram();
+        glAttachShader(programId, vertexShader);
+        glAttachShader(programId, fragmentShader);
+        if(binariesSupported)
+        {
+            //ask the driver to keep the linked program around so we can save it
+            glProgramParameteri(programId, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, 1);
+        }
+        glLinkProgram(programId);
+        //the stages stay alive for other programs that share them, the program doesn't need them once linked
+        glDetachShader(programId, vertexShader);
+        glDetachShader(programId, fragmentShader);
+
+        if(!isLinked(programId))
+        {
+            Log.e("ShaderProgramRegistry", "program failed to link: " + glGetProgramInfoLog(programId));
+            glDeleteProgram(programId);
+            return 0;
+        }
+        return programId;
+    }
+
+    /**
+     * This method checks if a program linked
+     * @param programId the program to check
+     * @return true if it linked
+     */
+    private static boolean isLinked(int programId)
+    {
+        final int[] linkStatus = new int[1];
+        glGetProgramiv(programId, GL_LINK_STATUS, linkStatus, 0);
+        return linkStatus[0] != 0;
+    }
+
+    /**
+     * This method makes a program from a saved one, if there is one saved for this driver and code
+     * @param fileName the file the program was saved in
+     * @param vertexShaderCode the GLSL code of the vertex shader
+     * @param fragmentShaderCode the GLSL code of the fragment shader
+     * @return the program id, or 0 if there isn't a usable saved program
+     */
+    private int loadBinary(String fileName, String vertexShaderCode, String fragmentShaderCode)
+    {
+        int format;
+        byte[] binary;
+        try (FileInputStream fis = context.openFileInput(fileName);
+             DataInputStream in = new DataInputStream(fis))
+        {
+            //anything different means the saved program is stale
+            if(in.readInt() != FILE_VERSION || !in.readUTF().equals(driver)
+                    || !in.readUTF().equals(vertexShaderCode) || !in.readUTF().equals(fragmentShaderCode))
+            {
+                context.deleteFile(fileName);
+                return 0;
+            }
+            format = in.readInt();
+            binary = new byte[in.readInt()];
+            in.readFully(binary);
+        }
+        catch (FileNotFoundException e)
+        {
+            return 0; //never saved
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            context.deleteFile(fileName);
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(binary.length).order(ByteOrder.nativeOrder());
+        buffer.put(binary);
+        buffer.position(0);
+        int programId = glCreateProgram();
+        glProgramBinary(programId, format, buffer, binary.length);
+        if(!isLinked(programId))
+        {
+            //the driver can refuse a program it saved itself, just compile it again
+            glDeleteProgram(programId);
+            context.deleteFile(fileName);
+            return 0;
+        }
+        return programId;
+    }
+
+    /**
+     * This method saves a linked program to app storage
+     * @param fileName the file to save the program in
+     * @param programId the linked program
+     * @param vertexShaderCode the GLSL code of the vertex shader
+     * @param fragmentShaderCode the GLSL code of the fragment shader
+     */
+    private void saveBinary(String fileName, int programId, String vertexShaderCode, String fragmentShaderCode)
+    {
+        final int[] length = new int[1];
+        glGetProgramiv(programId, GL_PROGRAM_BINARY_LENGTH, length, 0);
+        if(length[0] <= 0)
+        {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length[0]).order(ByteOrder.nativeOrder());
+        final int[] format = new int[1];
+        glGetProgramBinary(programId, length[0], length, 0, format, 0, buffer);
+        byte[] binary = new byte[length[0]];
+        buffer.position(0);
+        buffer.get(binary);
+
+        try (FileOutputStream fos = context.openFileOutput(fileName, Context.MODE_PRIVATE);
+             DataOutputStream out = new DataOutputStream(fos))
+        {
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(driver);
+            out.writeUTF(vertexShaderCode);
+            out.writeUTF(fragmentShaderCode);
+            out.writeInt(format[0]);
+            out.writeInt(binary.length);
+            out.write(binary);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            context.deleteFile(fileName);
+        }
+    }
+
+    /**
+     * This method gets how many programs were loaded from app storage instead of compiled
+     * @return how many programs were loaded
+     */
+    public int getProgramsLoaded()
+    {
+        return programsLoaded;
+    }
+
+    /**
+     * This method gets how many programs had to be compiled
+     * @return how many programs were compiled
+     */
+    public int getProgramsCompiled()
+    {
+        return programsCompiled;
+    }
+}
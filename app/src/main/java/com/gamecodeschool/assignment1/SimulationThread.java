@@ -0,0 +1,91 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the game simulation on its own thread at a fixed tick rate, so updating the game and drawing it can
+ * happen at the same time on phones with more than one core. Every pass it asks the renderer to apply the
+ * queued input, take the steps that are due and publish a render snapshot, then sleeps until the next step.
+ * @author Braeden Ruff
+ */
+public class SimulationThread extends Thread
+{
+    //the renderer owns the update logic and the snapshots
+    private final BladeDashRenderer renderer;
+
+    //decides how many steps are due each pass
+    private final FixedTimestep timestep = new FixedTimestep();
+
+    //false once the thread should finish
+    private volatile boolean running = true;
+
+    //true while the app is in the background
+    private volatile boolean paused = true;
+
+    /**
+     * This is the constructor for the simulation thread, it starts paused
+     * @param renderer the renderer that steps the game and draws the snapshots
+     */
+    public SimulationThread(BladeDashRenderer renderer)
+    {
+        super("Simulation");
+        this.renderer = renderer;
+        setDaemon(true);
+    }
+
+    /**
+     * This method is the simulation loop
+     */
+    @Override
+    public void run()
+    {
+        while(running)
+        {
+            if(paused)
+            {
+                //don't simulate the time we were away
+                timestep.reset();
+                LockSupport.park(this);
+                continue;
+            }
+            int steps = timestep.advance(System.nanoTime());
+            renderer.simulate(steps, timestep.getTickRate());
+            LockSupport.parkNanos(this, timestep.getNanosUntilNextStep());
+        }
+    }
+
+    /**
+     * This method stops stepping the game until resumeSimulation() is called
+     */
+    public void pauseSimulation()
+    {
+        paused = true;
+    }
+
+    /**
+     * This method starts stepping the game again
+     */
+    public void resumeSimulation()
+    {
+        paused = false;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * This method ends the simulation loop, the thread finishes once the pass it is in is done
+     */
+    public void shutdown()
+    {
+        running = false;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * This method checks if shutdown() was called
+     * @return true if the simulation loop has been told to end
+     */
+    public boolean isShutdown()
+    {
+        return !running;
+    }
+}
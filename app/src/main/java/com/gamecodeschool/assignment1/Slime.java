@@ -1,7 +1,7 @@
 package com.gamecodeschool.assignment1;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
+import android.graphics.BitmapFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -187,9 +187,9 @@ public class Slime extends Enemy
      */
     @Override
     public int getTextureResourceId(Context context) {
-        Drawable drawable = context.getDrawable(R.drawable.slime);
-        spriteSheetWidth = drawable.getIntrinsicWidth();
-        spriteSheetHeight = drawable.getIntrinsicHeight();
+        BitmapFactory.Options size = AsyncTextureLoader.readSize(context, R.drawable.slime);
+        spriteSheetWidth = size.outWidth;
+        spriteSheetHeight = size.outHeight;
         numberOfColumnsInSpriteSheet = 20;
         numberOfRowsInSpriteSheet = 5;
         frameWidth = spriteSheetWidth / numberOfColumnsInSpriteSheet;
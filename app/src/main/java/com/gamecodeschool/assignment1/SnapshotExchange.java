@@ -0,0 +1,68 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands render snapshots from the simulation thread to the render thread without either of them waiting.
+ * The simulation fills a back snapshot and publishes it, the renderer picks up the newest published one.
+ * A third snapshot sits in between, so the renderer can keep drawing from its front snapshot while
+ * the simulation is already filling the next one. Swaps are a single atomic exchange.
+ * @author Braeden Ruff
+ */
+public class SnapshotExchange
+{
+    //set on the shared slot when it holds a snapshot the renderer hasn't picked up yet
+    private static final int FRESH = 4;
+
+    //the lower bits of the shared slot are the index of the snapshot in it
+    private static final int INDEX_MASK = 3;
+
+    //the three snapshots
+    private final RenderSnapshot[] snapshots = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+
+    //the snapshot in the middle, plus the FRESH bit
+    private final AtomicInteger shared = new AtomicInteger(1);
+
+    //only touched by the simulation thread
+    private int writeIndex = 0;
+    private boolean lastPublishDropped;
+
+    //only touched by the render thread
+    private int readIndex = 2;
+
+    /**
+     * This method gets an empty snapshot for the simulation to fill. Simulation thread only
+     * @return the back snapshot
+     */
+    public RenderSnapshot beginWrite()
+    {
+        RenderSnapshot snapshot = snapshots[writeIndex];
+        snapshot.clear(lastPublishDropped);
+        return snapshot;
+    }
+
+    /**
+     * This method publishes the snapshot from beginWrite() so the renderer can pick it up. Simulation thread only
+     */
+    public void publish()
+    {
+        int old = shared.getAndSet(writeIndex | FRESH);
+        writeIndex = old & INDEX_MASK;
+        //if the renderer never saw the snapshot we got back, its one time effects haven't been shown yet
+        lastPublishDropped = (old & FRESH) != 0;
+    }
+
+    /**
+     * This method gets the newest published snapshot. Render thread only
+     * @return the front snapshot, stays the same until the next call
+     */
+    public RenderSnapshot acquire()
+    {
+        if((shared.get() & FRESH) != 0)
+        {
+            int old = shared.getAndSet(readIndex);
+            readIndex = old & INDEX_MASK;
+        }
+        return snapshots[readIndex];
+    }
+}
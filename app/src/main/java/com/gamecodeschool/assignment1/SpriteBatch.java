@@ -0,0 +1,342 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_ELEMENT_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_FLOAT;
+import static android.opengl.GLES20.GL_STATIC_DRAW;
+import static android.opengl.GLES20.GL_STREAM_DRAW;
+import static android.opengl.GLES20.GL_TEXTURE0;
+import static android.opengl.GLES20.GL_TRIANGLES;
+import static android.opengl.GLES20.GL_UNSIGNED_SHORT;
+import static android.opengl.GLES20.glBindBuffer;
+import static android.opengl.GLES20.glBufferData;
+import static android.opengl.GLES20.glDrawElements;
+import static android.opengl.GLES20.glGenBuffers;
+import static android.opengl.GLES20.glUniformMatrix4fv;
+import static android.opengl.GLES20.glVertexAttribPointer;
+import static com.gamecodeschool.assignment1.GLManager.FLOAT_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.POSITION_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.STRIDE;
+import static com.gamecodeschool.assignment1.GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.aPositionLocation;
+import static com.gamecodeschool.assignment1.GLManager.aTextureCoordinatesLocation;
+import static com.gamecodeschool.assignment1.GLManager.uMatrixLocation;
+import static com.gamecodeschool.assignment1.GLManager.uTextureUnit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Collects textured quads into one dynamic vertex buffer and draws them with as few draw calls as possible.
+ * Quads are sorted by program and texture when the batch is flushed, then every run of quads that share
+ * the same program and texture is drawn with a single indexed GL_TRIANGLES call.
+ * Quads are given in world space already (the batch adds the translation), so the only uniform is the viewport.
+ * @author Braeden Ruff
+ */
+public class SpriteBatch
+{
+    //how many quads we can hold before we have to flush (4 vertices each, so this keeps indices inside an unsigned short)
+    public static final int MAX_SPRITES = 4096;
+
+    //x, y, z, s, t for every vertex
+    private static final int FLOATS_PER_VERTEX = POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+
+    //4 vertices per quad
+    private static final int FLOATS_PER_SPRITE = 4 * FLOATS_PER_VERTEX;
+
+    //2 triangles per quad
+    private static final int INDICES_PER_SPRITE = 6;
+
+    //how many bits of the sort key are used for the sprite index and the texture id
+    private static final int INDEX_BITS = 20;
+    private static final int TEXTURE_BITS = 21;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long TEXTURE_MASK = (1L << TEXTURE_BITS) - 1;
+
+    //the vertices of every quad added since begin(), in the order they were added
+    private final float[] staging = new float[MAX_SPRITES * FLOATS_PER_SPRITE];
+
+    //the program and texture of every quad added since begin()
+    private final int[] spritePrograms = new int[MAX_SPRITES];
+    private final int[] spriteTextures = new int[MAX_SPRITES];
+
+    //program, texture and index packed into one long so we can sort without allocating
+    private final long[] sortKeys = new long[MAX_SPRITES];
+
+    //how many quads are waiting to be drawn
+    private int spriteCount;
+
+    //the sorted vertices we hand to openGL
+    private final FloatBuffer vertexData;
+
+    //the index pattern (0, 1, 2, 0, 2, 3) repeated for every quad, never changes
+    private final ShortBuffer indexData;
+
+    //the openGL buffer objects
+    private int vertexBufferId;
+    private int indexBufferId;
+
+    //the viewport we were given in begin()
+    private float[] viewportMatrix;
+
+    //whether we are between begin() and end()
+    private boolean drawing;
+
+    //how many draw calls and quads were issued since the last resetStats(), so we can see the batching working
+    private int drawCalls;
+    private int spritesDrawn;
+
+    /**
+     * The constructor allocates the client side memory. The openGL side is made in createBuffers()
+     */
+    public SpriteBatch()
+    {
+        vertexData = ByteBuffer.allocateDirect(staging.length * FLOAT_SIZE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+        short[] indices = new short[MAX_SPRITES * INDICES_PER_SPRITE];
+        for(int i = 0; i < MAX_SPRITES; ++i)
+        {
+            //quads are given as bottom left, bottom right, top right, top left (same as a triangle fan)
+            short first = (short) (i * 4);
+            int index = i * INDICES_PER_SPRITE;
+            indices[index] = first;
+            indices[index + 1] = (short) (first + 1);
+            indices[index + 2] = (short) (first + 2);
+            indices[index + 3] = first;
+            indices[index + 4] = (short) (first + 2);
+            indices[index + 5] = (short) (first + 3);
+        }
+        indexData = ByteBuffer.allocateDirect(indices.length * 2)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        indexData.put(indices);
+        indexData.position(0);
+    }
+
+    /**
+     * This method creates the openGL buffers. It needs to be called again whenever the openGL context is recreated
+     */
+    public void createBuffers()
+    {
+        final int[] bufferIds = new int[2];
+        glGenBuffers(2, bufferIds, 0);
+        vertexBufferId = bufferIds[0];
+        indexBufferId = bufferIds[1];
+
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexData.capacity() * 2, indexData, GL_STATIC_DRAW);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * This method starts a new batch
+     * @param viewportMatrix the viewport every quad in this batch will be drawn with
+     */
+    public void begin(float[] viewportMatrix)
+    {
+        this.viewportMatrix = viewportMatrix;
+        spriteCount = 0;
+        drawing = true;
+    }
+
+    /**
+     * This method adds a quad to the batch. Flushes first if the batch is full
+     * @param program the glProgram to draw this quad with
+     * @param textureId the openGL texture of this quad
+     * @param quads an array holding the 4 vertices (x, y, z, s, t) of the quad around its center, in triangle fan order
+     * @param quadOffset where in the array the quad starts
+     * @param x where the center of the quad is on the x-axis
+     * @param y where the center of the quad is on the y-axis
+     */
+    public void draw(int program, int textureId, float[] quads, int quadOffset, float x, float y)
+    {
+        if(!drawing)
+        {
+            throw new IllegalStateException("SpriteBatch.draw() called outside of begin()/end()");
+        }
+        if(spriteCount == MAX_SPRITES)
+        {
+            flush();
+        }
+
+        int offset = spriteCount * FLOATS_PER_SPRITE;
+        for(int i = 0; i < FLOATS_PER_SPRITE; i += FLOATS_PER_VERTEX)
+        {
+            staging[offset + i] = quads[quadOffset + i] + x;
+            staging[offset + i + 1] = quads[quadOffset + i + 1] + y;
+            staging[offset + i + 2] = quads[quadOffset + i + 2];
+            staging[offset + i + 3] = quads[quadOffset + i + 3];
+            staging[offset + i + 4] = quads[quadOffset + i + 4];
+        }
+        spritePrograms[spriteCount] = program;
+        spriteTextures[spriteCount] = textureId;
+        ++spriteCount;
+    }
+
+    /**
+     * This method adds a frame of an animated quad to the batch. The quad's texture coordinates are the first frame,
+     * and are moved over by whole frames to the one being shown while they are copied in
+     * @param program the glProgram to draw this quad with
+     * @param textureId the openGL texture of this quad
+     * @param quads an array holding the 4 vertices (x, y, z, s, t) of the quad around its center, in triangle fan order
+     * @param quadOffset where in the array the quad starts
+     * @param x where the center of the quad is on the x-axis
+     * @param y where the center of the quad is on the y-axis
+     * @param frameColumn how many frames right of the quad's texture coordinates to show
+     * @param frameRow how many frames down from the quad's texture coordinates to show
+     * @param flip true to mirror the quad horizontally
+     */
+    public void draw(int program, int textureId, float[] quads, int quadOffset, float x, float y, int frameColumn, int frameRow, boolean flip)
+    {
+        draw(program, textureId, quads, quadOffset, x, y);
+        if(frameColumn == 0 && frameRow == 0 && !flip)
+        {
+            return;
+        }
+
+        //the first frame, from the bottom left, bottom right and top left corners
+        float left = quads[quadOffset + 3];
+        float right = quads[quadOffset + 3 + FLOATS_PER_VERTEX];
+        float bottom = quads[quadOffset + 4];
+        float top = quads[quadOffset + 4 + 3 * FLOATS_PER_VERTEX];
+        float frameWidth = right - left;
+        float frameHeight = bottom - top;
+
+        //the corners go bottom left, bottom right, top right, top left
+        int offset = (spriteCount - 1) * FLOATS_PER_SPRITE;
+        for(int corner = 0; corner < 4; ++corner)
+        {
+            int cornerX = corner == 1 || corner == 2 ? 1 : 0;
+            int cornerY = corner >= 2 ? 1 : 0;
+            int i = offset + corner * FLOATS_PER_VERTEX;
+            staging[i + 3] = left + (frameColumn + (flip ? 1 - cornerX : cornerX)) * frameWidth;
+            staging[i + 4] = top + (frameRow + 1 - cornerY) * frameHeight;
+        }
+    }
+
+    /**
+     * This method draws everything left in the batch and ends it
+     */
+    public void end()
+    {
+        flush();
+        drawing = false;
+    }
+
+    /**
+     * This method sorts the waiting quads by program and texture, uploads them, and draws each run with one call
+     */
+    private void flush()
+    {
+        if(spriteCount == 0)
+        {
+            return;
+        }
+
+        //sort by program, then texture, then the order they were added (so the sort is stable)
+        for(int i = 0; i < spriteCount; ++i)
+        {
+            sortKeys[i] = ((long) spritePrograms[i] << (INDEX_BITS + TEXTURE_BITS))
+                    | (((long) spriteTextures[i] & TEXTURE_MASK) << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(sortKeys, 0, spriteCount);
+
+        //copy the quads over in sorted order
+        vertexData.position(0);
+        for(int i = 0; i < spriteCount; ++i)
+        {
+            int sprite = (int) (sortKeys[i] & INDEX_MASK);
+            vertexData.put(staging, sprite * FLOATS_PER_SPRITE, FLOATS_PER_SPRITE);
+        }
+        vertexData.position(0);
+
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferId);
+        //orphan the old storage so we don't wait on the GPU still reading last frame's quads
+        glBufferData(GL_ARRAY_BUFFER, spriteCount * FLOATS_PER_SPRITE * FLOAT_SIZE, vertexData, GL_STREAM_DRAW);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+
+        int currentProgram = -1;
+        int currentTexture = -1;
+        int runStart = 0;
+        for(int i = 0; i <= spriteCount; ++i)
+        {
+            int program = -1;
+            int texture = -1;
+            if(i < spriteCount)
+            {
+                int sprite = (int) (sortKeys[i] & INDEX_MASK);
+                program = spritePrograms[sprite];
+                texture = spriteTextures[sprite];
+                if(program == currentProgram && texture == currentTexture)
+                {
+                    continue;
+                }
+            }
+            //the run from runStart to i is finished, draw it
+            if(i > runStart)
+            {
+                glDrawElements(GL_TRIANGLES, (i - runStart) * INDICES_PER_SPRITE, GL_UNSIGNED_SHORT, runStart * INDICES_PER_SPRITE * 2);
+                ++drawCalls;
+            }
+            if(i == spriteCount)
+            {
+                break;
+            }
+            if(program != currentProgram)
+            {
+                GLManager.useProgram(program);
+                glVertexAttribPointer(aPositionLocation, POSITION_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, 0);
+                GLManager.enableVertexAttribArray(aPositionLocation);
+                glVertexAttribPointer(aTextureCoordinatesLocation, TEXTURE_COORDINATES_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, POSITION_ATTRIBUTE_SIZE * FLOAT_SIZE);
+                GLManager.enableVertexAttribArray(aTextureCoordinatesLocation);
+                glUniformMatrix4fv(uMatrixLocation, 1, false, viewportMatrix, 0);
+                GLManager.activeTexture(GL_TEXTURE0);
+                GLManager.setSamplerToUnitZero(uTextureUnit);
+                currentProgram = program;
+            }
+            GLManager.bindTexture(texture);
+            currentTexture = texture;
+            runStart = i;
+        }
+
+        //the rest of the game draws from client side arrays, so leave no buffers bound
+        GLManager.disableVertexAttribArray(aPositionLocation);
+        GLManager.disableVertexAttribArray(aTextureCoordinatesLocation);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        spritesDrawn += spriteCount;
+        spriteCount = 0;
+    }
+
+    /**
+     * This method gets how many draw calls the batch made since the last resetStats()
+     * @return how many draw calls the batch made
+     */
+    public int getDrawCalls()
+    {
+        return drawCalls;
+    }
+
+    /**
+     * This method gets how many quads the batch drew since the last resetStats()
+     * @return how many quads the batch drew
+     */
+    public int getSpritesDrawn()
+    {
+        return spritesDrawn;
+    }
+
+    /**
+     * This method resets the draw call and quad counters, call it once per frame
+     */
+    public void resetStats()
+    {
+        drawCalls = 0;
+        spritesDrawn = 0;
+    }
+}
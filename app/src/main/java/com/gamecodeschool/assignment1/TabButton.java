@@ -1,6 +1,5 @@
 package com.gamecodeschool.assignment1;
 
-import static android.opengl.GLES20.glUseProgram;
 import static android.opengl.Matrix.orthoM;
 
 import android.content.Context;
@@ -30,6 +29,9 @@ public class TabButton implements Texturable
     // OpenGL texture ID for the button background
     private int textureID;
 
+    // Where the texture is on the atlas page, null if it has a texture of its own
+    private TextureRegion textureRegion;
+
     // Orthographic projection matrix for rendering
     private final float[] viewportMatrix = new float[16];
 
@@ -78,6 +80,10 @@ public class TabButton implements Texturable
                 sizeX, -sizeY, 0,     1.0f, 0.0f,  // Top right corner
                 -sizeX, -sizeY, 0,    0.0f, 0.0f   // Top left corner
         };
+        if(textureRegion != null)
+        {
+            textureRegion.mapTextureCoords(modelVertices);
+        }
         // Store number of vertices
         vertices = ByteBuffer.allocateDirect(modelVertices.length * 4)
                 .order(ByteOrder.nativeOrder()).asFloatBuffer();
@@ -119,12 +125,25 @@ public class TabButton implements Texturable
         textureID = textureId;
     }
 
+    /**
+     * Sets the texture atlas region for this object (for openGL)
+     * @param region - where the texture for this object is on the atlas page
+     * @return true, the texture coordinates are moved onto the region
+     */
+    @Override
+    public boolean setTextureRegion(TextureRegion region)
+    {
+        textureID = region.getTextureId();
+        textureRegion = region;
+        return true;
+    }
+
     /**
      * Renders the button and its message to the screen.
      */
     public void draw()
     {
-        glUseProgram(glProgram);
+        GLManager.useProgram(glProgram);
 
         GLManager.setVertexAttribPointer(vertices);
         GLManager.translate(viewportModelMatrix, viewportMatrix, loc.x, loc.y);
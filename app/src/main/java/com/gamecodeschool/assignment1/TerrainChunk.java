@@ -0,0 +1,65 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.Arrays;
+
+/**
+ * This class is a helper class for TerrainMesh. It holds one square block of the tile grid that was baked into its own vertex buffer
+ * @author Braeden Ruff
+ */
+class TerrainChunk
+{
+    //the openGL vertex buffer holding this chunk's quads, 0 if it hasn't been uploaded
+    int vertexBufferId;
+
+    //the first row and column of the tile grid that belong to this chunk
+    int firstRow;
+    int firstColumn;
+
+    //the quads are grouped by texture, so each run is one texture and one draw call
+    int[] runTextures;
+    int[] runFirstQuad;
+    int[] runQuadCount;
+    int runCount;
+
+    //how many tiles ended up in the buffer
+    int quadCount;
+
+    //true when a tile in this chunk changed and the buffer needs to be rebuilt before drawing
+    boolean dirty;
+
+    /**
+     * This is the constructor for a chunk
+     * @param firstRow the first row of the tile grid in this chunk
+     * @param firstColumn the first column of the tile grid in this chunk
+     */
+    TerrainChunk(int firstRow, int firstColumn)
+    {
+        this.firstRow = firstRow;
+        this.firstColumn = firstColumn;
+        //a chunk rarely has more than a few different tile textures, addRun() grows these if it does
+        runTextures = new int[4];
+        runFirstQuad = new int[4];
+        runQuadCount = new int[4];
+        dirty = true;
+    }
+
+    /**
+     * This method adds a run of quads that share one texture
+     * @param texture the openGL texture of the run
+     * @param firstQuad the first quad of the run in the vertex buffer
+     * @param quads how many quads are in the run
+     */
+    void addRun(int texture, int firstQuad, int quads)
+    {
+        if(runCount == runTextures.length)
+        {
+            runTextures = Arrays.copyOf(runTextures, runCount * 2);
+            runFirstQuad = Arrays.copyOf(runFirstQuad, runCount * 2);
+            runQuadCount = Arrays.copyOf(runQuadCount, runCount * 2);
+        }
+        runTextures[runCount] = texture;
+        runFirstQuad[runCount] = firstQuad;
+        runQuadCount[runCount] = quads;
+        ++runCount;
+    }
+}
@@ -0,0 +1,346 @@
+package com.gamecodeschool.assignment1;
+
+import static android.opengl.GLES20.GL_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_ELEMENT_ARRAY_BUFFER;
+import static android.opengl.GLES20.GL_FLOAT;
+import static android.opengl.GLES20.GL_STATIC_DRAW;
+import static android.opengl.GLES20.GL_TEXTURE0;
+import static android.opengl.GLES20.GL_TRIANGLES;
+import static android.opengl.GLES20.GL_UNSIGNED_SHORT;
+import static android.opengl.GLES20.glBindBuffer;
+import static android.opengl.GLES20.glBufferData;
+import static android.opengl.GLES20.glDeleteBuffers;
+import static android.opengl.GLES20.glDrawElements;
+import static android.opengl.GLES20.glGenBuffers;
+import static android.opengl.GLES20.glUniformMatrix4fv;
+import static android.opengl.GLES20.glVertexAttribPointer;
+import static com.gamecodeschool.assignment1.GLManager.FLOAT_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.POSITION_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.STRIDE;
+import static com.gamecodeschool.assignment1.GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.aPositionLocation;
+import static com.gamecodeschool.assignment1.GLManager.aTextureCoordinatesLocation;
+import static com.gamecodeschool.assignment1.GLManager.uMatrixLocation;
+import static com.gamecodeschool.assignment1.GLManager.uTextureUnit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Bakes the level's terrain into GPU vertex buffers once, so the tiles don't get uploaded every frame.
+ * The tile grid is split into square chunks and every chunk gets its own static vertex buffer, with the
+ * tiles grouped by texture. When a tile changes (a breakable wall gets slashed) or the LevelStreamer loads or lets go of
+ * a chunk, only that chunk is rebuilt.
+ * @author Braeden Ruff
+ */
+public class TerrainMesh
+{
+    //how many tiles wide and high a chunk is
+    public static final int CHUNK_SIZE = 32;
+
+    //the most tiles that fit in one chunk
+    private static final int QUADS_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE;
+
+    //x, y, z, s, t for 4 vertices
+    private static final int FLOATS_PER_QUAD = 4 * (POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE);
+
+    //2 triangles per quad
+    private static final int INDICES_PER_QUAD = 6;
+
+    //the level we are baking, only the tiles of its loaded chunks exist
+    private LevelStreamer tiles;
+    private int rows;
+    private int columns;
+
+    //all of the chunks, row major
+    private TerrainChunk[] chunks;
+    private int chunkRows;
+    private int chunkColumns;
+
+    //shared index buffer (0, 1, 2, 0, 2, 3, ...) big enough for a full chunk
+    private int indexBufferId;
+
+    //scratch memory used while rebuilding a chunk, reused so rebuilding doesn't allocate
+    private final float[] quadScratch = new float[QUADS_PER_CHUNK * FLOATS_PER_QUAD];
+    private final long[] sortKeys = new long[QUADS_PER_CHUNK];
+    private final int[] tileTextures = new int[QUADS_PER_CHUNK];
+    private final FloatBuffer uploadBuffer;
+
+    //how many chunks and draw calls were used for the last frame
+    private int chunksDrawn;
+    private int drawCalls;
+
+    /**
+     * The constructor allocates the client side scratch memory. Call build() to bake a level
+     */
+    public TerrainMesh()
+    {
+        uploadBuffer = ByteBuffer.allocateDirect(quadScratch.length * FLOAT_SIZE)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * This method bakes the loaded chunks of a level. Deletes the buffers of the previous level first
+     * @param tiles the level, chunks that aren't loaded are left empty until they are
+     */
+    public void build(LevelStreamer tiles)
+    {
+        release();
+        this.tiles = tiles;
+        this.rows = tiles.getRows();
+        this.columns = tiles.getColumns();
+        chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunkColumns = (columns + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunks = new TerrainChunk[chunkRows * chunkColumns];
+        for(int i = 0; i < chunkRows; ++i)
+        {
+            for(int j = 0; j < chunkColumns; ++j)
+            {
+                chunks[i * chunkColumns + j] = new TerrainChunk(i * CHUNK_SIZE, j * CHUNK_SIZE);
+            }
+        }
+
+        if(indexBufferId == 0)
+        {
+            createIndexBuffer();
+        }
+        rebuildDirtyChunks();
+    }
+
+    /**
+     * This method makes the index buffer shared by every chunk
+     */
+    private void createIndexBuffer()
+    {
+        short[] indices = new short[QUADS_PER_CHUNK * INDICES_PER_QUAD];
+        for(int i = 0; i < QUADS_PER_CHUNK; ++i)
+        {
+            //quads are bottom left, bottom right, top right, top left (same as a triangle fan)
+            short first = (short) (i * 4);
+            int index = i * INDICES_PER_QUAD;
+            indices[index] = first;
+            indices[index + 1] = (short) (first + 1);
+            indices[index + 2] = (short) (first + 2);
+            indices[index + 3] = first;
+            indices[index + 4] = (short) (first + 2);
+            indices[index + 5] = (short) (first + 3);
+        }
+        ShortBuffer indexData = ByteBuffer.allocateDirect(indices.length * 2)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        indexData.put(indices);
+        indexData.position(0);
+
+        final int[] bufferIds = new int[1];
+        glGenBuffers(1, bufferIds, 0);
+        indexBufferId = bufferIds[0];
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices.length * 2, indexData, GL_STATIC_DRAW);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * This method tells the mesh that a tile changed, so its chunk gets rebuilt before the next draw
+     * @param row the row of the tile that changed
+     * @param column the column of the tile that changed
+     */
+    public void markDirty(int row, int column)
+    {
+        if(chunks == null || row < 0 || row >= rows || column < 0 || column >= columns)
+        {
+            return;
+        }
+        chunks[(row / CHUNK_SIZE) * chunkColumns + column / CHUNK_SIZE].dirty = true;
+    }
+
+    /**
+     * This method rebuilds every chunk that was marked dirty. Reads the tile grid, so call it while the simulation can't change it
+     */
+    public void rebuildDirtyChunks()
+    {
+        if(chunks == null)
+        {
+            return;
+        }
+        for(TerrainChunk chunk : chunks)
+        {
+            if(chunk.dirty)
+            {
+                rebuildChunk(chunk);
+            }
+        }
+    }
+
+    /**
+     * This method gathers the tiles of one chunk, groups them by texture and uploads them into the chunk's buffer
+     * @param chunk the chunk to rebuild
+     */
+    private void rebuildChunk(TerrainChunk chunk)
+    {
+        chunk.dirty = false;
+        chunk.runCount = 0;
+
+        //gather the tiles, keyed by texture so sorting groups them
+        float tileSize = GameManager.getPixelsPerMeter();
+        int count = 0;
+        int lastRow = Math.min(chunk.firstRow + CHUNK_SIZE, rows);
+        int lastColumn = Math.min(chunk.firstColumn + CHUNK_SIZE, columns);
+        for(int i = chunk.firstRow; i < lastRow; ++i)
+        {
+            for(int j = chunk.firstColumn; j < lastColumn; ++j)
+            {
+                TileType type = tiles.getTileType(i, j);
+                if(type == null || !tiles.isLoaded(i, j))
+                {
+                    continue;
+                }
+                type.writeQuad(quadScratch, count * FLOATS_PER_QUAD, j * tileSize, -i * tileSize, tileSize);
+                tileTextures[count] = type.getTextureID();
+                sortKeys[count] = ((long) type.getTextureID() << 32) | count;
+                ++count;
+            }
+        }
+        chunk.quadCount = count;
+        if(count == 0)
+        {
+            //nothing to draw (or the chunk was let go of), give the buffer back
+            if(chunk.vertexBufferId != 0)
+            {
+                glDeleteBuffers(1, new int[] {chunk.vertexBufferId}, 0);
+                chunk.vertexBufferId = 0;
+            }
+            return;
+        }
+        Arrays.sort(sortKeys, 0, count);
+
+        //copy the quads in texture order and record a run for every texture
+        uploadBuffer.position(0);
+        int runStart = 0;
+        for(int i = 0; i < count; ++i)
+        {
+            int quad = (int) sortKeys[i];
+            uploadBuffer.put(quadScratch, quad * FLOATS_PER_QUAD, FLOATS_PER_QUAD);
+            boolean lastOfRun = i == count - 1 || tileTextures[(int) sortKeys[i + 1]] != tileTextures[quad];
+            if(lastOfRun)
+            {
+                chunk.addRun(tileTextures[quad], runStart, i - runStart + 1);
+                runStart = i + 1;
+            }
+        }
+        uploadBuffer.position(0);
+
+        if(chunk.vertexBufferId == 0)
+        {
+            final int[] bufferIds = new int[1];
+            glGenBuffers(1, bufferIds, 0);
+            chunk.vertexBufferId = bufferIds[0];
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, chunk.vertexBufferId);
+        glBufferData(GL_ARRAY_BUFFER, count * FLOATS_PER_QUAD * FLOAT_SIZE, uploadBuffer, GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * This method draws every chunk that overlaps the camera. Dirty chunks are drawn as they were until rebuildDirtyChunks() is called
+     * @param viewportMatrix the viewport to draw with
+     * @param culler tells us which rows and columns are on screen
+     */
+    public void draw(float[] viewportMatrix, ViewportCuller culler)
+    {
+        chunksDrawn = 0;
+        drawCalls = 0;
+        if(chunks == null)
+        {
+            return;
+        }
+
+        int firstChunkRow = culler.getFirstRow() / CHUNK_SIZE;
+        int lastChunkRow = culler.getLastRow() / CHUNK_SIZE;
+        int firstChunkColumn = culler.getFirstColumn() / CHUNK_SIZE;
+        int lastChunkColumn = culler.getLastColumn() / CHUNK_SIZE;
+
+        GLManager.useProgram(GLManager.getGLTextureProgram());
+        glUniformMatrix4fv(uMatrixLocation, 1, false, viewportMatrix, 0);
+        GLManager.activeTexture(GL_TEXTURE0);
+        GLManager.setSamplerToUnitZero(uTextureUnit);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+
+        for(int i = firstChunkRow; i <= lastChunkRow; ++i)
+        {
+            for(int j = firstChunkColumn; j <= lastChunkColumn; ++j)
+            {
+                TerrainChunk chunk = chunks[i * chunkColumns + j];
+                if(chunk.quadCount == 0)
+                {
+                    continue;
+                }
+                glBindBuffer(GL_ARRAY_BUFFER, chunk.vertexBufferId);
+                glVertexAttribPointer(aPositionLocation, POSITION_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, 0);
+                GLManager.enableVertexAttribArray(aPositionLocation);
+                glVertexAttribPointer(aTextureCoordinatesLocation, TEXTURE_COORDINATES_ATTRIBUTE_SIZE, GL_FLOAT, false, STRIDE, POSITION_ATTRIBUTE_SIZE * FLOAT_SIZE);
+                GLManager.enableVertexAttribArray(aTextureCoordinatesLocation);
+                for(int run = 0; run < chunk.runCount; ++run)
+                {
+                    GLManager.bindTexture(chunk.runTextures[run]);
+                    glDrawElements(GL_TRIANGLES, chunk.runQuadCount[run] * INDICES_PER_QUAD, GL_UNSIGNED_SHORT, chunk.runFirstQuad[run] * INDICES_PER_QUAD * 2);
+                    ++drawCalls;
+                }
+                ++chunksDrawn;
+            }
+        }
+
+        //the rest of the game draws from client side arrays, so leave no buffers bound
+        GLManager.disableVertexAttribArray(aPositionLocation);
+        GLManager.disableVertexAttribArray(aTextureCoordinatesLocation);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * This method deletes the openGL buffers of the current level
+     */
+    public void release()
+    {
+        if(chunks != null)
+        {
+            for(TerrainChunk chunk : chunks)
+            {
+                if(chunk.vertexBufferId != 0)
+                {
+                    glDeleteBuffers(1, new int[] {chunk.vertexBufferId}, 0);
+                    chunk.vertexBufferId = 0;
+                }
+            }
+        }
+        chunks = null;
+    }
+
+    /**
+     * This method forgets every buffer without deleting it. Used when the openGL context was lost, since the old ids are meaningless now
+     */
+    public void invalidate()
+    {
+        chunks = null;
+        indexBufferId = 0;
+    }
+
+    /**
+     * This method gets how many chunks were drawn last frame
+     * @return how many chunks were drawn last frame
+     */
+    public int getChunksDrawn()
+    {
+        return chunksDrawn;
+    }
+
+    /**
+     * This method gets how many draw calls the terrain used last frame
+     * @return how many draw calls the terrain used last frame
+     */
+    public int getDrawCalls()
+    {
+        return drawCalls;
+    }
+}
@@ -0,0 +1,164 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the glyph meshes of the last few messages a Message built, keyed by the text, size and position.
+ * Captions like the god mode banner or an achievement come back again and again, so they are only laid out once.
+ * The least recently used mesh is dropped when the cache is full. Looking a mesh up doesn't allocate.
+ * @author Braeden Ruff
+ */
+public class TextMeshCache
+{
+    /**
+     * What a mesh was built from. The cache keeps its own keys, and lookups reuse one key so they don't allocate
+     */
+    private static class Key
+    {
+        //the text, size and top left of the message
+        String text;
+        float size;
+        float x;
+        float y;
+
+        /**
+         * This method changes what the key describes
+         * @param text the text of the message
+         * @param size the size of the characters
+         * @param x the left of the message
+         * @param y the top of the message
+         * @return this key
+         */
+        Key set(String text, float size, float x, float y)
+        {
+            this.text = text;
+            this.size = size;
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
+        /**
+         * This method checks if two keys describe the same mesh
+         * @param o the other key
+         * @return true if the text, size and position are all the same
+         */
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && x == other.x && y == other.y && text.equals(other.text);
+        }
+
+        /**
+         * This method hashes the key
+         * @return the hash of the text, size and position
+         */
+        @Override
+        public int hashCode()
+        {
+            int hash = text.hashCode();
+            hash = 31 * hash + Float.floatToIntBits(size);
+            hash = 31 * hash + Float.floatToIntBits(x);
+            return 31 * hash + Float.floatToIntBits(y);
+        }
+    }
+
+    //the meshes, in least to most recently used order
+    private final LinkedHashMap<Key, float[]> meshes;
+
+    //reused for every lookup
+    private final Key lookupKey = new Key();
+
+    //how many hits and misses there have been, to see the cache working
+    private int hits;
+    private int misses;
+
+    /**
+     * This is the constructor for an empty cache
+     * @param capacity how many meshes to keep
+     */
+    public TextMeshCache(final int capacity)
+    {
+        meshes = new LinkedHashMap<Key, float[]>(capacity * 2, 0.75f, true)
+        {
+            /**
+             * This method drops the least recently used mesh when there are too many
+             * @param eldest the least recently used mesh
+             * @return true if the cache is over capacity
+             */
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * This method finds a mesh that was built before, and marks it as just used
+     * @param text the text of the message
+     * @param size the size of the characters
+     * @param x the left of the message
+     * @param y the top of the message
+     * @return the mesh, or null if it isn't cached
+     */
+    public float[] get(String text, float size, float x, float y)
+    {
+        float[] mesh = meshes.get(lookupKey.set(text, size, x, y));
+        lookupKey.text = null;
+        if(mesh == null)
+        {
+            ++misses;
+        }
+        else
+        {
+            ++hits;
+        }
+        return mesh;
+    }
+
+    /**
+     * This method remembers a mesh, dropping the least recently used one if the cache is full
+     * @param text the text of the message
+     * @param size the size of the characters
+     * @param x the left of the message
+     * @param y the top of the message
+     * @param mesh the glyph quads, exactly as long as the glyphs need
+     */
+    public void put(String text, float size, float x, float y, float[] mesh)
+    {
+        meshes.put(new Key().set(text, size, x, y), mesh);
+    }
+
+    /**
+     * This method forgets every mesh
+     */
+    public void clear()
+    {
+        meshes.clear();
+    }
+
+    /**
+     * This method gets how many lookups found a mesh
+     * @return how many lookups found a mesh
+     */
+    public int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * This method gets how many lookups didn't find a mesh
+     * @return how many lookups didn't find a mesh
+     */
+    public int getMisses()
+    {
+        return misses;
+    }
+}
@@ -24,4 +24,15 @@ public interface Texturable
      * @param textureId The ID of the texture to be assigned.
      */
     void setTextureID(int textureId);
+
+    /**
+     * Assigns a region of a texture atlas page to the implementing game object. Objects that can move their
+     * texture coordinates onto the region should override this, everything else keeps its own texture.
+     * @param region where the object's image is on the atlas page
+     * @return true if the object uses the region, false if it needs its texture loaded on its own
+     */
+    default boolean setTextureRegion(TextureRegion region)
+    {
+        return false;
+    }
 }
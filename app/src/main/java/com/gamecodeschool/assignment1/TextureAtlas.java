@@ -0,0 +1,266 @@
+package com.gamecodeschool.assignment1;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Packs many small drawables onto a few large textures (pages) so objects using them share one texture.
+ * Images are packed tallest first onto shelves that fill each page from the top, with a gap between them
+ * so linear filtering doesn't pull in the neighbours. Every packed image is handed out as a TextureRegion.
+ * The regions hold texture handles, so when the openGL context is lost the pages are just drawn again from
+ * the same layout and the handles pointed at the new textures, the regions (and the objects using them) stay the same.
+ * @author Braeden Ruff
+ */
+public class TextureAtlas
+{
+    //how wide and high each page is, every ES 2.0 device supports at least this
+    public static final int PAGE_SIZE = 1024;
+
+    //how many empty pixels go between images
+    private static final int PADDING = 2;
+
+    /**
+     * Where each image goes on one page
+     */
+    private static class Page
+    {
+        //the texture handle of the page
+        int handle;
+        //the resource ids of the images on the page
+        final ArrayList<Integer> resourceIds = new ArrayList<>();
+        //the pixel rectangle {x, y, width, height} of each image on the page
+        final ArrayList<int[]> rects = new ArrayList<>();
+    }
+
+    //the region of every packed resource id
+    private final HashMap<Integer, TextureRegion> regions = new HashMap<>();
+
+    //the layout of the pages
+    private final ArrayList<Page> pages = new ArrayList<>();
+
+    //every packed resource id, in the order they were decoded
+    private int[] packedIds;
+
+    /**
+     * This method decodes the given drawables and packs them into pages. Needs to run on the openGL thread
+     * @param context the context of the program, used to decode the drawables
+     * @param resourceIds the drawables to pack, anything that doesn't fit a page is skipped and loaded on its own
+     * @param loader decodes the drawables in parallel
+     * @param handles the table the page handles are made in
+     * @return the new atlas
+     */
+    public static TextureAtlas build(Context context, int[] resourceIds, AsyncTextureLoader loader, TextureHandleTable handles)
+    {
+        TextureAtlas atlas = new TextureAtlas();
+
+        Bitmap[] decoded = loader.decodeAll(context, resourceIds);
+        ArrayList<Bitmap> bitmaps = new ArrayList<>();
+        ArrayList<Integer> ids = new ArrayList<>();
+        for(int i = 0; i < resourceIds.length; ++i)
+        {
+            Bitmap bitmap = decoded[i];
+            if(bitmap == null)
+            {
+                Log.e("TextureAtlas", "Resource ID " + resourceIds[i] + " could not be decoded.");
+                continue;
+            }
+            if(bitmap.getWidth() + PADDING > PAGE_SIZE || bitmap.getHeight() + PADDING > PAGE_SIZE)
+            {
+                bitmap.recycle();
+                continue;
+            }
+            bitmaps.add(bitmap);
+            ids.add(resourceIds[i]);
+        }
+
+        //tallest first keeps the shelves tight; sort keys are height then index
+        long[] order = new long[bitmaps.size()];
+        for(int i = 0; i < order.length; ++i)
+        {
+            order[i] = ((long) -bitmaps.get(i).getHeight() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        Page page = null;
+        int shelfX = PADDING;
+        int shelfY = PADDING;
+        int shelfHeight = 0;
+        for(long key : order)
+        {
+            int index = (int) key;
+            Bitmap bitmap = bitmaps.get(index);
+            int w = bitmap.getWidth();
+            int h = bitmap.getHeight();
+
+            //move to a new shelf, or a new page if this one is full
+            if(shelfX + w + PADDING > PAGE_SIZE)
+            {
+                shelfX = PADDING;
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            if(page != null && shelfY + h + PADDING > PAGE_SIZE)
+            {
+                page = null;
+            }
+            if(page == null)
+            {
+                page = new Page();
+                page.handle = handles.create(0);
+                atlas.pages.add(page);
+                shelfX = PADDING;
+                shelfY = PADDING;
+                shelfHeight = 0;
+            }
+
+            page.resourceIds.add(ids.get(index));
+            page.rects.add(new int[] {shelfX, shelfY, w, h});
+            atlas.addRegion(page, ids.get(index), shelfX, shelfY, w, h);
+
+            shelfX += w + PADDING;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+
+        atlas.packedIds = new int[ids.size()];
+        HashMap<Integer, Bitmap> byId = new HashMap<>();
+        for(int i = 0; i < ids.size(); ++i)
+        {
+            atlas.packedIds[i] = ids.get(i);
+            byId.put(ids.get(i), bitmaps.get(i));
+        }
+        atlas.uploadPages(byId, handles);
+        return atlas;
+    }
+
+    /**
+     * This method makes the pages again after the openGL context was lost. The drawables are decoded again in parallel,
+     * drawn where they were before and the page handles pointed at the new textures. Needs to run on the openGL thread
+     * @param context the context of the program, used to decode the drawables
+     * @param loader decodes the drawables in parallel
+     * @param handles the table the page handles are in
+     */
+    public void restore(Context context, AsyncTextureLoader loader, TextureHandleTable handles)
+    {
+        Bitmap[] decoded = loader.decodeAll(context, packedIds);
+        HashMap<Integer, Bitmap> byId = new HashMap<>();
+        for(int i = 0; i < packedIds.length; ++i)
+        {
+            if(decoded[i] != null)
+            {
+                byId.put(packedIds[i], decoded[i]);
+            }
+        }
+        uploadPages(byId, handles);
+    }
+
+    /**
+     * This method makes the region of an image on a page
+     * @param page the page the image is on
+     * @param resourceId the drawable
+     * @param x the left of the image on the page in pixels
+     * @param y the top of the image on the page in pixels
+     * @param w the width of the image in pixels
+     * @param h the height of the image in pixels
+     */
+    private void addRegion(Page page, int resourceId, int x, int y, int w, int h)
+    {
+        //stay half a pixel inside the image so filtering never reaches the padding
+        float u0 = (x + 0.5f) / PAGE_SIZE;
+        float v0 = (y + 0.5f) / PAGE_SIZE;
+        float u1 = (x + w - 0.5f) / PAGE_SIZE;
+        float v1 = (y + h - 0.5f) / PAGE_SIZE;
+        regions.put(resourceId, new TextureRegion(page.handle, u0, v0, u1, v1));
+    }
+
+    /**
+     * This method draws every page and uploads it to openGL, pointing the page handles at the new textures
+     * @param bitmaps the decoded image of every packed drawable, recycled afterwards
+     * @param handles the table the page handles are in
+     */
+    private void uploadPages(HashMap<Integer, Bitmap> bitmaps, TextureHandleTable handles)
+    {
+        Bitmap pageBitmap = Bitmap.createBitmap(PAGE_SIZE, PAGE_SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(pageBitmap);
+        for(Page page : pages)
+        {
+            pageBitmap.eraseColor(0);
+            for(int i = 0; i < page.resourceIds.size(); ++i)
+            {
+                Bitmap bitmap = bitmaps.get(page.resourceIds.get(i));
+                if(bitmap != null)
+                {
+                    int[] rect = page.rects.get(i);
+                    canvas.drawBitmap(bitmap, rect[0], rect[1], null);
+                }
+            }
+            handles.set(page.handle, uploadPage(pageBitmap));
+        }
+        pageBitmap.recycle();
+        for(Bitmap bitmap : bitmaps.values())
+        {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * This method uploads a finished page to openGL
+     * @param page the page bitmap
+     * @return the openGL texture of the page, or 0 if it couldn't be made
+     */
+    private static int uploadPage(Bitmap page)
+    {
+        final int[] textureObjectIds = new int[1];
+        GLES20.glGenTextures(1, textureObjectIds, 0);
+        if(textureObjectIds[0] == 0)
+        {
+            Log.e("TextureAtlas", "Could not generate a new OpenGL texture object.");
+            return 0;
+        }
+
+        GLManager.bindTextureObject(textureObjectIds[0]);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        //no mipmaps, the small levels would blend neighbouring images together
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, page, 0);
+        GLManager.bindTextureObject(0);
+        return textureObjectIds[0];
+    }
+
+    /**
+     * This method gets where a drawable is in the atlas
+     * @param resourceId the drawable
+     * @return the region of the drawable, or null if it isn't in the atlas
+     */
+    public TextureRegion getRegion(int resourceId)
+    {
+        return regions.get(resourceId);
+    }
+
+    /**
+     * This method gets how many bytes the atlas pages use on the GPU
+     * @return the size of every page in bytes
+     */
+    public long getByteCount()
+    {
+        return (long) pages.size() * PAGE_SIZE * PAGE_SIZE * 4;
+    }
+
+    /**
+     * This method gets how many pages the atlas needed
+     * @return how many openGL textures the atlas uses
+     */
+    public int getPageCount()
+    {
+        return pages.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.Arrays;
+
+/**
+ * Game objects hold a texture handle instead of an openGL texture id, and the handle is looked up here when it is bound.
+ * The openGL ids change every time the context is lost, but the handles don't, so restoring the textures only has to
+ * point each handle at its new id. None of the objects using it have to be touched. Handle 0 is no texture.
+ * Only used on the GL thread.
+ * @author Braeden Ruff
+ */
+public class TextureHandleTable
+{
+    //the openGL texture of each handle, 0 if it has none right now
+    private int[] textureIds = new int[64];
+
+    //the next handle to hand out, 0 is never handed out
+    private int nextHandle = 1;
+
+    /**
+     * This method makes a new handle
+     * @param textureId the openGL texture it starts pointing at
+     * @return the handle
+     */
+    public int create(int textureId)
+    {
+        if(nextHandle == textureIds.length)
+        {
+            textureIds = Arrays.copyOf(textureIds, textureIds.length * 2);
+        }
+        textureIds[nextHandle] = textureId;
+        return nextHandle++;
+    }
+
+    /**
+     * This method points a handle at a different openGL texture
+     * @param handle the handle
+     * @param textureId the openGL texture, or 0 for none
+     */
+    public void set(int handle, int textureId)
+    {
+        textureIds[handle] = textureId;
+    }
+
+    /**
+     * This method looks up the openGL texture of a handle
+     * @param handle the handle
+     * @return the openGL texture, or 0 if the handle has none (or isn't a handle)
+     */
+    public int get(int handle)
+    {
+        if(handle <= 0 || handle >= nextHandle)
+        {
+            return 0;
+        }
+        return textureIds[handle];
+    }
+}
@@ -0,0 +1,81 @@
+package com.gamecodeschool.assignment1;
+
+import static com.gamecodeschool.assignment1.GLManager.POSITION_ATTRIBUTE_SIZE;
+import static com.gamecodeschool.assignment1.GLManager.TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+
+/**
+ * This class is one image inside a TextureAtlas page. It knows the texture handle of the page and
+ * where the image sits on it, so texture coordinates of 0 to 1 can be moved onto the image's rectangle.
+ * @author Braeden Ruff
+ */
+public class TextureRegion
+{
+    //the texture handle of the atlas page this image is on
+    private final int textureId;
+
+    //the rectangle of the image on the page, in texture coordinates
+    private final float u0;
+    private final float v0;
+    private final float u1;
+    private final float v1;
+
+    /**
+     * This is the constructor for a texture region
+     * @param textureId the texture handle of the atlas page
+     * @param u0 the left edge of the image on the page
+     * @param v0 the top edge of the image on the page
+     * @param u1 the right edge of the image on the page
+     * @param v1 the bottom edge of the image on the page
+     */
+    public TextureRegion(int textureId, float u0, float v0, float u1, float v1)
+    {
+        this.textureId = textureId;
+        this.u0 = u0;
+        this.v0 = v0;
+        this.u1 = u1;
+        this.v1 = v1;
+    }
+
+    /**
+     * This method gets the texture handle of the atlas page
+     * @return the texture handle of the page
+     */
+    public int getTextureId()
+    {
+        return textureId;
+    }
+
+    /**
+     * This method moves an s coordinate of the whole image onto the page
+     * @param s the s coordinate between 0 and 1
+     * @return the s coordinate on the atlas page
+     */
+    public float mapS(float s)
+    {
+        return u0 + s * (u1 - u0);
+    }
+
+    /**
+     * This method moves a t coordinate of the whole image onto the page
+     * @param t the t coordinate between 0 and 1
+     * @return the t coordinate on the atlas page
+     */
+    public float mapT(float t)
+    {
+        return v0 + t * (v1 - v0);
+    }
+
+    /**
+     * This method moves the texture coordinates of a vertex array onto the page, in place
+     * @param vertices the vertices in the order of [x, y, z, s, t, ....]
+     */
+    public void mapTextureCoords(float[] vertices)
+    {
+        int floatsPerVertex = POSITION_ATTRIBUTE_SIZE + TEXTURE_COORDINATES_ATTRIBUTE_SIZE;
+        for(int i = POSITION_ATTRIBUTE_SIZE; i < vertices.length; i += floatsPerVertex)
+        {
+            vertices[i] = mapS(vertices[i]);
+            vertices[i + 1] = mapT(vertices[i + 1]);
+        }
+    }
+}
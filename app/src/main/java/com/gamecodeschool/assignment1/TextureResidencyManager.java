@@ -0,0 +1,326 @@
+package com.gamecodeschool.assignment1;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps track of every texture that isn't in the atlas: which drawable it came from, how many bytes it uses on the GPU,
+ * and how many objects of the current level use it. Loading a level opens a scope with beginLevel(), every object that
+ * asks for a texture while it is open adds a reference, and endLevel() closes it. Textures the new level never asked
+ * for are kept around in case they are needed again, but once the GPU memory goes over the budget the least recently
+ * used of them are deleted. Textures the current level uses are never deleted, and neither are textures asked for outside
+ * a level (the controls and the pause menu), since those objects outlive every level.
+ * Objects are given texture handles, not openGL ids, so after the context is lost restore() loads each texture once
+ * and points its handle at the new id without touching any object.
+ * @author Braeden Ruff
+ */
+public class TextureResidencyManager implements AsyncTextureLoader.UploadListener
+{
+    //how much GPU memory textures may use before unused ones are deleted
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * One texture loaded from a drawable
+     */
+    private static class Entry
+    {
+        //the drawable, the handle objects hold, and the openGL texture the handle points at
+        final int resourceId;
+        final int handle;
+        int textureId;
+        //how many bytes it uses on the GPU, 0 until it is uploaded
+        long bytes;
+        //how many objects of the current level use it
+        int refCount;
+        //asked for outside a level, so it is used by objects that live through every level
+        boolean persistent;
+
+        /**
+         * This is the constructor for a texture that was just requested
+         * @param resourceId the drawable
+         * @param handle the texture handle
+         * @param textureId the openGL texture
+         */
+        Entry(int resourceId, int handle, int textureId)
+        {
+            this.resourceId = resourceId;
+            this.handle = handle;
+            this.textureId = textureId;
+        }
+    }
+
+    //the textures by drawable, in least to most recently used order
+    private final LinkedHashMap<Integer, Entry> byResource = new LinkedHashMap<>(64, 0.75f, true);
+
+    //the same textures by openGL id, so uploads can find their entry
+    private final HashMap<Integer, Entry> byTexture = new HashMap<>();
+
+    //the handle of every drawable ever loaded, kept after eviction so loading it again reuses the handle
+    private final HashMap<Integer, Integer> handleByResource = new HashMap<>();
+
+    //loads the textures
+    private final AsyncTextureLoader loader;
+
+    //where the handles point
+    private final TextureHandleTable handles;
+
+    //how many bytes may be used, how many are used, and how many of those are pinned (the atlas)
+    private long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private long residentBytes;
+    private long pinnedBytes;
+
+    //whether a level is loading, textures asked for now are counted as used by it
+    private boolean levelOpen;
+
+    //how many textures have been deleted to stay in the budget
+    private int evictions;
+
+    /**
+     * This is the constructor for the manager
+     * @param loader the loader textures are loaded with, its uploads are reported back here
+     * @param handles the table the texture handles are made in
+     */
+    public TextureResidencyManager(AsyncTextureLoader loader, TextureHandleTable handles)
+    {
+        this.loader = loader;
+        this.handles = handles;
+        loader.setUploadListener(this);
+    }
+
+    /**
+     * This method gets the texture of a drawable, loading it if it isn't resident, and adds a reference from the current level.
+     * Outside of a level the texture is kept until the openGL context is lost
+     * @param context the context of the program
+     * @param resourceId the drawable
+     * @return the texture handle, or 0 if the texture couldn't be made
+     */
+    public int acquire(Context context, int resourceId)
+    {
+        Entry entry = byResource.get(resourceId);
+        if(entry == null)
+        {
+            int textureId = loader.load(context, resourceId);
+            if(textureId == 0)
+            {
+                return 0;
+            }
+            Integer handle = handleByResource.get(resourceId);
+            if(handle == null)
+            {
+                handle = handles.create(textureId);
+                handleByResource.put(resourceId, handle);
+            }
+            else
+            {
+                handles.set(handle, textureId);
+            }
+            entry = new Entry(resourceId, handle, textureId);
+            byResource.put(resourceId, entry);
+            byTexture.put(textureId, entry);
+        }
+        if(levelOpen)
+        {
+            ++entry.refCount;
+        }
+        else
+        {
+            entry.persistent = true;
+        }
+        return entry.handle;
+    }
+
+    /**
+     * This method counts a texture that is always resident (like an atlas page) towards the budget
+     * @param bytes how many bytes it uses on the GPU
+     */
+    public void pin(long bytes)
+    {
+        pinnedBytes += bytes;
+    }
+
+    /**
+     * This method starts loading a level. The references from the last level are dropped, the objects of the new level add their own
+     */
+    public void beginLevel()
+    {
+        levelOpen = true;
+        for(Entry entry : byResource.values())
+        {
+            entry.refCount = 0;
+        }
+    }
+
+    /**
+     * This method goes back to the level that was loaded last, textures asked for now count as used by it too (like a part of the level streaming in)
+     */
+    public void resumeLevel()
+    {
+        levelOpen = true;
+    }
+
+    /**
+     * This method stops counting textures as used by the level, without looking at the budget
+     */
+    public void pauseLevel()
+    {
+        levelOpen = false;
+    }
+
+    /**
+     * This method finishes loading a level, deleting unused textures if we are over the budget
+     */
+    public void endLevel()
+    {
+        levelOpen = false;
+        evictToBudget();
+    }
+
+    /**
+     * This method is told when a texture has been uploaded, so its size is known
+     * @param textureId the openGL texture
+     * @param bytes how many bytes it uses on the GPU
+     */
+    @Override
+    public void onTextureUploaded(int textureId, long bytes)
+    {
+        Entry entry = byTexture.get(textureId);
+        if(entry == null)
+        {
+            return;
+        }
+        residentBytes += bytes - entry.bytes;
+        entry.bytes = bytes;
+        evictToBudget();
+    }
+
+    /**
+     * This method deletes the least recently used textures that no object of the current level uses, until we are under the budget
+     */
+    private void evictToBudget()
+    {
+        Iterator<Entry> iterator = byResource.values().iterator();
+        while(residentBytes + pinnedBytes > budgetBytes && iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            //still in use, or still waiting for its upload (which would bring a deleted id back)
+            if(entry.refCount > 0 || entry.persistent || entry.bytes == 0)
+            {
+                continue;
+            }
+            iterator.remove();
+            byTexture.remove(entry.textureId);
+            handles.set(entry.handle, 0);
+            GLManager.deleteTexture(entry.textureId);
+            residentBytes -= entry.bytes;
+            ++evictions;
+        }
+        if(residentBytes + pinnedBytes > budgetBytes)
+        {
+            Log.w("TextureResidency", "the current level needs " + (residentBytes + pinnedBytes) + " bytes of textures, over the budget of " + budgetBytes);
+        }
+    }
+
+    /**
+     * This method loads every resident texture again after the openGL context was lost, since the old ids are meaningless now.
+     * Each texture is loaded once however many objects use it, decoded in the background, and its handle pointed at the new id
+     * @param context the context of the program
+     */
+    public void restore(Context context)
+    {
+        byTexture.clear();
+        levelOpen = false;
+        residentBytes = 0;
+        Iterator<Entry> iterator = byResource.values().iterator();
+        while(iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            entry.textureId = loader.load(context, entry.resourceId);
+            entry.bytes = 0;
+            handles.set(entry.handle, entry.textureId);
+            if(entry.textureId == 0)
+            {
+                iterator.remove();
+                continue;
+            }
+            byTexture.put(entry.textureId, entry);
+        }
+    }
+
+    /**
+     * This method changes the budget, deleting unused textures right away if we are over it
+     * @param bytes how many bytes of GPU memory textures may use
+     */
+    public void setBudgetBytes(long bytes)
+    {
+        budgetBytes = bytes;
+        evictToBudget();
+    }
+
+    /**
+     * This method gets the budget
+     * @return how many bytes of GPU memory textures may use
+     */
+    public long getBudgetBytes()
+    {
+        return budgetBytes;
+    }
+
+    /**
+     * This method gets how much GPU memory the textures use, pinned ones included
+     * @return how many bytes are resident
+     */
+    public long getResidentBytes()
+    {
+        return residentBytes + pinnedBytes;
+    }
+
+    /**
+     * This method gets how many textures are resident, not counting pinned ones
+     * @return how many textures are resident
+     */
+    public int getTextureCount()
+    {
+        return byResource.size();
+    }
+
+    /**
+     * This method gets how many resident textures the current level uses
+     * @return how many textures have references
+     */
+    public int getReferencedCount()
+    {
+        int count = 0;
+        for(Entry entry : byResource.values())
+        {
+            if(entry.refCount > 0 || entry.persistent)
+            {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method gets how many textures have been deleted to stay in the budget
+     * @return how many textures were evicted
+     */
+    public int getEvictionCount()
+    {
+        return evictions;
+    }
+
+    /**
+     * This method describes the totals, for logging
+     * @return the totals as a line of text
+     */
+    @Override
+    public String toString()
+    {
+        return getTextureCount() + " textures (" + getReferencedCount() + " in use), " + getResidentBytes() / 1024 + " KB of "
+                + budgetBytes / 1024 + " KB, " + evictions + " evicted";
+    }
+}
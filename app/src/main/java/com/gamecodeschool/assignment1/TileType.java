@@ -0,0 +1,259 @@
+package com.gamecodeschool.assignment1;
+
+import android.content.Context;
+
+/**
+ * The properties every tile of one kind shares: whether it is solid, kills the player or can be slashed, and its texture.
+ * The level is kept as one byte per tile holding the id of its type, so a tile costs a byte instead of a whole Ground object.
+ * There is one instance per type, looked up by id. Breakable walls get their own types, one for each block they can sit under.
+ * @author Braeden Ruff
+ */
+public class TileType implements Texturable
+{
+    //the id of an empty tile
+    public static final byte EMPTY = 0;
+
+    //every type, indexed by id (null for EMPTY)
+    private static final TileType[] TYPES = {
+            null,
+            new TileType(Ground.GroundType.GRASS, false, false, R.drawable.grass_block),
+            new TileType(Ground.GroundType.DIRT, false, false, R.drawable.dirt),
+            new TileType(Ground.GroundType.SANDSTONE, false, false, R.drawable.sandstone),
+            new TileType(Ground.GroundType.MAGMASTONE, false, false, R.drawable.magmastone),
+            new TileType(Ground.GroundType.DEATH, true, false, R.drawable.death),
+            new TileType(Ground.GroundType.DIRT, false, true, R.drawable.dirt_breakable),
+            new TileType(Ground.GroundType.SANDSTONE, false, true, R.drawable.sandstone_breakable),
+            new TileType(Ground.GroundType.MAGMASTONE, false, true, R.drawable.magmastone_breakable)
+    };
+
+    //the ids of the types above
+    private static final byte GRASS = 1;
+    private static final byte DIRT = 2;
+    private static final byte SANDSTONE = 3;
+    private static final byte MAGMASTONE = 4;
+    private static final byte DEATH = 5;
+    private static final byte DIRT_BREAKABLE = 6;
+    private static final byte SANDSTONE_BREAKABLE = 7;
+    private static final byte MAGMASTONE_BREAKABLE = 8;
+
+    //which ground the tile is made of (a breakable wall is made of the block above it)
+    private final Ground.GroundType groundType;
+
+    //whether touching the tile kills the player
+    private final boolean deadly;
+
+    //whether the player can slash the tile away
+    private final boolean breakable;
+
+    //the drawable of the tile
+    private final int textureResourceId;
+
+    //the texture handle of the tile, and where on the atlas page it is (null if it has its own texture)
+    private int textureId;
+    private TextureRegion region;
+
+    /**
+     * This is the constructor for a tile type
+     * @param groundType which ground the tile is made of
+     * @param deadly whether touching it kills the player
+     * @param breakable whether it can be slashed away
+     * @param textureResourceId the drawable of the tile
+     */
+    private TileType(Ground.GroundType groundType, boolean deadly, boolean breakable, int textureResourceId)
+    {
+        this.groundType = groundType;
+        this.deadly = deadly;
+        this.breakable = breakable;
+        this.textureResourceId = textureResourceId;
+    }
+
+    /**
+     * This method gets a tile type by id
+     * @param id the id stored in the tile grid
+     * @return the type, or null for an empty tile
+     */
+    public static TileType get(byte id)
+    {
+        return TYPES[id];
+    }
+
+    /**
+     * This method turns a tile symbol of the level file into a tile type id
+     * @param symbol the symbol of the tile
+     * @param above the id of the tile above it, breakable walls look like the block they sit under
+     * @return the id of the type, EMPTY if the symbol isn't a tile
+     */
+    public static byte fromSymbol(char symbol, byte above)
+    {
+        switch (symbol)
+        {
+            case '1':
+                return GRASS;
+            case '2':
+                return DIRT;
+            case '3':
+                return SANDSTONE;
+            case '4':
+                return MAGMASTONE;
+            case 'd':
+                return DEATH;
+            case 'w':
+                if(above == EMPTY)
+                {
+                    return DIRT_BREAKABLE;
+                }
+                //under grass we don't want to draw a grass block, and a wall under a wall looks like the same block
+                switch (TYPES[above].groundType)
+                {
+                    case SANDSTONE:
+                        return SANDSTONE_BREAKABLE;
+                    case MAGMASTONE:
+                        return MAGMASTONE_BREAKABLE;
+                    default:
+                        return DIRT_BREAKABLE;
+                }
+            default:
+                return EMPTY;
+        }
+    }
+
+    /**
+     * This method loads the textures of every tile type. Call on the GL thread while a level is loading
+     * @param context the context of the program
+     */
+    public static void loadTextures(Context context)
+    {
+        for(TileType type : TYPES)
+        {
+            if(type != null)
+            {
+                GLManager.loadTexture(context, type);
+            }
+        }
+    }
+
+    /**
+     * This method writes the quad of a tile of this type, in the same layout as GameObject.writeQuad()
+     * @param dest where to write the 4 vertices (x, y, z, s, t)
+     * @param offset where in dest to start
+     * @param x the centre of the tile on the x-axis
+     * @param y the centre of the tile on the y-axis
+     * @param size how wide and high the tile is
+     */
+    public void writeQuad(float[] dest, int offset, float x, float y, float size)
+    {
+        float half = size / 2;
+        float s0 = region != null ? region.mapS(0) : 0;
+        float s1 = region != null ? region.mapS(1) : 1;
+        float t0 = region != null ? region.mapT(0) : 0;
+        float t1 = region != null ? region.mapT(1) : 1;
+        // Bottom left, bottom right, top right, top left
+        writeVertex(dest, offset, x - half, y - half, s0, t1);
+        writeVertex(dest, offset + 5, x + half, y - half, s1, t1);
+        writeVertex(dest, offset + 10, x + half, y + half, s1, t0);
+        writeVertex(dest, offset + 15, x - half, y + half, s0, t0);
+    }
+
+    /**
+     * This method writes one vertex of a quad
+     * @param dest where to write it
+     * @param offset where in dest to start
+     * @param x the x position
+     * @param y the y position
+     * @param s the s texture coordinate
+     * @param t the t texture coordinate
+     */
+    private static void writeVertex(float[] dest, int offset, float x, float y, float s, float t)
+    {
+        dest[offset] = x;
+        dest[offset + 1] = y;
+        dest[offset + 2] = 0;
+        dest[offset + 3] = s;
+        dest[offset + 4] = t;
+    }
+
+    /**
+     * This method gets which ground the tile is made of
+     * @return the ground type
+     */
+    public Ground.GroundType getGroundType()
+    {
+        return groundType;
+    }
+
+    /**
+     * This method checks if touching the tile kills the player
+     * @return true if the tile is deadly
+     */
+    public boolean isDeadly()
+    {
+        return deadly;
+    }
+
+    /**
+     * This method checks if the player can slash the tile away
+     * @return true if the tile is breakable
+     */
+    public boolean isBreakable()
+    {
+        return breakable;
+    }
+
+    /**
+     * This method gets which collision group the tile is in. Deadly and breakable tiles each get their own group, so a
+     * collision box is never part spikes, and breaking a wall never splits a box that isn't made of walls
+     * @return the collision group, never 0 since every tile is solid
+     */
+    public int getCollisionGroup()
+    {
+        if(deadly)
+        {
+            return 2;
+        }
+        return breakable ? 3 : 1;
+    }
+
+    /**
+     * This method gets the texture handle the tile is drawn with
+     * @return the texture handle
+     */
+    public int getTextureID()
+    {
+        return textureId;
+    }
+
+    /**
+     * This method grabs the texture in R.drawable for this tile type
+     * @param context - context of the program, not used this time
+     * @return pointer to where in R.drawable the texture file is
+     */
+    @Override
+    public int getTextureResourceId(Context context)
+    {
+        return textureResourceId;
+    }
+
+    /**
+     * Sets the texture handle, when the tile has its own texture
+     * @param textureId the texture handle
+     */
+    @Override
+    public void setTextureID(int textureId)
+    {
+        this.textureId = textureId;
+        region = null;
+    }
+
+    /**
+     * Uses a part of an atlas page as the texture
+     * @param region where the tile's image is on the atlas page
+     * @return true, tiles can always use the atlas
+     */
+    @Override
+    public boolean setTextureRegion(TextureRegion region)
+    {
+        textureId = region.getTextureId();
+        this.region = region;
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Works out what part of the world the camera can see so we only draw what is on screen.
+ * The camera rectangle is turned into a range of rows and columns of the tile grid, and other objects
+ * are checked against the rectangle with their bounding box. It also counts how much was visible each frame.
+ * @author Braeden Ruff
+ */
+public class ViewportCuller
+{
+    //the camera rectangle in world coordinates
+    private float left;
+    private float right;
+    private float bottom;
+    private float top;
+
+    //the range of tiles (inclusive) that overlap the camera rectangle
+    private int firstColumn;
+    private int lastColumn;
+    private int firstRow;
+    private int lastRow;
+
+    //per frame counters, reset in setViewport()
+    private int visibleCells;
+    private int totalCells;
+    private int visibleObjects;
+    private int totalObjects;
+
+    /**
+     * This method sets the camera rectangle for this frame, works out the tile range and resets the counters
+     * @param left the left edge of the camera in world coordinates
+     * @param right the right edge of the camera in world coordinates
+     * @param bottom the bottom edge of the camera in world coordinates
+     * @param top the top edge of the camera in world coordinates
+     * @param rows how many rows of tiles the map has
+     * @param columns how many columns of tiles the map has
+     */
+    public void setViewport(float left, float right, float bottom, float top, int rows, int columns)
+    {
+        this.left = left;
+        this.right = right;
+        this.bottom = bottom;
+        this.top = top;
+
+        float tileSize = GameManager.getPixelsPerMeter();
+
+        //tile (row, column) is centered on (column * tileSize, -row * tileSize), so pad by half a tile on every side
+        firstColumn = Math.max(0, (int) Math.floor(left / tileSize - 0.5f));
+        lastColumn = Math.min(columns - 1, (int) Math.ceil(right / tileSize + 0.5f));
+        firstRow = Math.max(0, (int) Math.floor(-top / tileSize - 0.5f));
+        lastRow = Math.min(rows - 1, (int) Math.ceil(-bottom / tileSize + 0.5f));
+
+        totalCells = rows * columns;
+        visibleCells = Math.max(0, lastColumn - firstColumn + 1) * Math.max(0, lastRow - firstRow + 1);
+        visibleObjects = 0;
+        totalObjects = 0;
+    }
+
+    /**
+     * This method checks if an object's bounding box overlaps the camera rectangle and counts it
+     * @param object the object we might want to draw
+     * @return true if any part of the object is on screen
+     */
+    public boolean isVisible(GameObject object)
+    {
+        return isVisible(object.getWorldLocation().x, object.getWorldLocation().y, object.getWidth(), object.getHeight());
+    }
+
+    /**
+     * This method checks if a bounding box overlaps the camera rectangle and counts it
+     * @param x the center of the box on the x-axis
+     * @param y the center of the box on the y-axis
+     * @param width how wide the box is
+     * @param height how high the box is
+     * @return true if any part of the box is on screen
+     */
+    public boolean isVisible(float x, float y, float width, float height)
+    {
+        ++totalObjects;
+        float halfW = width / 2;
+        float halfH = height / 2;
+        if(x + halfW < left || x - halfW > right || y + halfH < bottom || y - halfH > top)
+        {
+            return false;
+        }
+        ++visibleObjects;
+        return true;
+    }
+
+    /**
+     * This method gets the first column of tiles that can be on screen
+     * @return the first visible column
+     */
+    public int getFirstColumn()
+    {
+        return firstColumn;
+    }
+
+    /**
+     * This method gets the last column of tiles that can be on screen
+     * @return the last visible column (inclusive)
+     */
+    public int getLastColumn()
+    {
+        return lastColumn;
+    }
+
+    /**
+     * This method gets the first row of tiles that can be on screen
+     * @return the first visible row
+     */
+    public int getFirstRow()
+    {
+        return firstRow;
+    }
+
+    /**
+     * This method gets the last row of tiles that can be on screen
+     * @return the last visible row (inclusive)
+     */
+    public int getLastRow()
+    {
+        return lastRow;
+    }
+
+    /**
+     * This method gets how many grid cells were visited this frame
+     * @return how many grid cells are inside the camera rectangle
+     */
+    public int getVisibleCells()
+    {
+        return visibleCells;
+    }
+
+    /**
+     * This method gets how many grid cells the map has
+     * @return how many grid cells the map has
+     */
+    public int getTotalCells()
+    {
+        return totalCells;
+    }
+
+    /**
+     * This method gets how many objects passed isVisible() this frame
+     * @return how many objects were on screen
+     */
+    public int getVisibleObjects()
+    {
+        return visibleObjects;
+    }
+
+    /**
+     * This method gets how many objects were checked with isVisible() this frame
+     * @return how many objects were checked
+     */
+    public int getTotalObjects()
+    {
+        return totalObjects;
+    }
+}
@@ -0,0 +1,18 @@
+plugins {
+    id("java-library")
+}
+
+// plain Java, no Android or OpenGL, so the simulation can run and be benchmarked on any JVM
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
+tasks.test {
+    // ART has no escape analysis, so turn it off here too or the allocation tests could miss allocations the phone makes
+    jvmArgs("-XX:-DoEscapeAnalysis")
+}
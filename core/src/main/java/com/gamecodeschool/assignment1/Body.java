@@ -0,0 +1,64 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Something that moves through the level and collides with tiles, without knowing how it is drawn.
+ * Positions are the centre of the body in world space, where y goes down as it gets more negative (the same as OpenGL).
+ * @author Braeden Ruff
+ */
+public interface Body
+{
+    /**
+     * This method gets the centre of the body on the x-axis
+     * @return the x-coordinate in world space
+     */
+    float getX();
+
+    /**
+     * This method gets the centre of the body on the y-axis
+     * @return the y-coordinate in world space
+     */
+    float getY();
+
+    /**
+     * This method moves the centre of the body
+     * @param x the x-coordinate in world space
+     * @param y the y-coordinate in world space
+     */
+    void setPosition(float x, float y);
+
+    /**
+     * This method gets how wide the body is
+     * @return the width in world units
+     */
+    float getWidth();
+
+    /**
+     * This method gets how tall the body is
+     * @return the height in world units
+     */
+    float getHeight();
+
+    /**
+     * This method gets the velocity on the x-axis
+     * @return the x velocity
+     */
+    float getxVelocity();
+
+    /**
+     * This method sets the velocity on the x-axis
+     * @param xVelocity the new x velocity
+     */
+    void setxVelocity(float xVelocity);
+
+    /**
+     * This method gets the velocity on the y-axis
+     * @return the y velocity
+     */
+    float getyVelocity();
+
+    /**
+     * This method sets the velocity on the y-axis
+     * @param yVelocity the new y velocity
+     */
+    void setyVelocity(float yVelocity);
+}
@@ -0,0 +1,329 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.Arrays;
+
+/**
+ * The solid tiles of a level merged into as few boxes as possible, compiled when the level loads.
+ * Tiles of the same collision group that touch are merged into rectangles, and each side of a box is marked exposed
+ * only if something along it isn't solid. Sides that are up against other tiles all along can't be hit at all, and
+ * TileCollider only lets a body be pushed through the open part of the others, so a body sliding along a floor or
+ * wall made of several boxes can't catch on the seams between them.
+ * The level is compiled in square regions and boxes never cross a region, so when a tile changes (a wall is broken)
+ * only its region and the ones beside it are compiled again.
+ * Only used on the simulation thread.
+ * @author Braeden Ruff
+ */
+public class CollisionGeometry
+{
+    //how many tiles wide and high a region is
+    public static final int REGION_SIZE = 32;
+
+    //the sides of a box, as bits of Box.exposed
+    public static final int TOP = 1;
+    public static final int BOTTOM = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int RIGHT = 1 << 3;
+
+    /**
+     * A rectangle of tiles of the same group, from (firstRow, firstColumn) to (lastRow, lastColumn) inclusive
+     */
+    static final class Box
+    {
+        //the tiles the box covers
+        int firstRow;
+        int firstColumn;
+        int lastRow;
+        int lastColumn;
+
+        //which sides have something open along them (TOP, BOTTOM, LEFT, RIGHT), a side can only be hit where it is open
+        int exposed;
+
+        //the last query that found this box, so a query only returns it once
+        int queryStamp;
+    }
+
+    //the level being compiled
+    private final TileGrid grid;
+    private final int rows;
+    private final int columns;
+
+    //which tiles of the level are solid, kept up to date by whoever owns the level
+    private final OccupancyGrid occupancy;
+
+    //how many regions the level has
+    private final int regionRows;
+    private final int regionColumns;
+
+    //the boxes of each region
+    private final Box[][] regionBoxes;
+    private final int[] regionBoxCount;
+
+    //which box of its region every tile is in, row by row, -1 if the tile isn't solid
+    private final short[] boxAt;
+
+    //the boxes the last query found
+    private Box[] found = new Box[16];
+    private int stamp;
+
+    /**
+     * This is the constructor for the collision geometry, it compiles the whole level
+     * @param grid the tiles of the level
+     * @param occupancy which tiles of the level are solid
+     */
+    public CollisionGeometry(TileGrid grid, OccupancyGrid occupancy)
+    {
+        this.grid = grid;
+        this.occupancy = occupancy;
+        rows = grid.getRows();
+        columns = grid.getColumns();
+        regionRows = (rows + REGION_SIZE - 1) / REGION_SIZE;
+        regionColumns = (columns + REGION_SIZE - 1) / REGION_SIZE;
+        regionBoxes = new Box[regionRows * regionColumns][];
+        regionBoxCount = new int[regionBoxes.length];
+        boxAt = new short[rows * columns];
+        for(int i = 0; i < regionBoxes.length; ++i)
+        {
+            regionBoxes[i] = new Box[8];
+            compileRegion(i);
+        }
+    }
+
+    /**
+     * This method compiles a tile that changed again, along with the regions whose box sides it touches
+     * @param row the row of the tile
+     * @param column the column of the tile
+     */
+    public void tileChanged(int row, int column)
+    {
+        int regionRow = row / REGION_SIZE;
+        int regionColumn = column / REGION_SIZE;
+        compileRegion(regionRow * regionColumns + regionColumn);
+        //a box in the next region over may have a side against this tile
+        if(row % REGION_SIZE == 0 && regionRow > 0)
+        {
+            compileRegion((regionRow - 1) * regionColumns + regionColumn);
+        }
+        if(row % REGION_SIZE == REGION_SIZE - 1 && regionRow < regionRows - 1)
+        {
+            compileRegion((regionRow + 1) * regionColumns + regionColumn);
+        }
+        if(column % REGION_SIZE == 0 && regionColumn > 0)
+        {
+            compileRegion(regionRow * regionColumns + regionColumn - 1);
+        }
+        if(column % REGION_SIZE == REGION_SIZE - 1 && regionColumn < regionColumns - 1)
+        {
+            compileRegion(regionRow * regionColumns + regionColumn + 1);
+        }
+    }
+
+    /**
+     * This method merges the solid tiles of a region into boxes. It grows each box right as far as the group goes,
+     * then down as long as the whole width below matches
+     * @param region the region to compile
+     */
+    private void compileRegion(int region)
+    {
+        int firstRow = (region / regionColumns) * REGION_SIZE;
+        int firstColumn = (region % regionColumns) * REGION_SIZE;
+        int endRow = Math.min(firstRow + REGION_SIZE, rows);
+        int endColumn = Math.min(firstColumn + REGION_SIZE, columns);
+        for(int i = firstRow; i < endRow; ++i)
+        {
+            Arrays.fill(boxAt, i * columns + firstColumn, i * columns + endColumn, (short) -1);
+        }
+
+        int count = 0;
+        Box[] boxes = regionBoxes[region];
+        for(int i = firstRow; i < endRow; ++i)
+        {
+            for(int j = firstColumn; j < endColumn; ++j)
+            {
+                int group = grid.getCollisionGroup(i, j);
+                if(group == 0 || boxAt[i * columns + j] != -1)
+                {
+                    continue;
+                }
+                int lastColumn = j;
+                while(lastColumn + 1 < endColumn && canMerge(i, lastColumn + 1, group))
+                {
+                    ++lastColumn;
+                }
+                int lastRow = i;
+                while(lastRow + 1 < endRow && canMergeRow(lastRow + 1, j, lastColumn, group))
+                {
+                    ++lastRow;
+                }
+
+                if(count == boxes.length)
+                {
+                    boxes = Arrays.copyOf(boxes, count * 2);
+                    regionBoxes[region] = boxes;
+                }
+                Box box = boxes[count];
+                if(box == null)
+                {
+                    box = new Box();
+                    boxes[count] = box;
+                }
+                box.firstRow = i;
+                box.firstColumn = j;
+                box.lastRow = lastRow;
+                box.lastColumn = lastColumn;
+                for(int r = i; r <= lastRow; ++r)
+                {
+                    Arrays.fill(boxAt, r * columns + j, r * columns + lastColumn + 1, (short) count);
+                }
+                ++count;
+            }
+        }
+        regionBoxCount[region] = count;
+
+        //only now that every tile is placed can we tell which sides are against other tiles
+        for(int b = 0; b < count; ++b)
+        {
+            Box box = boxes[b];
+            box.exposed = 0;
+            if(!isFull(box.firstRow - 1, box.firstRow - 1, box.firstColumn, box.lastColumn))
+            {
+                box.exposed |= TOP;
+            }
+            if(!isFull(box.lastRow + 1, box.lastRow + 1, box.firstColumn, box.lastColumn))
+            {
+                box.exposed |= BOTTOM;
+            }
+            if(!isFull(box.firstRow, box.lastRow, box.firstColumn - 1, box.firstColumn - 1))
+            {
+                box.exposed |= LEFT;
+            }
+            if(!isFull(box.firstRow, box.lastRow, box.lastColumn + 1, box.lastColumn + 1))
+            {
+                box.exposed |= RIGHT;
+            }
+        }
+    }
+
+    /**
+     * This method checks if a tile can be added to the box being grown
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @param group the collision group of the box
+     * @return true if the tile is the same group and not in a box yet
+     */
+    private boolean canMerge(int row, int column, int group)
+    {
+        return boxAt[row * columns + column] == -1 && grid.getCollisionGroup(row, column) == group;
+    }
+
+    /**
+     * This method checks if a whole row of tiles can be added to the bottom of the box being grown
+     * @param row the row below the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @param group the collision group of the box
+     * @return true if every tile of the row can be merged
+     */
+    private boolean canMergeRow(int row, int firstColumn, int lastColumn, int group)
+    {
+        for(int j = firstColumn; j <= lastColumn; ++j)
+        {
+            if(!canMerge(row, j, group))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method checks if every tile along the side of a box is solid, anything outside the level isn't
+     * @param firstRow the first row of the side
+     * @param lastRow the last row of the side
+     * @param firstColumn the first column of the side
+     * @param lastColumn the last column of the side
+     * @return true if the side is solid all the way along
+     */
+    private boolean isFull(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        return occupancy.allSolid(firstRow, lastRow, firstColumn, lastColumn);
+    }
+
+    /**
+     * This method finds the boxes covering any tile in a range, each box is found once however many tiles it covers
+     * @param firstRow the first row of the range
+     * @param lastRow the last row of the range
+     * @param firstColumn the first column of the range
+     * @param lastColumn the last column of the range
+     * @return how many boxes were found, get them with getFound()
+     */
+    int query(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        ++stamp;
+        int count = 0;
+        for(int i = firstRow; i <= lastRow; ++i)
+        {
+            for(int j = firstColumn; j <= lastColumn; ++j)
+            {
+                int index = boxAt[i * columns + j];
+                if(index == -1)
+                {
+                    continue;
+                }
+                Box box = regionBoxes[(i / REGION_SIZE) * regionColumns + j / REGION_SIZE][index];
+                if(box.queryStamp == stamp)
+                {
+                    continue;
+                }
+                box.queryStamp = stamp;
+                if(count == found.length)
+                {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = box;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method gets a box the last query found
+     * @param index which box
+     * @return the box
+     */
+    Box getFound(int index)
+    {
+        return found[index];
+    }
+
+    /**
+     * This method gets which tiles are solid
+     * @return the occupancy grid
+     */
+    public OccupancyGrid getOccupancy()
+    {
+        return occupancy;
+    }
+
+    /**
+     * This method gets the tiles this was compiled from
+     * @return the tile grid
+     */
+    public TileGrid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * This method gets how many boxes the level was merged into
+     * @return the number of boxes
+     */
+    public int getBoxCount()
+    {
+        int count = 0;
+        for(int c : regionBoxCount)
+        {
+            count += c;
+        }
+        return count;
+    }
+}
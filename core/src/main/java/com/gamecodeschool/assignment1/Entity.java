@@ -0,0 +1,360 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * The part of a game object the simulation needs: where it is, how big it is and how it moves.
+ * Nothing here knows how the object is drawn, so levels can be stepped on a plain JVM (tests, benchmarks)
+ * and GameObject only adds the textures and vertices on top.
+ * @author Braeden Ruff
+ */
+public abstract class Entity implements Body
+{
+    //the furthest this can move in one step, so it never moves far enough to skip through a tile
+    private final float largestMovement;
+
+    //for how fast the object can move
+    private float maxVelocity = 0f;
+
+    //for how fast the object can accelerate
+    private float maxAccel = 5f;
+
+    //objects current velocity in the x-axis
+    private float xVelocity = 0f;
+
+    //objects current velocity in the y-axis
+    private float yVelocity = 0f;
+
+    //how fast gravity accelerates the object
+    protected float gravity = 3;
+
+    //the angle we are facing, 0 is to the right
+    private double facingAngle = -Math.PI/2; //straight up
+
+    // the centre of the object in game world coordinates
+    private final Vector2 worldLocation = new Vector2();
+
+    // where the centre was before the last simulation step, so drawing can smooth between steps
+    private final Vector2 previousWorldLocation = new Vector2();
+    private boolean hasPreviousWorldLocation;
+
+    // the cell a SpatialHash filed this object under, and the last query of it that looked at this object
+    int spatialCellX;
+    int spatialCellY;
+    int spatialQueryStamp;
+
+    // this object's handle in the EntityList holding it, and whether it is waiting to be removed from that list
+    int entityHandle = EntityList.NO_HANDLE;
+    boolean pendingKill;
+
+    //which spawn of the level made this object, -1 if the LevelStreamer didn't make it
+    int spawnIndex = -1;
+
+    // dimensions of the object
+    private float width, height;
+
+    /**
+     * This enum is used to determine how two objects collided
+     */
+    public enum collisionType {NONE, TOP, BOTTOM, LEFT, RIGHT};
+
+    /**
+     * This is the constructor of the entity
+     * @param largestMovement the furthest it can move in one step in world units, half a tile stops it skipping through tiles
+     */
+    protected Entity(float largestMovement)
+    {
+        this.largestMovement = largestMovement;
+    }
+
+    /**
+     * This method is used to determine how two objects collided
+     * @param other the object that this object is colliding with
+     * @return how two objects collided. E.g: other is above this object and collided, it will return TOP
+     */
+    Enum<collisionType> getCollisionDirection(Entity other)
+    {
+        float dx = other.worldLocation.x - worldLocation.x; //+
+        float dy = other.worldLocation.y - worldLocation.y; //+
+
+        float combinedHalfWidths = (this.width + other.width) / 2;
+        float combinedHalfHeights = (this.height + other.height) / 2;
+
+        if (Math.abs(dx) < combinedHalfWidths && Math.abs(dy) < combinedHalfHeights) //then they collided
+        {
+            float overlapX = combinedHalfWidths - Math.abs(dx); //how deep in the x direction
+            float overlapY = combinedHalfHeights - Math.abs(dy); //how deep in the y direction
+
+            if (overlapX >= overlapY) {
+                return (dy > 0) ? collisionType.TOP : collisionType.BOTTOM;
+            } else {
+                return (dx > 0) ? collisionType.LEFT : collisionType.RIGHT;
+            }
+        }
+        return collisionType.NONE;
+    }
+
+    /**
+     * This method gets the distance between the centres of two objects
+     * @param other the other object
+     * @return the distance in world units
+     */
+    public float getDistanceTo(Entity other)
+    {
+        float dx = worldLocation.x - other.worldLocation.x;
+        float dy = worldLocation.y - other.worldLocation.y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * This method gets the angle from this object's centre to another's
+     * @param other the other object
+     * @return the angle in radians, 0 is to the right and it increases clockwise
+     */
+    public double getAngleTo(Entity other)
+    {
+        return Math.atan2((-other.worldLocation.y + worldLocation.y),(other.worldLocation.x - worldLocation.x));
+    }
+
+    /**
+     * This method slows the object to a stop, using the maximum acceleration
+     * @param fps how much time has passed (influences how much the velocity should be adjusted)
+     */
+    public void comeToStop(long fps)
+    {
+        if(getxVelocity() > 0)
+        {
+            setxVelocity(Math.max(getxVelocity() + (-getMaxVelocity() * getMaxAccel() / fps), -getMaxVelocity()));
+            if(getxVelocity() < 0) //we passed 0
+            {
+                setxVelocity(0);
+            }
+        }
+        else
+        {
+            setxVelocity(Math.min(getxVelocity() + (getMaxVelocity() * getMaxAccel() / fps), getMaxVelocity()));
+            if(getxVelocity() > 0) //we passed 0
+            {
+                setxVelocity(0);
+            }
+        }
+    }
+
+    /**
+     * This method sets the size of the object
+     * @param w is the width
+     * @param h is the height
+     */
+    public void setSize(float w, float h)
+    {
+        width = w;
+        height = h;
+    }
+
+    /**
+     * This method gets the width of the object
+     * @return the width
+     */
+    public float getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * This method gets the height of the object
+     * @return the height
+     */
+    public float getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Sets the object's facing angle. 0 is to the right, and the angle increases clockwise until PI, then switches to -PI and decreases.
+     * @param angle the new facing angle in radians.
+     */
+    public void setFacingAngle(double angle)
+    {
+        facingAngle = angle;
+    }
+
+    /**
+     * Retrieves the object's current facing angle.
+     * @return the facing angle in radians.
+     */
+    public double getFacingAngle()
+    {
+        return facingAngle;
+    }
+
+    /**
+     * Retrieves the object's current velocity along the x-axis.
+     * @return the x-axis velocity.
+     */
+    public float getxVelocity()
+    {
+        return xVelocity;
+    }
+
+    /**
+     * Sets the object's velocity along the x-axis.
+     * @param xVelocity the new x-axis velocity.
+     */
+    public void setxVelocity(float xVelocity)
+    {
+        this.xVelocity = xVelocity;
+    }
+
+    /**
+     * Retrieves the object's current velocity along the y-axis.
+     * @return the y-axis velocity.
+     */
+    public float getyVelocity()
+    {
+        return yVelocity;
+    }
+
+    /**
+     * Sets the object's velocity along the y-axis.
+     * @param yVelocity the new y-axis velocity.
+     */
+    public void setyVelocity(float yVelocity)
+    {
+        this.yVelocity = yVelocity;
+    }
+
+    /**
+     * This method applies gravity to the object
+     * @param fps the current frame rate (frames per second)
+     */
+    public void applyGravity(long fps)
+    {
+        setyVelocity(getyVelocity() - (getMaxVelocity() * gravity / fps));
+    }
+
+    /**
+     * Retrieves the maximum acceleration of the object.
+     * @return the maximum acceleration.
+     */
+    float getMaxAccel()
+    {
+        return maxAccel;
+    }
+
+    /**
+     * Sets the maximum acceleration for the object.
+     * @param maxAccel the new maximum acceleration.
+     */
+    public void setMaxAccel(float maxAccel)
+    {
+        this.maxAccel = maxAccel;
+    }
+
+    /**
+     * Retrieves the maximum velocity of the object.
+     * @return the maximum velocity.
+     */
+    public float getMaxVelocity()
+    {
+        return maxVelocity;
+    }
+
+    /**
+     * Sets the maximum velocity allowed by this object
+     * @param maxSpeed the maximum velocity allowed of this object
+     */
+    public void setMaxVelocity(float maxSpeed) {
+        this.maxVelocity = maxSpeed;
+    }
+
+    /**
+     * Moves the object based on its velocity and the frame rate.
+     * Ensures movement does not exceed the largest allowed per frame to prevent clipping.
+     * @param fps the current frame rate.
+     */
+    void move(float fps)
+    {
+        // Calculate movement while considering the maximum possible movement to avoid clipping
+        float xVel = xVelocity > 0 ? Math.min(xVelocity / fps, largestMovement) : Math.max(xVelocity / fps, -largestMovement);
+        float yVel = yVelocity > 0 ? Math.min(yVelocity / fps, largestMovement) : Math.max(yVelocity / fps, -largestMovement);
+
+        // Update position if there is movement
+        if(xVelocity != 0)
+        {
+            worldLocation.x += xVel;
+        }
+
+        if(yVelocity != 0)
+        {
+            worldLocation.y += yVel;
+        }
+    }
+
+    /**
+     * Retrieves the world location of the object.
+     * @return the world location, don't change it (use setWorldLocation or setPosition)
+     */
+    public Vector2 getWorldLocation()
+    {
+        return worldLocation;
+    }
+
+    /**
+     * Retrieves where the object was before the last simulation step.
+     * @return the previous world location, or the current one if the object hasn't been stepped yet
+     */
+    public Vector2 getPreviousWorldLocation()
+    {
+        return hasPreviousWorldLocation ? previousWorldLocation : worldLocation;
+    }
+
+    /**
+     * Sets the world location of the object.
+     * @param x the x-coordinate in world space.
+     * @param y the y-coordinate in world space, negated to match OpenGL's coordinate system.
+     */
+    public void setWorldLocation(float x, float y)
+    {
+        this.worldLocation.x = x;
+        this.worldLocation.y = -y;
+    }
+
+    /**
+     * Gets the centre of the object on the x-axis.
+     * @return the x-coordinate in world space.
+     */
+    @Override
+    public float getX()
+    {
+        return worldLocation.x;
+    }
+
+    /**
+     * Gets the centre of the object on the y-axis, as stored (already negated for OpenGL).
+     * @return the y-coordinate in world space.
+     */
+    @Override
+    public float getY()
+    {
+        return worldLocation.y;
+    }
+
+    /**
+     * Moves the object, unlike setWorldLocation the y-coordinate is taken as stored (already negated for OpenGL).
+     * @param x the x-coordinate in world space.
+     * @param y the y-coordinate in world space.
+     */
+    @Override
+    public void setPosition(float x, float y)
+    {
+        worldLocation.x = x;
+        worldLocation.y = y;
+    }
+
+    /**
+     * Remembers the current world location as the previous one, call this before every simulation step
+     */
+    public void savePreviousWorldLocation()
+    {
+        previousWorldLocation.set(worldLocation);
+        hasPreviousWorldLocation = true;
+    }
+}
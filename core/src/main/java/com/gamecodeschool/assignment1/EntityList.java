@@ -0,0 +1,253 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.Arrays;
+
+/**
+ * Holds the enemies, coins or breakable walls of a level packed together in an array, so looping over them is fast.
+ * Removing one swaps the last entity into its spot instead of shifting everything after it down.
+ * Killing an entity only marks it; the kills are flushed at the end of each tick, so it is safe to kill while looping.
+ * Each entity also gets a handle when it is added that keeps working after other entities are swapped around,
+ * and stops working once the entity is removed.
+ * @param <T> the type of Entity stored
+ * @author Braeden Ruff
+ */
+public class EntityList<T extends Entity>
+{
+    //how many bits of a handle are the slot in the handle table, the rest count how often that slot was reused
+    private static final int HANDLE_INDEX_BITS = 20;
+    private static final int HANDLE_INDEX_MASK = (1 << HANDLE_INDEX_BITS) - 1;
+    private static final int HANDLE_GENERATION_MASK = (1 << (31 - HANDLE_INDEX_BITS)) - 1;
+
+    //a handle that never points at anything
+    public static final int NO_HANDLE = -1;
+
+    //the entities, packed into the first size spots
+    private Entity[] entities;
+    private int size;
+
+    //for each packed entity, which handle table slot points at it
+    private int[] handleSlotOf;
+
+    //for each handle table slot, where its entity is packed, or the next free slot if it isn't used
+    private int[] packedIndexOf;
+
+    //for each handle table slot, how many times it has been reused, so old handles stop working
+    private int[] handleGeneration;
+
+    //how many handle table slots have ever been used, and the first free one (-1 if none)
+    private int handleSlotsUsed;
+    private int firstFreeHandleSlot = -1;
+
+    //entities waiting to be removed at the end of the tick
+    private Entity[] pendingKills;
+    private int pendingKillCount;
+
+    /**
+     * This is the constructor for an empty entity list
+     */
+    public EntityList()
+    {
+        this(16);
+    }
+
+    /**
+     * This is the constructor for an empty entity list with room for some entities
+     * @param capacity how many entities to make room for up front
+     */
+    public EntityList(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        entities = new Entity[capacity];
+        handleSlotOf = new int[capacity];
+        packedIndexOf = new int[capacity];
+        handleGeneration = new int[capacity];
+        pendingKills = new Entity[capacity];
+    }
+
+    /**
+     * This method adds an entity to the end of the list
+     * @param entity the entity to add
+     * @return a handle that finds this entity until it is removed
+     */
+    public int add(T entity)
+    {
+        if(size == entities.length)
+        {
+            int capacity = entities.length * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            handleSlotOf = Arrays.copyOf(handleSlotOf, capacity);
+        }
+
+        //reuse a free handle slot if there is one
+        int slot;
+        if(firstFreeHandleSlot != -1)
+        {
+            slot = firstFreeHandleSlot;
+            firstFreeHandleSlot = packedIndexOf[slot];
+        }
+        else
+        {
+            if(handleSlotsUsed == packedIndexOf.length)
+            {
+                int capacity = packedIndexOf.length * 2;
+                packedIndexOf = Arrays.copyOf(packedIndexOf, capacity);
+                handleGeneration = Arrays.copyOf(handleGeneration, capacity);
+            }
+            slot = handleSlotsUsed++;
+        }
+
+        packedIndexOf[slot] = size;
+        handleSlotOf[size] = slot;
+        entities[size] = entity;
+        ++size;
+
+        int handle = (handleGeneration[slot] << HANDLE_INDEX_BITS) | slot;
+        entity.entityHandle = handle;
+        entity.pendingKill = false;
+        return handle;
+    }
+
+    /**
+     * This method gets the entity packed at an index, for looping over the list
+     * @param index the index, from 0 to size() - 1
+     * @return the entity at that index
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        return (T) entities[index];
+    }
+
+    /**
+     * This method finds the entity a handle points at
+     * @param handle the handle from add()
+     * @return the entity, or null if it was removed
+     */
+    @SuppressWarnings("unchecked")
+    public T resolve(int handle)
+    {
+        if(handle == NO_HANDLE)
+        {
+            return null;
+        }
+        int slot = handle & HANDLE_INDEX_MASK;
+        if(slot >= handleSlotsUsed || handleGeneration[slot] != handle >>> HANDLE_INDEX_BITS)
+        {
+            return null;
+        }
+        return (T) entities[packedIndexOf[slot]];
+    }
+
+    /**
+     * This method checks if an entity is in this list
+     * @param entity the entity to look for
+     * @return true if the entity is in the list (even if it is waiting to be removed)
+     */
+    public boolean contains(T entity)
+    {
+        return resolve(entity.entityHandle) == entity;
+    }
+
+    /**
+     * This method marks an entity to be removed when flushKills() is called, it stays in the list until then
+     * @param entity the entity to remove
+     */
+    public void kill(T entity)
+    {
+        if(entity.pendingKill || !contains(entity))
+        {
+            return;
+        }
+        entity.pendingKill = true;
+        if(pendingKillCount == pendingKills.length)
+        {
+            pendingKills = Arrays.copyOf(pendingKills, pendingKills.length * 2);
+        }
+        pendingKills[pendingKillCount++] = entity;
+    }
+
+    /**
+     * This method removes every entity that was killed since the last flush
+     */
+    public void flushKills()
+    {
+        for(int i = 0; i < pendingKillCount; ++i)
+        {
+            removeNow(pendingKills[i]);
+            pendingKills[i] = null;
+        }
+        pendingKillCount = 0;
+    }
+
+    /**
+     * This method swaps the last entity into the removed entity's spot and frees its handle
+     * @param entity the entity to remove
+     */
+    private void removeNow(Entity entity)
+    {
+        int slot = entity.entityHandle & HANDLE_INDEX_MASK;
+        int index = packedIndexOf[slot];
+        int last = size - 1;
+
+        //move the last entity into the gap
+        entities[index] = entities[last];
+        handleSlotOf[index] = handleSlotOf[last];
+        packedIndexOf[handleSlotOf[index]] = index;
+        entities[last] = null;
+        --size;
+
+        freeHandleSlot(slot);
+        entity.entityHandle = NO_HANDLE;
+        entity.pendingKill = false;
+    }
+
+    /**
+     * This method puts a handle table slot on the free list, old handles to it stop working
+     * @param slot the slot to free
+     */
+    private void freeHandleSlot(int slot)
+    {
+        handleGeneration[slot] = (handleGeneration[slot] + 1) & HANDLE_GENERATION_MASK;
+        packedIndexOf[slot] = firstFreeHandleSlot;
+        firstFreeHandleSlot = slot;
+    }
+
+    /**
+     * This method removes every entity right away
+     */
+    public void clear()
+    {
+        for(int i = 0; i < size; ++i)
+        {
+            entities[i].entityHandle = NO_HANDLE;
+            entities[i].pendingKill = false;
+            entities[i] = null;
+        }
+        Arrays.fill(pendingKills, 0, pendingKillCount, null);
+        pendingKillCount = 0;
+        size = 0;
+        firstFreeHandleSlot = -1;
+        for(int slot = handleSlotsUsed - 1; slot >= 0; --slot)
+        {
+            freeHandleSlot(slot);
+        }
+    }
+
+    /**
+     * This method gets how many entities are packed in the list, including ones waiting to be removed
+     * @return how many entities to loop over
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * This method gets how many entities aren't waiting to be removed
+     * @return how many entities are still alive
+     */
+    public int getLiveCount()
+    {
+        return size - pendingKillCount;
+    }
+}
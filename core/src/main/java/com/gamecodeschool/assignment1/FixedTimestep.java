@@ -0,0 +1,130 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Runs the simulation in fixed size steps no matter how long each frame takes to draw.
+ * Real time is added to an accumulator every frame and whole steps are taken out of it, so physics always sees the
+ * same step. If drawing falls too far behind only a limited number of steps are taken so we don't spiral,
+ * and whatever is left over tells the renderer how far between the last two steps to draw everything.
+ * @author Braeden Ruff
+ */
+public class FixedTimestep
+{
+    //how many simulation steps per second we run by default
+    public static final int DEFAULT_TICK_RATE = 120;
+
+    //the most steps we will take in a single frame to catch up by default
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 8;
+
+    //how many nanoseconds are in a second
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    //how many steps per second we run
+    private final int tickRate;
+
+    //how long each step is in nanoseconds
+    private final long stepNanos;
+
+    //the most steps we will take in a single frame
+    private final int maxStepsPerFrame;
+
+    //real time that hasn't been simulated yet, in nanoseconds
+    private long accumulator;
+
+    //when advance() was last called, -1 if it hasn't been called since the last reset()
+    private long lastTime = -1;
+
+    //how many steps were thrown away because we fell too far behind
+    private long droppedSteps;
+
+    /**
+     * This is the constructor for the default tick rate and catch up limit
+     */
+    public FixedTimestep()
+    {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_STEPS_PER_FRAME);
+    }
+
+    /**
+     * This is the constructor for a fixed timestep
+     * @param tickRate how many simulation steps per second to run
+     * @param maxStepsPerFrame the most steps to take in one frame, anything more is dropped
+     */
+    public FixedTimestep(int tickRate, int maxStepsPerFrame)
+    {
+        this.tickRate = tickRate;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        stepNanos = NANOS_PER_SECOND / tickRate;
+    }
+
+    /**
+     * This method adds the time since the last call and works out how many steps to simulate this frame
+     * @param now the current time from System.nanoTime()
+     * @return how many fixed steps should be simulated
+     */
+    public int advance(long now)
+    {
+        if(lastTime < 0) //first frame, nothing to simulate yet
+        {
+            lastTime = now;
+            return 0;
+        }
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long steps = accumulator / stepNanos;
+        if(steps > maxStepsPerFrame)
+        {
+            //we can't keep up, so drop the extra time instead of falling further behind
+            droppedSteps += steps - maxStepsPerFrame;
+            accumulator %= stepNanos;
+            return maxStepsPerFrame;
+        }
+        accumulator -= steps * stepNanos;
+        return (int) steps;
+    }
+
+    /**
+     * This method gets how far we are between the last step and the next one
+     * @return a value between 0 and 1 to interpolate drawing with
+     */
+    public float getAlpha()
+    {
+        return (float) accumulator / stepNanos;
+    }
+
+    /**
+     * This method gets how long until the next step is due
+     * @return nanoseconds until advance() will return at least one step
+     */
+    public long getNanosUntilNextStep()
+    {
+        return stepNanos - accumulator;
+    }
+
+    /**
+     * This method forgets the time that has passed, so a pause or the app being closed isn't simulated
+     */
+    public void reset()
+    {
+        lastTime = -1;
+        accumulator = 0;
+    }
+
+    /**
+     * This method gets how many steps per second we run, which is what the objects' update methods expect as fps
+     * @return the tick rate
+     */
+    public int getTickRate()
+    {
+        return tickRate;
+    }
+
+    /**
+     * This method gets how many steps were dropped because we fell too far behind
+     * @return how many steps were dropped
+     */
+    public long getDroppedSteps()
+    {
+        return droppedSteps;
+    }
+}
@@ -0,0 +1,39 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * One pointer of a touch event, copied out of the MotionEvent on the UI thread so the simulation thread can apply it later.
+ * Commands live in an InputQueue and are reused, so they are only changed by the queue while the UI thread owns them.
+ * @author Braeden Ruff
+ */
+public class InputCommand
+{
+    //the masked action of the event (ACTION_DOWN, ACTION_MOVE, ...)
+    int action;
+
+    //the id of the pointer the action is about (for down and up events)
+    int actionId;
+
+    //the id of this pointer
+    int pointerId;
+
+    //where this pointer is on the screen
+    float x;
+    float y;
+
+    /**
+     * This method fills in the command
+     * @param action the masked action of the event
+     * @param actionId the id of the pointer the action is about
+     * @param pointerId the id of this pointer
+     * @param x where this pointer is on the x-axis of the screen
+     * @param y where this pointer is on the y-axis of the screen
+     */
+    void set(int action, int actionId, int pointerId, float x, float y)
+    {
+        this.action = action;
+        this.actionId = actionId;
+        this.pointerId = pointerId;
+        this.x = x;
+        this.y = y;
+    }
+}
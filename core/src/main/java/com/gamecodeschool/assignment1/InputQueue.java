@@ -0,0 +1,92 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size ring of reusable input commands, filled by the UI thread and drained by the simulation thread.
+ * Nothing is allocated per touch, and neither thread ever waits on the other. If the simulation falls so far behind that
+ * the ring fills up, new touches are dropped until it catches up.
+ * @author Braeden Ruff
+ */
+public class InputQueue
+{
+    //how many commands fit in the ring (a power of 2 so we can mask)
+    private static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    //the reusable commands
+    private final InputCommand[] ring = new InputCommand[CAPACITY];
+
+    //how many commands have ever been written, only the UI thread changes it
+    private final AtomicLong written = new AtomicLong();
+
+    //how many commands have ever been read, only the simulation thread changes it
+    private final AtomicLong read = new AtomicLong();
+
+    //how many touches were dropped because the ring was full
+    private long dropped;
+
+    /**
+     * This is the constructor for the input queue
+     */
+    public InputQueue()
+    {
+        for(int i = 0; i < CAPACITY; ++i)
+        {
+            ring[i] = new InputCommand();
+        }
+    }
+
+    /**
+     * This method adds a command to the queue. UI thread only
+     * @param action the masked action of the event
+     * @param actionId the id of the pointer the action is about
+     * @param pointerId the id of this pointer
+     * @param x where this pointer is on the x-axis of the screen
+     * @param y where this pointer is on the y-axis of the screen
+     * @return true if it was added, false if the queue was full
+     */
+    public boolean offer(int action, int actionId, int pointerId, float x, float y)
+    {
+        long w = written.get();
+        if(w - read.get() == CAPACITY)
+        {
+            ++dropped;
+            return false;
+        }
+        ring[(int) (w & MASK)].set(action, actionId, pointerId, x, y);
+        written.lazySet(w + 1);
+        return true;
+    }
+
+    /**
+     * This method gets the oldest command without removing it. Simulation thread only
+     * @return the oldest command, or null if the queue is empty. Only valid until release() is called
+     */
+    public InputCommand peek()
+    {
+        long r = read.get();
+        if(r == written.get())
+        {
+            return null;
+        }
+        return ring[(int) (r & MASK)];
+    }
+
+    /**
+     * This method hands the command from peek() back to the UI thread to be reused. Simulation thread only
+     */
+    public void release()
+    {
+        read.lazySet(read.get() + 1);
+    }
+
+    /**
+     * This method gets how many touches were dropped because the queue was full
+     * @return how many touches were dropped
+     */
+    public long getDropped()
+    {
+        return dropped;
+    }
+}
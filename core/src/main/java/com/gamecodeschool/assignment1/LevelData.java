@@ -0,0 +1,184 @@
+package com.gamecodeschool.assignment1;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class is a level, read from the binary file the build compiles each level's text source into
+ * (app/src/main/levels/*.txt, see the compileLevels task). The file is a header, the tile of every cell as one byte,
+ * and a table of where the enemies, coins, player and end go, so loading is a few bulk reads instead of parsing text.
+ * @author Braeden Ruff
+ */
+public class LevelData
+{
+    //every level file starts with "BDLV"
+    public static final int MAGIC = 0x42444C56;
+
+    //bumped if the layout of the file changes, must match the compileLevels task
+    public static final int VERSION = 1;
+
+    //the tile of a cell that has no tile (enemies, coins, the player and the end are in the spawn table, their cells are empty)
+    public static final byte EMPTY = '.';
+
+    // Tile types
+    // . = no tile
+    // 1 = Grass Tile
+    // 2 = Dirt Tile
+    // 3 = Desert Tile
+    // 4 = Magmabrick Tile
+    // w = Breakable Wall
+    // d = Death Tile
+
+    // enemies
+    // s = slime
+    // g = goblin
+    // m = monster spawner
+
+    // collectibles
+    // c = coin
+
+    // Inactive objects
+    // p = player spawn location
+    // f = end location
+
+    //how many rows and columns the level has
+    private final int rows;
+    private final int columns;
+
+    //the tile symbol of every cell, row by row
+    private final byte[] tiles;
+
+    //the symbol, row and column of everything that isn't a tile, in column order (left to right)
+    private final byte[] spawnTypes;
+    private final int[] spawnRows;
+    private final int[] spawnColumns;
+
+    /**
+     * This is the constructor for a level that was read
+     * @param rows how many rows the level has
+     * @param columns how many columns the level has
+     * @param tiles the tile symbol of every cell, row by row
+     * @param spawnTypes the symbol of each spawn
+     * @param spawnRows the row of each spawn
+     * @param spawnColumns the column of each spawn
+     */
+    private LevelData(int rows, int columns, byte[] tiles, byte[] spawnTypes, int[] spawnRows, int[] spawnColumns)
+    {
+        this.rows = rows;
+        this.columns = columns;
+        this.tiles = tiles;
+        this.spawnTypes = spawnTypes;
+        this.spawnRows = spawnRows;
+        this.spawnColumns = spawnColumns;
+    }
+
+    /**
+     * This method reads a compiled level
+     * @param stream the level file, closed by the caller
+     * @return the level
+     * @throws IOException if the file couldn't be read or isn't a level file of this version
+     */
+    public static LevelData read(InputStream stream) throws IOException
+    {
+        DataInputStream in = new DataInputStream(stream);
+        if(in.readInt() != MAGIC)
+        {
+            throw new IOException("not a level file");
+        }
+        int version = in.readInt();
+        if(version != VERSION)
+        {
+            throw new IOException("level file version " + version + ", expected " + VERSION);
+        }
+        int rows = in.readInt();
+        int columns = in.readInt();
+        if(rows <= 0 || columns <= 0)
+        {
+            throw new IOException("level has no tiles");
+        }
+
+        byte[] tiles = new byte[rows * columns];
+        in.readFully(tiles);
+
+        int spawnCount = in.readInt();
+        byte[] spawnTypes = new byte[spawnCount];
+        int[] spawnRows = new int[spawnCount];
+        int[] spawnColumns = new int[spawnCount];
+        for(int i = 0; i < spawnCount; ++i)
+        {
+            spawnTypes[i] = in.readByte();
+            spawnRows[i] = in.readUnsignedShort();
+            spawnColumns[i] = in.readUnsignedShort();
+        }
+        return new LevelData(rows, columns, tiles, spawnTypes, spawnRows, spawnColumns);
+    }
+
+    /**
+     * This method gets how many rows the level has
+     * @return the number of rows
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * This method gets how many columns the level has
+     * @return the number of columns
+     */
+    public int getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * This method gets the tile of a cell
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @return the tile symbol, EMPTY if there is no tile
+     */
+    public char getTile(int row, int column)
+    {
+        return (char) tiles[row * columns + column];
+    }
+
+    /**
+     * This method gets how many enemies, coins and markers the level has
+     * @return the number of spawns
+     */
+    public int getSpawnCount()
+    {
+        return spawnTypes.length;
+    }
+
+    /**
+     * This method gets what a spawn is
+     * @param index which spawn
+     * @return the symbol of the spawn
+     */
+    public char getSpawnType(int index)
+    {
+        return (char) spawnTypes[index];
+    }
+
+    /**
+     * This method gets the row of a spawn
+     * @param index which spawn
+     * @return the row it is in
+     */
+    public int getSpawnRow(int index)
+    {
+        return spawnRows[index];
+    }
+
+    /**
+     * This method gets the column of a spawn
+     * @param index which spawn
+     * @return the column it is in
+     */
+    public int getSpawnColumn(int index)
+    {
+        return spawnColumns[index];
+    }
+}
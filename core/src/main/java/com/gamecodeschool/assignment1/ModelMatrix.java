@@ -0,0 +1,52 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Builds the matrices objects are drawn with, the same maths as android.opengl.Matrix.translateM(), setRotateM() and
+ * multiplyMM() (column major 4x4 float arrays) but done in one pass straight into the result, with no scratch matrices
+ * and nothing allocated. It's plain Java so it can be checked for allocations on the JVM.
+ * @author Braeden Ruff
+ */
+public class ModelMatrix
+{
+    /**
+     * This method translates a matrix, like translateM(result, 0, matrix, 0, x, y, 0)
+     * @param result where to write the translated matrix, can't be the same array as matrix
+     * @param matrix the matrix to translate (usually the viewport matrix)
+     * @param x how far to translate on the x-axis
+     * @param y how far to translate on the y-axis
+     */
+    public static void translate(float[] result, float[] matrix, float x, float y)
+    {
+        System.arraycopy(matrix, 0, result, 0, 12);
+        for(int i = 0; i < 4; ++i)
+        {
+            result[12 + i] = matrix[i] * x + matrix[4 + i] * y + matrix[12 + i];
+        }
+    }
+
+    /**
+     * This method translates a matrix and then rotates it around the z-axis, like translating it with translateM()
+     * and multiplying it by a rotation from setRotateM(rotation, 0, -angle, 0, 0, 1)
+     * @param result where to write the translated and rotated matrix, can't be the same array as matrix
+     * @param matrix the matrix to translate (usually the viewport matrix)
+     * @param x how far to translate on the x-axis
+     * @param y how far to translate on the y-axis
+     * @param angle how far to rotate in degrees, clockwise on the screen
+     */
+    public static void translateAndRotate(float[] result, float[] matrix, float x, float y, float angle)
+    {
+        double radians = Math.toRadians(-angle);
+        float sin = (float) Math.sin(radians);
+        float cos = (float) Math.cos(radians);
+        for(int i = 0; i < 4; ++i)
+        {
+            float column0 = matrix[i];
+            float column1 = matrix[4 + i];
+            //rotating only mixes the first two columns, the translation only changes the last one
+            result[i] = column0 * cos + column1 * sin;
+            result[4 + i] = column1 * cos - column0 * sin;
+            result[8 + i] = matrix[8 + i];
+            result[12 + i] = column0 * x + column1 * y + matrix[12 + i];
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Which tiles of a level are solid and which are deadly, one bit per tile. Each row is stored as whole longs
+ * (64 tiles to a long) one after the other, so checking a box of tiles is a couple of masked words per row instead
+ * of looking at every tile, and even a big level is only a few kilobytes.
+ * Anything outside the level is neither solid nor deadly.
+ * @author Braeden Ruff
+ */
+public class OccupancyGrid
+{
+    //how many rows and columns the level has
+    private final int rows;
+    private final int columns;
+
+    //how many longs each row takes
+    private final int wordsPerRow;
+
+    //the bits of the solid and the deadly tiles, row by row
+    private final long[] solid;
+    private final long[] deadly;
+
+    /**
+     * This is the constructor for an empty occupancy grid
+     * @param rows how many rows the level has
+     * @param columns how many columns the level has
+     */
+    public OccupancyGrid(int rows, int columns)
+    {
+        this.rows = rows;
+        this.columns = columns;
+        wordsPerRow = (columns + 63) >>> 6;
+        solid = new long[rows * wordsPerRow];
+        deadly = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * This method sets what a tile is
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @param isSolid whether the tile is solid
+     * @param isDeadly whether the tile kills the player
+     */
+    public void set(int row, int column, boolean isSolid, boolean isDeadly)
+    {
+        int word = row * wordsPerRow + (column >>> 6);
+        long bit = 1L << column; // shifts only use the low 6 bits, so this is the bit inside its word
+        solid[word] = isSolid ? solid[word] | bit : solid[word] & ~bit;
+        deadly[word] = isDeadly ? deadly[word] | bit : deadly[word] & ~bit;
+    }
+
+    /**
+     * This method checks if a tile is solid
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile is inside the level and solid
+     */
+    public boolean isSolid(int row, int column)
+    {
+        return contains(row, column) && (solid[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    /**
+     * This method checks if a tile kills the player
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile is inside the level and deadly
+     */
+    public boolean isDeadly(int row, int column)
+    {
+        return contains(row, column) && (deadly[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    /**
+     * This method checks if a tile is inside the level
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile is inside the level
+     */
+    private boolean contains(int row, int column)
+    {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    /**
+     * This method checks if any tile in a box of tiles is solid, parts of the box outside the level are ignored
+     * @param firstRow the first row of the box
+     * @param lastRow the last row of the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @return true if something in the box is solid
+     */
+    public boolean anySolid(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        return firstHit(solid, firstRow, lastRow, firstColumn, lastColumn) != -1;
+    }
+
+    /**
+     * This method checks if any tile in a box of tiles is deadly, parts of the box outside the level are ignored
+     * @param firstRow the first row of the box
+     * @param lastRow the last row of the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @return true if something in the box is deadly
+     */
+    public boolean anyDeadly(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        return firstHit(deadly, firstRow, lastRow, firstColumn, lastColumn) != -1;
+    }
+
+    /**
+     * This method checks if every tile in a box of tiles is solid
+     * @param firstRow the first row of the box
+     * @param lastRow the last row of the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @return true if the whole box is inside the level and solid
+     */
+    public boolean allSolid(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        if(firstRow < 0 || lastRow >= rows || firstColumn < 0 || lastColumn >= columns)
+        {
+            return false;
+        }
+        int firstWord = firstColumn >>> 6;
+        int lastWord = lastColumn >>> 6;
+        long firstMask = -1L << firstColumn;
+        long lastMask = -1L >>> (63 - (lastColumn & 63));
+        for(int i = firstRow; i <= lastRow; ++i)
+        {
+            int rowStart = i * wordsPerRow;
+            for(int w = firstWord; w <= lastWord; ++w)
+            {
+                //the tiles that aren't solid
+                long word = ~solid[rowStart + w];
+                if(w == firstWord)
+                {
+                    word &= firstMask;
+                }
+                if(w == lastWord)
+                {
+                    word &= lastMask;
+                }
+                if(word != 0)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method finds the first solid tile in a box of tiles, going row by row from the top left
+     * @param firstRow the first row of the box
+     * @param lastRow the last row of the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @return row * columns + column of the tile, or -1 if nothing in the box is solid
+     */
+    public int firstSolid(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        return firstHit(solid, firstRow, lastRow, firstColumn, lastColumn);
+    }
+
+    /**
+     * This method finds the first set bit in a box of tiles, going row by row from the top left
+     * @param bits the solid or deadly bits
+     * @param firstRow the first row of the box
+     * @param lastRow the last row of the box
+     * @param firstColumn the first column of the box
+     * @param lastColumn the last column of the box
+     * @return row * columns + column of the tile, or -1 if no bit in the box is set
+     */
+    private int firstHit(long[] bits, int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        firstRow = Math.max(firstRow, 0);
+        lastRow = Math.min(lastRow, rows - 1);
+        firstColumn = Math.max(firstColumn, 0);
+        lastColumn = Math.min(lastColumn, columns - 1);
+        if(firstRow > lastRow || firstColumn > lastColumn)
+        {
+            return -1;
+        }
+        int firstWord = firstColumn >>> 6;
+        int lastWord = lastColumn >>> 6;
+        //the bits of the first and last word that are inside the box
+        long firstMask = -1L << firstColumn;
+        long lastMask = -1L >>> (63 - (lastColumn & 63));
+        for(int i = firstRow; i <= lastRow; ++i)
+        {
+            int rowStart = i * wordsPerRow;
+            for(int w = firstWord; w <= lastWord; ++w)
+            {
+                long word = bits[rowStart + w];
+                if(w == firstWord)
+                {
+                    word &= firstMask;
+                }
+                if(w == lastWord)
+                {
+                    word &= lastMask;
+                }
+                if(word != 0)
+                {
+                    return i * columns + (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method gets how many rows the level has
+     * @return the number of rows
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * This method gets how many columns the level has
+     * @return the number of columns
+     */
+    public int getColumns()
+    {
+        return columns;
+    }
+}
@@ -0,0 +1,233 @@
+package com.gamecodeschool.assignment1;
+
+import java.util.ArrayList;
+
+/**
+ * A uniform grid of cells (one tile big by default) hashed into a fixed number of buckets, used to find the objects near a point
+ * without looking at every object. Each object is filed under the cell its center is in, and queries grow by the
+ * largest half size we have seen so objects poking into the query area from a neighbouring cell are still found.
+ * Objects that move call update(), which only does work when they cross into a new cell.
+ * @param <T> the type of Entity stored
+ * @author Braeden Ruff
+ */
+public class SpatialHash<T extends Entity>
+{
+    //how big each cell is in world units
+    private final float cellSize;
+
+    //the buckets, cells are hashed into these (always a power of 2 so we can mask)
+    private final ArrayList<ArrayList<T>> buckets;
+    private final int bucketMask;
+
+    //the biggest half width and half height of anything inserted, so queries can reach objects centered outside them
+    private float maxHalfWidth;
+    private float maxHalfHeight;
+
+    //changes every query so an object found in two buckets is only reported once
+    private int queryStamp;
+
+    //how many objects are in the hash
+    private int size;
+
+    /**
+     * This is the constructor for a spatial hash
+     * @param cellSize how big each cell is in world units
+     * @param bucketCount how many buckets to hash cells into, rounded up to a power of 2
+     */
+    public SpatialHash(float cellSize, int bucketCount)
+    {
+        this.cellSize = cellSize;
+        int count = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        buckets = new ArrayList<>(count);
+        for(int i = 0; i < count; ++i)
+        {
+            buckets.add(new ArrayList<T>(4));
+        }
+        bucketMask = count - 1;
+    }
+
+    /**
+     * This method works out which cell a coordinate is in
+     * @param coordinate the x or y coordinate in world units
+     * @return the cell along that axis
+     */
+    private int cell(float coordinate)
+    {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * This method finds the bucket of a cell
+     * @param cellX the cell on the x-axis
+     * @param cellY the cell on the y-axis
+     * @return the bucket holding that cell
+     */
+    private ArrayList<T> bucket(int cellX, int cellY)
+    {
+        return buckets.get((cellX * 73856093 ^ cellY * 19349663) & bucketMask);
+    }
+
+    /**
+     * This method adds an object to the hash
+     * @param object the object to add
+     */
+    public void insert(T object)
+    {
+        object.spatialCellX = cell(object.getWorldLocation().x);
+        object.spatialCellY = cell(object.getWorldLocation().y);
+        bucket(object.spatialCellX, object.spatialCellY).add(object);
+        maxHalfWidth = Math.max(maxHalfWidth, object.getWidth() / 2);
+        maxHalfHeight = Math.max(maxHalfHeight, object.getHeight() / 2);
+        ++size;
+    }
+
+    /**
+     * This method removes an object from the hash
+     * @param object the object to remove
+     */
+    public void remove(T object)
+    {
+        if(bucket(object.spatialCellX, object.spatialCellY).remove(object))
+        {
+            --size;
+        }
+    }
+
+    /**
+     * This method moves an object to its new cell, call it after the object moves
+     * @param object the object that might have moved
+     */
+    public void update(T object)
+    {
+        int cellX = cell(object.getWorldLocation().x);
+        int cellY = cell(object.getWorldLocation().y);
+        if(cellX == object.spatialCellX && cellY == object.spatialCellY)
+        {
+            return; //still in the same cell, nothing to do
+        }
+        bucket(object.spatialCellX, object.spatialCellY).remove(object);
+        object.spatialCellX = cellX;
+        object.spatialCellY = cellY;
+        bucket(cellX, cellY).add(object);
+    }
+
+    /**
+     * This method empties the hash
+     */
+    public void clear()
+    {
+        for(int i = 0; i < buckets.size(); ++i)
+        {
+            buckets.get(i).clear();
+        }
+        maxHalfWidth = 0;
+        maxHalfHeight = 0;
+        size = 0;
+    }
+
+    /**
+     * This method finds every object whose bounding box overlaps a box
+     * @param minX the left of the box
+     * @param minY the bottom of the box
+     * @param maxX the right of the box
+     * @param maxY the top of the box
+     * @param out the list the objects are added to (not cleared first)
+     * @return how many objects were added
+     */
+    public int queryBox(float minX, float minY, float maxX, float maxY, ArrayList<T> out)
+    {
+        int found = 0;
+        ++queryStamp;
+        int firstCellX = cell(minX - maxHalfWidth);
+        int lastCellX = cell(maxX + maxHalfWidth);
+        int firstCellY = cell(minY - maxHalfHeight);
+        int lastCellY = cell(maxY + maxHalfHeight);
+        for(int cellX = firstCellX; cellX <= lastCellX; ++cellX)
+        {
+            for(int cellY = firstCellY; cellY <= lastCellY; ++cellY)
+            {
+                ArrayList<T> bucket = bucket(cellX, cellY);
+                for(int i = 0; i < bucket.size(); ++i)
+                {
+                    T object = bucket.get(i);
+                    if(object.spatialQueryStamp == queryStamp)
+                    {
+                        continue; //already checked from another cell sharing this bucket
+                    }
+                    object.spatialQueryStamp = queryStamp;
+                    float halfW = object.getWidth() / 2;
+                    float halfH = object.getHeight() / 2;
+                    float x = object.getWorldLocation().x;
+                    float y = object.getWorldLocation().y;
+                    if(x + halfW >= minX && x - halfW <= maxX && y + halfH >= minY && y - halfH <= maxY)
+                    {
+                        out.add(object);
+                        ++found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * This method finds every object whose bounding box comes within a distance of a point
+     * @param x the point on the x-axis
+     * @param y the point on the y-axis
+     * @param radius how far from the point to look
+     * @param out the list the objects are added to (not cleared first)
+     * @return how many objects were added
+     */
+    public int queryRadius(float x, float y, float radius, ArrayList<T> out)
+    {
+        int start = out.size();
+        queryBox(x - radius, y - radius, x + radius, y + radius, out);
+
+        //the box query found the square around the circle, drop the corners
+        int kept = start;
+        for(int i = start; i < out.size(); ++i)
+        {
+            T object = out.get(i);
+            float halfW = object.getWidth() / 2;
+            float halfH = object.getHeight() / 2;
+            float dx = Math.max(Math.abs(object.getWorldLocation().x - x) - halfW, 0);
+            float dy = Math.max(Math.abs(object.getWorldLocation().y - y) - halfH, 0);
+            if(dx * dx + dy * dy <= radius * radius)
+            {
+                out.set(kept++, object);
+            }
+        }
+        while(out.size() > kept)
+        {
+            out.remove(out.size() - 1);
+        }
+        return kept - start;
+    }
+
+    /**
+     * This method gets the biggest half width of anything in the hash
+     * @return the biggest half width
+     */
+    public float getMaxHalfWidth()
+    {
+        return maxHalfWidth;
+    }
+
+    /**
+     * This method gets the biggest half height of anything in the hash
+     * @return the biggest half height
+     */
+    public float getMaxHalfHeight()
+    {
+        return maxHalfHeight;
+    }
+
+    /**
+     * This method gets how many objects are in the hash
+     * @return how many objects are in the hash
+     */
+    public int size()
+    {
+        return size;
+    }
+}
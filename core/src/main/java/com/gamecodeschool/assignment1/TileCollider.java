@@ -0,0 +1,238 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * Pushes a body out of the level's collision boxes and stops it moving into them. Only the boxes covering the tiles
+ * the body overlaps are checked, and a box can only push the body out through the part of a side it is crossing, and only
+ * if a tile along that part is empty. So the seams between boxes (and between tiles) can't catch it, even where two floors
+ * of different depths meet and the deeper one's side is open further down.
+ * It doesn't know what kind of body it is pushing, so anything that depends on that (landing, wall sliding, dying on spikes)
+ * is handed to a listener as it happens.
+ * @author Braeden Ruff
+ */
+public class TileCollider
+{
+    //which side of the body a tile hit
+    public static final int TOP = 0;
+    public static final int BOTTOM = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    //flags in the result of resolve()
+    //something was hit above or below
+    public static final int HIT_Y = 1;
+    //something was hit on the left or right
+    public static final int HIT_X = 1 << 1;
+    //landed on top of something
+    public static final int LANDED = 1 << 2;
+    //the listener stopped the pass early
+    public static final int STOPPED = 1 << 3;
+
+    /**
+     * Told about each collision while they are being resolved
+     */
+    public interface Listener
+    {
+        /**
+         * This method is called when a tile is hit, before the body is pushed out of it
+         * @param body the body being resolved
+         * @param row the row of the tile that was hit
+         * @param column the column of the tile that was hit
+         * @param side which side of the body the tile hit (TOP, BOTTOM, LEFT or RIGHT)
+         * @return true to stop resolving this body
+         */
+        boolean onTileCollision(Body body, int row, int column, int side);
+    }
+
+    /**
+     * This method pushes a body out of the boxes around it. Up and down is resolved first, then left and right from
+     * where that left the body. Each pass looks at every box from the same position and takes only the deepest push
+     * it finds, so the result doesn't depend on the order the boxes are found in
+     * @param body the body to resolve
+     * @param geometry the collision boxes of the level
+     * @param listener told about each collision, can be null
+     * @return the flags above saying what was hit
+     */
+    public static int resolve(Body body, CollisionGeometry geometry, Listener listener)
+    {
+        TileGrid grid = geometry.getGrid();
+        float tileSize = grid.getTileSize();
+        float halfWidth = body.getWidth() / 2;
+        float halfHeight = body.getHeight() / 2;
+
+        //the tiles the body overlaps, plus one around it for what it is moving into
+        int firstColumn = Math.max(0, (int) Math.floor((body.getX() - halfWidth) / tileSize + 0.5f) - 1);
+        int lastColumn = Math.min(grid.getColumns() - 1, (int) Math.floor((body.getX() + halfWidth) / tileSize + 0.5f) + 1);
+        int firstRow = Math.max(0, (int) Math.floor((-body.getY() - halfHeight) / tileSize + 0.5f) - 1);
+        int lastRow = Math.min(grid.getRows() - 1, (int) Math.floor((-body.getY() + halfHeight) / tileSize + 0.5f) + 1);
+        if(firstColumn > lastColumn || firstRow > lastRow) // outside the border somehow
+        {
+            return 0;
+        }
+        //most of the time nothing is near (in the air, or an enemy standing still), which the bits can tell us without finding any boxes
+        if(!geometry.getOccupancy().anySolid(firstRow, lastRow, firstColumn, lastColumn))
+        {
+            return 0;
+        }
+
+        int count = geometry.query(firstRow, lastRow, firstColumn, lastColumn);
+        int result = pushOut(body, geometry, count, true, listener);
+        if((result & STOPPED) != 0)
+        {
+            return result;
+        }
+        return result | pushOut(body, geometry, count, false, listener);
+    }
+
+    /**
+     * This method finds the deepest push out of the boxes along one axis and does it. Each box pushes out the shortest
+     * way through a part of a side that can be hit, up or down when it's a tie like standing on a floor, and the box
+     * is skipped if that way is along the other axis
+     * @param body the body to resolve
+     * @param geometry the collision boxes of the level
+     * @param count how many boxes the query found
+     * @param vertical true for the up and down pass, false for left and right
+     * @param listener told about the collision, can be null
+     * @return the flags above saying what was hit
+     */
+    private static int pushOut(Body body, CollisionGeometry geometry, int count, boolean vertical, Listener listener)
+    {
+        float tileSize = geometry.getGrid().getTileSize();
+        float halfTile = tileSize / 2;
+        float halfWidth = body.getWidth() / 2;
+        float halfHeight = body.getHeight() / 2;
+        float bodyLeft = body.getX() - halfWidth;
+        float bodyRight = body.getX() + halfWidth;
+        float bodyBottom = body.getY() - halfHeight;
+        float bodyTop = body.getY() + halfHeight;
+        OccupancyGrid occupancy = geometry.getOccupancy();
+
+        CollisionGeometry.Box hitBox = null;
+        int hitSide = -1;
+        float hitDepth = 0;
+        float hitDistance = 0;
+        for(int b = 0; b < count; ++b)
+        {
+            CollisionGeometry.Box box = geometry.getFound(b);
+            float left = box.firstColumn * tileSize - halfTile;
+            float right = box.lastColumn * tileSize + halfTile;
+            float top = -box.firstRow * tileSize + halfTile;
+            float bottom = -box.lastRow * tileSize - halfTile;
+
+            //how far the body is into the box through each side, it only counts if the body overlaps on both axes
+            float intoTop = top - bodyBottom;
+            float intoBottom = bodyTop - bottom;
+            float intoLeft = bodyRight - left;
+            float intoRight = right - bodyLeft;
+            if(intoTop <= 0 || intoBottom <= 0 || intoLeft <= 0 || intoRight <= 0)
+            {
+                continue;
+            }
+
+            //the tiles of the box the body overlaps, only the part of a side next to them can push the body out
+            int overFirstColumn = (int) Math.floor(Math.max(bodyLeft, left) / tileSize - 0.5f) + 1;
+            int overLastColumn = (int) Math.ceil(Math.min(bodyRight, right) / tileSize + 0.5f) - 1;
+            int overFirstRow = (int) Math.floor(-Math.min(bodyTop, top) / tileSize - 0.5f) + 1;
+            int overLastRow = (int) Math.ceil(-Math.max(bodyBottom, bottom) / tileSize + 0.5f) - 1;
+
+            int side = -1;
+            float depth = Float.MAX_VALUE;
+            if((box.exposed & CollisionGeometry.TOP) != 0 && intoTop < depth
+                    && !occupancy.allSolid(box.firstRow - 1, box.firstRow - 1, overFirstColumn, overLastColumn))
+            {
+                side = BOTTOM;
+                depth = intoTop;
+            }
+            if((box.exposed & CollisionGeometry.BOTTOM) != 0 && intoBottom < depth
+                    && !occupancy.allSolid(box.lastRow + 1, box.lastRow + 1, overFirstColumn, overLastColumn))
+            {
+                side = TOP;
+                depth = intoBottom;
+            }
+            if((box.exposed & CollisionGeometry.LEFT) != 0 && intoLeft < depth
+                    && !occupancy.allSolid(overFirstRow, overLastRow, box.firstColumn - 1, box.firstColumn - 1))
+            {
+                side = LEFT;
+                depth = intoLeft;
+            }
+            if((box.exposed & CollisionGeometry.RIGHT) != 0 && intoRight < depth
+                    && !occupancy.allSolid(overFirstRow, overLastRow, box.lastColumn + 1, box.lastColumn + 1))
+            {
+                side = RIGHT;
+                depth = intoRight;
+            }
+            //buried in the middle of the ground with no way out, or this box pushes along the other axis
+            if(side == -1 || (side == TOP || side == BOTTOM) != vertical)
+            {
+                continue;
+            }
+
+            //the deepest push wins, and between boxes as deep the one nearest the body so it is the same whichever is found first
+            float distance = vertical
+                    ? Math.abs(clamp(body.getX(), left + halfTile, right - halfTile) - body.getX())
+                    : Math.abs(clamp(body.getY(), bottom + halfTile, top - halfTile) - body.getY());
+            if(hitBox == null || depth > hitDepth || (depth == hitDepth && (side < hitSide || (side == hitSide && distance < hitDistance))))
+            {
+                hitBox = box;
+                hitSide = side;
+                hitDepth = depth;
+                hitDistance = distance;
+            }
+        }
+        if(hitBox == null)
+        {
+            return 0;
+        }
+
+        //the tile of the box nearest the body is the one that was hit
+        int row = clamp((int) Math.floor(-body.getY() / tileSize + 0.5f), hitBox.firstRow, hitBox.lastRow);
+        int column = clamp((int) Math.floor(body.getX() / tileSize + 0.5f), hitBox.firstColumn, hitBox.lastColumn);
+        if(listener != null && listener.onTileCollision(body, row, column, hitSide))
+        {
+            return STOPPED;
+        }
+
+        switch (hitSide)
+        {
+            case TOP:
+                body.setyVelocity(0);
+                body.setPosition(body.getX(), -hitBox.lastRow * tileSize - halfTile - halfHeight);
+                return HIT_Y;
+            case BOTTOM:
+                body.setyVelocity(0);
+                body.setPosition(body.getX(), -hitBox.firstRow * tileSize + halfTile + halfHeight);
+                return HIT_Y | LANDED;
+            case LEFT:
+                body.setxVelocity(0);
+                body.setPosition(hitBox.firstColumn * tileSize - halfTile - halfWidth, body.getY());
+                return HIT_X;
+            default:
+                body.setxVelocity(0);
+                body.setPosition(hitBox.lastColumn * tileSize + halfTile + halfWidth, body.getY());
+                return HIT_X;
+        }
+    }
+
+    /**
+     * This method keeps a value inside a range
+     * @param value the value
+     * @param min the smallest it can be
+     * @param max the biggest it can be
+     * @return the value moved into the range
+     */
+    private static int clamp(int value, int min, int max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * This method keeps a value inside a range
+     * @param value the value
+     * @param min the smallest it can be
+     * @param max the biggest it can be
+     * @return the value moved into the range
+     */
+    private static float clamp(float value, float min, float max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+}
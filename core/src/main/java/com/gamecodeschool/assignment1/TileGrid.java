@@ -0,0 +1,44 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * The solid tiles of a level laid out in rows and columns. Tile (row, column) is centred at
+ * (column * tileSize, -row * tileSize) in world space and is tileSize big in both directions.
+ * @author Braeden Ruff
+ */
+public interface TileGrid
+{
+    /**
+     * This method gets how many rows the level has
+     * @return the number of rows
+     */
+    int getRows();
+
+    /**
+     * This method gets how many columns the level has
+     * @return the number of columns
+     */
+    int getColumns();
+
+    /**
+     * This method gets how big each tile is
+     * @return the width and height of a tile in world units
+     */
+    float getTileSize();
+
+    /**
+     * This method checks if there is a tile to collide with
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if something solid is there
+     */
+    boolean isSolid(int row, int column);
+
+    /**
+     * This method gets which collision group a tile is in, only tiles of the same group are merged into one box
+     * (so a box is all one kind of tile, and whatever a collision depends on is the same across it)
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return the group of the tile, 0 if it isn't solid
+     */
+    int getCollisionGroup(int row, int column);
+}
@@ -0,0 +1,32 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * The maths for turning touches on the screen into directions, kept apart from the android input classes
+ * so it can be checked on the JVM.
+ * @author Braeden Ruff
+ */
+public class TouchMath
+{
+    /**
+     * This method calculates the angle between two points on the screen, as if both were first turned into
+     * normalized device coordinates (so a wide screen doesn't squash the angle the same way the image is squashed)
+     * @param x1 the first point on the x-axis of the screen
+     * @param y1 the first point on the y-axis of the screen
+     * @param x2 the second point on the x-axis of the screen
+     * @param y2 the second point on the y-axis of the screen
+     * @param screenWidth how wide the screen is
+     * @param screenHeight how high the screen is
+     * @return the angle in radians, 0 is to the right
+     */
+    public static double getScreenAngle(float x1, float y1, float x2, float y2, int screenWidth, int screenHeight)
+    {
+        float ndcX1 = (2.0f * x1) / screenWidth - 1;
+        float ndcY1 = 1-(2.0f * y1) / screenHeight; // Flipping the y-coordinate;
+
+        float ndcX2 = (2.0f * x2) / screenWidth - 1;
+        float ndcY2 = 1-(2.0f * y2) / screenHeight; // Flipping the y-coordinate;
+
+        // same as Entity.getAngleTo() on the two points, without making them
+        return Math.atan2((-ndcY2 + ndcY1),(ndcX2 - ndcX1));
+    }
+}
@@ -0,0 +1,51 @@
+package com.gamecodeschool.assignment1;
+
+/**
+ * A point or direction in world space, the simulation's stand-in for android's PointF so it runs on any JVM.
+ * @author Braeden Ruff
+ */
+public class Vector2
+{
+    //the coordinates
+    public float x;
+    public float y;
+
+    /**
+     * This is the constructor for the origin
+     */
+    public Vector2()
+    {
+    }
+
+    /**
+     * This is the constructor for a point
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     */
+    public Vector2(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * This method moves the point
+     * @param x the new x-coordinate
+     * @param y the new y-coordinate
+     */
+    public void set(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * This method copies another point
+     * @param other the point to copy
+     */
+    public void set(Vector2 other)
+    {
+        x = other.x;
+        y = other.y;
+    }
+}
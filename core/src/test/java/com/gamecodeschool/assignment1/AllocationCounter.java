@@ -0,0 +1,80 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts how many bytes the current thread allocates while running something over and over, for the tests that check
+ * the per-frame paths don't allocate. The JVM has to support per-thread allocation counting (HotSpot does),
+ * otherwise the test is skipped.
+ * @author Braeden Ruff
+ */
+final class AllocationCounter
+{
+    //how many times to run the code before counting, so the counted runs aren't loading classes or compiling
+    private static final int WARM_UP_ITERATIONS = 20000;
+
+    //how many times to run the code while counting
+    private static final int ITERATIONS = 100000;
+
+    /**
+     * Something to run once per iteration
+     */
+    interface Frame
+    {
+        /**
+         * This method runs one iteration
+         * @param i which iteration it is
+         */
+        void run(int i);
+    }
+
+    /**
+     * This is a class of static helpers
+     */
+    private AllocationCounter()
+    {
+    }
+
+    /**
+     * This method fails the test if running the frame allocates anything
+     * @param name what is being checked, for the failure message
+     * @param frame the code to run
+     */
+    static void assertNoAllocations(String name, Frame frame)
+    {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        long threadId = Thread.currentThread().getId();
+        for(int i = 0; i < WARM_UP_ITERATIONS; ++i)
+        {
+            frame.run(i);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < ITERATIONS; ++i)
+        {
+            frame.run(i);
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        //anything allocated per iteration is at least an object header, so less than a byte per iteration is nothing
+        assertEquals(name + " allocated " + (after - before) + " bytes over " + ITERATIONS + " iterations",
+                0, (after - before) / ITERATIONS);
+    }
+
+    /**
+     * This method gets the thread bean that can count allocations, skipping the test if the JVM can't
+     * @return the thread bean
+     */
+    private static com.sun.management.ThreadMXBean threadBean()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,141 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks how the collision geometry merges tiles into boxes and which of their sides it leaves exposed, especially
+ * where boxes meet at the edge of a region, since boxes never cross one.
+ * @author Braeden Ruff
+ */
+public class CollisionGeometryTest
+{
+    /**
+     * This method finds the box covering a tile
+     * @param geometry the compiled level
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return the box, fails the test if there isn't exactly one
+     */
+    private static CollisionGeometry.Box boxAt(CollisionGeometry geometry, int row, int column)
+    {
+        assertEquals("boxes covering " + row + ", " + column, 1, geometry.query(row, row, column, column));
+        return geometry.getFound(0);
+    }
+
+    /**
+     * A floor as long as two regions is two boxes, and the sides where they meet can't be hit
+     */
+    @Test
+    public void floorAcrossTwoRegionsHasNoInternalSeam()
+    {
+        TestLevel level = new TestLevel(
+                "........................................",
+                "........................................",
+                "1111111111111111111111111111111111111111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        assertEquals(2, geometry.getBoxCount());
+
+        CollisionGeometry.Box left = boxAt(geometry, 2, CollisionGeometry.REGION_SIZE - 1);
+        CollisionGeometry.Box right = boxAt(geometry, 2, CollisionGeometry.REGION_SIZE);
+        assertEquals(0, left.firstColumn);
+        assertEquals(CollisionGeometry.REGION_SIZE - 1, left.lastColumn);
+        assertEquals(CollisionGeometry.REGION_SIZE, right.firstColumn);
+        assertEquals(39, right.lastColumn);
+
+        //the top can be stood on, the outside edges of the level count as open, the seam doesn't
+        int open = CollisionGeometry.TOP | CollisionGeometry.BOTTOM;
+        assertEquals(open | CollisionGeometry.LEFT, left.exposed);
+        assertEquals(open | CollisionGeometry.RIGHT, right.exposed);
+    }
+
+    /**
+     * Tiles of different groups are never merged, but a side against a tile of another group still can't be hit
+     */
+    @Test
+    public void groupsAreMergedSeparately()
+    {
+        TestLevel level = new TestLevel(
+                "..........",
+                "1111dd1111",
+                "wwwwwwwwww");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        assertEquals(4, geometry.getBoxCount());
+
+        CollisionGeometry.Box spikes = boxAt(geometry, 1, 4);
+        assertEquals(4, spikes.firstColumn);
+        assertEquals(5, spikes.lastColumn);
+        assertEquals(CollisionGeometry.TOP, spikes.exposed);
+
+        CollisionGeometry.Box walls = boxAt(geometry, 2, 0);
+        assertEquals(9, walls.lastColumn);
+        assertEquals(CollisionGeometry.BOTTOM | CollisionGeometry.LEFT | CollisionGeometry.RIGHT, walls.exposed);
+    }
+
+    /**
+     * Breaking a wall in the last column of a region opens up the side of the box in the next region beside it
+     */
+    @Test
+    public void removingWallOnRegionEdgeRecompilesNeighbour()
+    {
+        TestLevel level = new TestLevel(
+                "........................................",
+                "...............................w2.......",
+                "1111111111111111111111111111111111111111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        int wallColumn = CollisionGeometry.REGION_SIZE - 1;
+        CollisionGeometry.Box block = boxAt(geometry, 1, wallColumn + 1);
+        assertEquals(0, block.exposed & CollisionGeometry.LEFT);
+
+        level.removeTile(1, wallColumn);
+        geometry.tileChanged(1, wallColumn);
+
+        assertEquals(0, geometry.query(1, 1, wallColumn, wallColumn));
+        block = boxAt(geometry, 1, wallColumn + 1);
+        assertEquals(CollisionGeometry.LEFT, block.exposed & CollisionGeometry.LEFT);
+        //the floor under the wall can be stood on now
+        assertEquals(CollisionGeometry.TOP, boxAt(geometry, 2, wallColumn).exposed & CollisionGeometry.TOP);
+    }
+
+    /**
+     * Breaking a wall in the first row of a region opens up the bottom of the box in the region above it
+     */
+    @Test
+    public void removingWallOnRegionTopRecompilesRegionAbove()
+    {
+        String[] rows = new String[CollisionGeometry.REGION_SIZE + 2];
+        for(int i = 0; i < rows.length; ++i)
+        {
+            rows[i] = "....";
+        }
+        rows[CollisionGeometry.REGION_SIZE - 1] = ".2..";
+        rows[CollisionGeometry.REGION_SIZE] = ".w..";
+        rows[CollisionGeometry.REGION_SIZE + 1] = "1111";
+        TestLevel level = new TestLevel(rows);
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        int wallRow = CollisionGeometry.REGION_SIZE;
+        assertEquals(0, boxAt(geometry, wallRow - 1, 1).exposed & CollisionGeometry.BOTTOM);
+
+        level.removeTile(wallRow, 1);
+        geometry.tileChanged(wallRow, 1);
+
+        assertEquals(CollisionGeometry.BOTTOM, boxAt(geometry, wallRow - 1, 1).exposed & CollisionGeometry.BOTTOM);
+    }
+
+    /**
+     * A query returns each box once, however many of its tiles are in the range
+     */
+    @Test
+    public void queryFindsEachBoxOnce()
+    {
+        TestLevel level = new TestLevel(
+                "22..",
+                "22..",
+                "1111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        assertEquals(2, geometry.query(0, 2, 0, 3));
+        assertEquals(1, geometry.query(0, 1, 0, 1));
+        assertEquals(0, geometry.query(0, 1, 2, 3));
+    }
+}
@@ -0,0 +1,201 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the simulation side of the game on a plain JVM: a level is read, its collision geometry compiled, and entities
+ * spawned from it are stepped with the fixed timestep, gravity, movement and tile collisions, the same order
+ * BladeDashRenderer runs them in. Nothing here needs Android or OpenGL.
+ * @author Braeden Ruff
+ */
+public class HeadlessSimulationTest
+{
+    //the level: two slimes over a floor that crosses a region edge, and a wall to walk into
+    private static final String[] LEVEL = {
+            "..........................................2..",
+            "..s.................................s.....2..",
+            "..........................................2..",
+            "111111111111111111111111111111111111111111111"
+    };
+
+    //the same as the game, 120 steps a second and half a tile the furthest anything moves in one
+    private static final int TICK_RATE = FixedTimestep.DEFAULT_TICK_RATE;
+    private static final long NANOS_PER_FRAME = 1000000000L / 60;
+
+    //the level and what is in it
+    private TestLevel level;
+    private CollisionGeometry geometry;
+    private EntityList<Crate> crates;
+    private SpatialHash<Crate> hash;
+
+    /**
+     * Something that falls and slides, sized like a slime
+     */
+    private static final class Crate extends Entity
+    {
+        //what the last collision pass hit
+        int lastHit;
+
+        /**
+         * This is the constructor for a crate
+         * @param x where it starts on the x-axis
+         * @param y where it starts on the y-axis, as in the level (not negated)
+         */
+        Crate(float x, float y)
+        {
+            super(TestLevel.TILE_SIZE / 2);
+            setMaxVelocity(10 * TestLevel.TILE_SIZE);
+            setSize(TestLevel.TILE_SIZE, TestLevel.TILE_SIZE);
+            setWorldLocation(x, y);
+        }
+    }
+
+    /**
+     * Loads the level and spawns a crate at every spawn in it
+     */
+    @Before
+    public void loadLevel()
+    {
+        level = new TestLevel(LEVEL);
+        geometry = new CollisionGeometry(level, level.getOccupancy());
+        crates = new EntityList<>();
+        hash = new SpatialHash<>(TestLevel.TILE_SIZE, 64);
+        LevelData data = level.getData();
+        for(int i = 0; i < data.getSpawnCount(); ++i)
+        {
+            Crate crate = new Crate(data.getSpawnColumn(i) * TestLevel.TILE_SIZE, data.getSpawnRow(i) * TestLevel.TILE_SIZE);
+            crates.add(crate);
+            hash.insert(crate);
+        }
+    }
+
+    /**
+     * Steps every crate once
+     */
+    private void step()
+    {
+        for(int i = 0; i < crates.size(); ++i)
+        {
+            Crate crate = crates.get(i);
+            crate.savePreviousWorldLocation();
+            crate.applyGravity(TICK_RATE);
+            crate.move(TICK_RATE);
+            crate.lastHit = TileCollider.resolve(crate, geometry, null);
+            hash.update(crate);
+        }
+        crates.flushKills();
+    }
+
+    /**
+     * Runs the simulation like the game loop does, for some frames at 60 frames a second
+     * @param frames how many frames to run
+     */
+    private void runFrames(int frames)
+    {
+        FixedTimestep timestep = new FixedTimestep();
+        long now = 0;
+        timestep.advance(now);
+        for(int f = 0; f < frames; ++f)
+        {
+            now += NANOS_PER_FRAME;
+            int steps = timestep.advance(now);
+            for(int s = 0; s < steps; ++s)
+            {
+                step();
+            }
+        }
+    }
+
+    /**
+     * The crates read from the level fall and come to rest on top of the floor
+     */
+    @Test
+    public void spawnsFallOntoTheFloor()
+    {
+        assertEquals(2, crates.size());
+        runFrames(120);
+
+        //the floor is row 3, its top is half a tile above its centre and the crate's centre is half a crate above that
+        float restingY = -3 * TestLevel.TILE_SIZE + TestLevel.TILE_SIZE / 2 + TestLevel.TILE_SIZE / 2;
+        for(int i = 0; i < crates.size(); ++i)
+        {
+            Crate crate = crates.get(i);
+            assertEquals(restingY, crate.getY(), 1e-3f);
+            assertEquals(0, crate.getyVelocity(), 0);
+            assertTrue((crate.lastHit & TileCollider.LANDED) != 0);
+        }
+    }
+
+    /**
+     * A crate sliding along the floor crosses the region edge at column 32 without catching, then stops at the wall
+     */
+    @Test
+    public void slidesAlongTheFloorUntilTheWall()
+    {
+        runFrames(60);
+        Crate crate = crates.get(0);
+        for(int f = 0; f < 600; ++f)
+        {
+            crate.setxVelocity(crate.getMaxVelocity());
+            runFrames(1);
+            if((crate.lastHit & TileCollider.HIT_X) != 0)
+            {
+                break;
+            }
+        }
+
+        //the wall is column 42, the crate stops with its right side against the wall's left side
+        float wallLeft = 42 * TestLevel.TILE_SIZE - TestLevel.TILE_SIZE / 2;
+        assertEquals(wallLeft - crate.getWidth() / 2, crate.getX(), 1e-3f);
+        assertEquals(0, crate.getxVelocity(), 0);
+    }
+
+    /**
+     * The spatial hash keeps up with the crates as they move, and killed crates leave the list at the end of the step
+     */
+    @Test
+    public void spatialHashFollowsTheCrates()
+    {
+        runFrames(120);
+        Crate first = crates.get(0);
+        ArrayList<Crate> near = new ArrayList<>();
+        assertEquals(1, hash.queryRadius(first.getX(), first.getY(), TestLevel.TILE_SIZE, near));
+        assertTrue(near.get(0) == first);
+
+        crates.kill(first);
+        hash.remove(first);
+        step();
+        assertEquals(1, crates.size());
+        near.clear();
+        assertEquals(0, hash.queryRadius(first.getX(), first.getY(), TestLevel.TILE_SIZE, near));
+    }
+
+    /**
+     * A step of the simulation allocates nothing, so it can't bring garbage collector pauses back to the game loop
+     */
+    @Test
+    public void stepDoesNotAllocate()
+    {
+        runFrames(60);
+        AllocationCounter.assertNoAllocations("simulation step", new AllocationCounter.Frame()
+        {
+            @Override
+            public void run(int i)
+            {
+                //keep them sliding back and forth so the collisions and the hash have work to do
+                for(int c = 0; c < crates.size(); ++c)
+                {
+                    Crate crate = crates.get(c);
+                    crate.setxVelocity((i & 64) == 0 ? crate.getMaxVelocity() : -crate.getMaxVelocity());
+                }
+                step();
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks ModelMatrix against building the same matrices the long way (a translation matrix and a rotation matrix
+ * multiplied onto the viewport), which is what android.opengl.Matrix did before.
+ * @author Braeden Ruff
+ */
+public class ModelMatrixTest
+{
+    //a viewport matrix with every entry different, so a mixed up index shows
+    private static final float[] VIEWPORT = {
+            1, 2, 3, 4,
+            5, 6, 7, 8,
+            9, 10, 11, 12,
+            13, 14, 15, 16
+    };
+
+    /**
+     * Translating matches multiplying by a translation matrix
+     */
+    @Test
+    public void translateMatchesMultiplying()
+    {
+        float[] result = new float[16];
+        ModelMatrix.translate(result, VIEWPORT, 3, -7);
+        float[] translation = identity();
+        translation[12] = 3;
+        translation[13] = -7;
+        assertArrayEquals(multiply(VIEWPORT, translation), result, 1e-4f);
+    }
+
+    /**
+     * Translating and rotating matches multiplying by a translation matrix and then a rotation matrix of the negated angle
+     */
+    @Test
+    public void translateAndRotateMatchesMultiplying()
+    {
+        for(float angle = -360; angle <= 360; angle += 22.5f)
+        {
+            float[] result = new float[16];
+            ModelMatrix.translateAndRotate(result, VIEWPORT, 3, -7, angle);
+
+            float[] translation = identity();
+            translation[12] = 3;
+            translation[13] = -7;
+            double radians = Math.toRadians(-angle);
+            float[] rotation = identity();
+            rotation[0] = (float) Math.cos(radians);
+            rotation[1] = (float) Math.sin(radians);
+            rotation[4] = -(float) Math.sin(radians);
+            rotation[5] = (float) Math.cos(radians);
+            assertArrayEquals("angle " + angle, multiply(multiply(VIEWPORT, translation), rotation), result, 1e-3f);
+        }
+    }
+
+    /**
+     * This method makes an identity matrix
+     * @return the identity matrix
+     */
+    private static float[] identity()
+    {
+        float[] m = new float[16];
+        m[0] = m[5] = m[10] = m[15] = 1;
+        return m;
+    }
+
+    /**
+     * This method multiplies two column major matrices
+     * @param a the left matrix
+     * @param b the right matrix
+     * @return a * b
+     */
+    private static float[] multiply(float[] a, float[] b)
+    {
+        float[] result = new float[16];
+        for(int column = 0; column < 4; ++column)
+        {
+            for(int row = 0; row < 4; ++row)
+            {
+                float sum = 0;
+                for(int k = 0; k < 4; ++k)
+                {
+                    sum += a[k * 4 + row] * b[column * 4 + k];
+                }
+                result[column * 4 + row] = sum;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the bits of the occupancy grid, mostly the masks at the edges of the longs each row is stored in
+ * (columns 63 and 64, 127 and 128), where an off by one would miss a tile or see one from the next word.
+ * @author Braeden Ruff
+ */
+public class OccupancyGridTest
+{
+    //wide enough for three words a row, the last one partly used
+    private static final int ROWS = 3;
+    private static final int COLUMNS = 150;
+
+    /**
+     * A tile at the end of a word is found by ranges that end on it and not by ranges that start after it
+     */
+    @Test
+    public void lastBitOfAWord()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(1, 63, true, false);
+
+        assertEquals(COLUMNS + 63, grid.firstSolid(1, 1, 0, 63));
+        assertEquals(COLUMNS + 63, grid.firstSolid(1, 1, 63, 63));
+        assertEquals(COLUMNS + 63, grid.firstSolid(1, 1, 63, 64));
+        assertEquals(COLUMNS + 63, grid.firstSolid(0, 2, 60, 70));
+        assertEquals(-1, grid.firstSolid(1, 1, 64, 64));
+        assertEquals(-1, grid.firstSolid(1, 1, 64, 149));
+        assertEquals(-1, grid.firstSolid(1, 1, 0, 62));
+        assertFalse(grid.anySolid(0, 0, 0, COLUMNS - 1));
+        assertFalse(grid.anySolid(2, 2, 0, COLUMNS - 1));
+    }
+
+    /**
+     * A tile at the start of a word is found by ranges that start on it and not by ranges that end before it
+     */
+    @Test
+    public void firstBitOfAWord()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(1, 64, true, false);
+
+        assertEquals(COLUMNS + 64, grid.firstSolid(1, 1, 64, 64));
+        assertEquals(COLUMNS + 64, grid.firstSolid(1, 1, 63, 64));
+        assertEquals(COLUMNS + 64, grid.firstSolid(1, 1, 0, 149));
+        assertEquals(COLUMNS + 64, grid.firstSolid(1, 1, 64, 127));
+        assertEquals(-1, grid.firstSolid(1, 1, 0, 63));
+        assertEquals(-1, grid.firstSolid(1, 1, 63, 63));
+        assertEquals(-1, grid.firstSolid(1, 1, 65, 149));
+    }
+
+    /**
+     * The second word boundary, and a range spanning all three words finds the first tile going left to right
+     */
+    @Test
+    public void rangesAcrossSeveralWords()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(0, 128, true, false);
+        grid.set(0, 127, true, false);
+
+        assertEquals(127, grid.firstSolid(0, 0, 0, 149));
+        assertEquals(127, grid.firstSolid(0, 0, 127, 127));
+        assertEquals(128, grid.firstSolid(0, 0, 128, 128));
+        assertEquals(128, grid.firstSolid(0, 0, 128, 149));
+        assertEquals(-1, grid.firstSolid(0, 0, 64, 126));
+        assertEquals(-1, grid.firstSolid(0, 0, 129, 149));
+    }
+
+    /**
+     * The last column of a row that doesn't fill its last word, with the row below starting a new word
+     */
+    @Test
+    public void lastColumnOfTheLevel()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(0, COLUMNS - 1, true, false);
+
+        assertTrue(grid.isSolid(0, COLUMNS - 1));
+        assertFalse(grid.isSolid(1, 0));
+        assertEquals(COLUMNS - 1, grid.firstSolid(0, 2, COLUMNS - 1, COLUMNS - 1));
+        assertEquals(-1, grid.firstSolid(1, 2, 0, COLUMNS - 1));
+    }
+
+    /**
+     * Ranges poking out of the level are clamped to it, and nothing outside the level is solid or deadly
+     */
+    @Test
+    public void outsideTheLevel()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(0, 0, true, true);
+
+        assertEquals(0, grid.firstSolid(-5, 1, -5, 1));
+        assertTrue(grid.anyDeadly(-1, 0, -1, 0));
+        assertEquals(-1, grid.firstSolid(ROWS, ROWS + 4, 0, COLUMNS - 1));
+        assertEquals(-1, grid.firstSolid(0, ROWS - 1, COLUMNS, COLUMNS + 64));
+        assertFalse(grid.isSolid(-1, 0));
+        assertFalse(grid.isSolid(0, -1));
+        assertFalse(grid.isSolid(0, COLUMNS));
+        assertFalse(grid.isDeadly(ROWS, 0));
+        //column 64 of a row is a real bit in the second word, but as column -64 it mustn't wrap round to it
+        grid.set(1, 64, true, true);
+        assertFalse(grid.isSolid(1, -64));
+    }
+
+    /**
+     * allSolid needs every tile of the range, across word edges, and anything outside the level isn't solid
+     */
+    @Test
+    public void allSolidAcrossWords()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        for(int j = 60; j <= 130; ++j)
+        {
+            grid.set(1, j, true, false);
+        }
+
+        assertTrue(grid.allSolid(1, 1, 60, 130));
+        assertTrue(grid.allSolid(1, 1, 63, 64));
+        assertTrue(grid.allSolid(1, 1, 64, 64));
+        assertFalse(grid.allSolid(1, 1, 59, 63));
+        assertFalse(grid.allSolid(1, 1, 128, 131));
+        assertFalse(grid.allSolid(0, 1, 60, 130));
+        assertFalse(grid.allSolid(1, 1, -1, 64));
+
+        grid.set(1, 64, false, false);
+        assertFalse(grid.allSolid(1, 1, 60, 130));
+        assertFalse(grid.allSolid(1, 1, 64, 64));
+        assertTrue(grid.allSolid(1, 1, 60, 63));
+        assertTrue(grid.allSolid(1, 1, 65, 127));
+    }
+
+    /**
+     * Solid and deadly are kept apart, and setting a tile again clears what it was
+     */
+    @Test
+    public void solidAndDeadlyAreSeparate()
+    {
+        OccupancyGrid grid = new OccupancyGrid(ROWS, COLUMNS);
+        grid.set(2, 70, true, false);
+        grid.set(2, 71, true, true);
+
+        assertTrue(grid.isSolid(2, 70));
+        assertFalse(grid.isDeadly(2, 70));
+        assertTrue(grid.isDeadly(2, 71));
+        assertFalse(grid.anyDeadly(2, 2, 0, 70));
+        assertTrue(grid.anyDeadly(2, 2, 71, 71));
+
+        grid.set(2, 71, false, false);
+        assertFalse(grid.isSolid(2, 71));
+        assertFalse(grid.anyDeadly(0, ROWS - 1, 0, COLUMNS - 1));
+        assertEquals(2 * COLUMNS + 70, grid.firstSolid(0, ROWS - 1, 0, COLUMNS - 1));
+    }
+}
@@ -0,0 +1,102 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Checks that the code run every frame for drawing and touch input doesn't allocate, so it can't bring back the
+ * garbage collector pauses removing those allocations fixed. Fails as soon as one of them starts allocating again.
+ * @author Braeden Ruff
+ */
+public class PerFrameAllocationTest
+{
+    //a viewport matrix like orthoM() makes for a 1920x1080 screen
+    private static final float[] VIEWPORT = {
+            2f / 1920, 0, 0, 0,
+            0, 2f / 1080, 0, 0,
+            0, 0, -1, 0,
+            -1, -1, 0, 1
+    };
+
+    /**
+     * The translation every object is drawn with
+     */
+    @Test
+    public void translateDoesNotAllocate()
+    {
+        final float[] result = new float[16];
+        AllocationCounter.assertNoAllocations("ModelMatrix.translate", new AllocationCounter.Frame()
+        {
+            @Override
+            public void run(int i)
+            {
+                ModelMatrix.translate(result, VIEWPORT, i % 1920, i % 1080);
+            }
+        });
+    }
+
+    /**
+     * The translation and rotation the slash is drawn with
+     */
+    @Test
+    public void translateAndRotateDoesNotAllocate()
+    {
+        final float[] result = new float[16];
+        AllocationCounter.assertNoAllocations("ModelMatrix.translateAndRotate", new AllocationCounter.Frame()
+        {
+            @Override
+            public void run(int i)
+            {
+                ModelMatrix.translateAndRotate(result, VIEWPORT, i % 1920, i % 1080, i % 360);
+            }
+        });
+    }
+
+    /**
+     * Touches being queued by the UI thread and applied by the simulation thread, a few pointers a frame
+     */
+    @Test
+    public void inputQueueDoesNotAllocate()
+    {
+        final InputQueue queue = new InputQueue();
+        AllocationCounter.assertNoAllocations("InputQueue", new AllocationCounter.Frame()
+        {
+            @Override
+            public void run(int i)
+            {
+                for(int pointer = 0; pointer < 3; ++pointer)
+                {
+                    queue.offer(2, 0, pointer, i, pointer);
+                }
+                InputCommand command;
+                int pointer = 0;
+                while((command = queue.peek()) != null)
+                {
+                    assertEquals(pointer++, command.pointerId);
+                    queue.release();
+                }
+                assertNull(queue.peek());
+            }
+        });
+        assertEquals(0, queue.getDropped());
+    }
+
+    /**
+     * Working out which way the joystick is pushed, done for every move event
+     */
+    @Test
+    public void getScreenAngleDoesNotAllocate()
+    {
+        final double[] sink = new double[1];
+        AllocationCounter.assertNoAllocations("TouchMath.getScreenAngle", new AllocationCounter.Frame()
+        {
+            @Override
+            public void run(int i)
+            {
+                sink[0] += TouchMath.getScreenAngle(200, 800, i % 1920, i % 1080, 1920, 1080);
+            }
+        });
+    }
+}
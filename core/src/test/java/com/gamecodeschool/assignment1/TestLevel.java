@@ -0,0 +1,197 @@
+package com.gamecodeschool.assignment1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A level for the tests, written as rows of the same symbols as app/src/main/levels and compiled into a level file the
+ * way the compileLevels task does, then read back with LevelData. It is also the TileGrid the collision code works on,
+ * with the same collision groups the game gives its tile types (spikes and breakable walls get their own).
+ * @author Braeden Ruff
+ */
+final class TestLevel implements TileGrid
+{
+    //how big a tile is, the same as the game's pixels per meter
+    static final float TILE_SIZE = 14;
+
+    //the symbols that are tiles, everything else (other than '.') is a spawn
+    private static final String TILE_SYMBOLS = "1234wd";
+
+    //the level that was read back
+    private final LevelData data;
+
+    //which tiles are solid, kept up to date by removeTile()
+    private final OccupancyGrid occupancy;
+
+    //the tiles that were removed, they have no collision group any more
+    private final boolean[] removed;
+
+    /**
+     * This is the constructor for a test level
+     * @param rows the rows of the level, all the same length
+     */
+    TestLevel(String... rows)
+    {
+        data = compile(rows);
+        occupancy = new OccupancyGrid(data.getRows(), data.getColumns());
+        removed = new boolean[data.getRows() * data.getColumns()];
+        for(int i = 0; i < data.getRows(); ++i)
+        {
+            for(int j = 0; j < data.getColumns(); ++j)
+            {
+                occupancy.set(i, j, isSolid(i, j), data.getTile(i, j) == 'd');
+            }
+        }
+    }
+
+    /**
+     * This method writes the rows as a level file and reads it back
+     * @param rows the rows of the level
+     * @return the level
+     */
+    private static LevelData compile(String[] rows)
+    {
+        int columns = rows[0].length();
+        byte[] tiles = new byte[rows.length * columns];
+        ByteArrayOutputStream spawns = new ByteArrayOutputStream();
+        DataOutputStream spawnData = new DataOutputStream(spawns);
+        int spawnCount = 0;
+        try
+        {
+            //spawns are in column order, like the compileLevels task writes them
+            for(int j = 0; j < columns; ++j)
+            {
+                for(int i = 0; i < rows.length; ++i)
+                {
+                    char symbol = rows[i].charAt(j);
+                    tiles[i * columns + j] = LevelData.EMPTY;
+                    if(TILE_SYMBOLS.indexOf(symbol) != -1)
+                    {
+                        tiles[i * columns + j] = (byte) symbol;
+                    }
+                    else if(symbol != '.')
+                    {
+                        spawnData.writeByte(symbol);
+                        spawnData.writeShort(i);
+                        spawnData.writeShort(j);
+                        ++spawnCount;
+                    }
+                }
+            }
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(LevelData.MAGIC);
+            out.writeInt(LevelData.VERSION);
+            out.writeInt(rows.length);
+            out.writeInt(columns);
+            out.write(tiles);
+            out.writeInt(spawnCount);
+            out.write(spawns.toByteArray());
+            return LevelData.read(new ByteArrayInputStream(file.toByteArray()));
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * This method takes a tile out of the level, like slashing a breakable wall. The caller tells the collision geometry
+     * @param row the row of the tile
+     * @param column the column of the tile
+     */
+    void removeTile(int row, int column)
+    {
+        removed[row * data.getColumns() + column] = true;
+        occupancy.set(row, column, false, false);
+    }
+
+    /**
+     * This method gets the level that was read
+     * @return the level data
+     */
+    LevelData getData()
+    {
+        return data;
+    }
+
+    /**
+     * This method gets which tiles are solid
+     * @return the occupancy grid
+     */
+    OccupancyGrid getOccupancy()
+    {
+        return occupancy;
+    }
+
+    /**
+     * This method gets how many rows the level has
+     * @return the number of rows
+     */
+    @Override
+    public int getRows()
+    {
+        return data.getRows();
+    }
+
+    /**
+     * This method gets how many columns the level has
+     * @return the number of columns
+     */
+    @Override
+    public int getColumns()
+    {
+        return data.getColumns();
+    }
+
+    /**
+     * This method gets how big each tile is
+     * @return the width and height of a tile
+     */
+    @Override
+    public float getTileSize()
+    {
+        return TILE_SIZE;
+    }
+
+    /**
+     * This method checks if there is a tile to collide with
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return true if the tile is there and hasn't been removed
+     */
+    @Override
+    public boolean isSolid(int row, int column)
+    {
+        return getCollisionGroup(row, column) != 0;
+    }
+
+    /**
+     * This method gets which collision group a tile is in, the same groups as TileType.getCollisionGroup()
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @return 2 for spikes, 3 for breakable walls, 1 for other tiles and 0 for nothing
+     */
+    @Override
+    public int getCollisionGroup(int row, int column)
+    {
+        if(row < 0 || row >= getRows() || column < 0 || column >= getColumns() || removed[row * getColumns() + column])
+        {
+            return 0;
+        }
+        switch (data.getTile(row, column))
+        {
+            case (char) LevelData.EMPTY:
+                return 0;
+            case 'd':
+                return 2;
+            case 'w':
+                return 3;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.gamecodeschool.assignment1;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks that bodies are pushed out of the collision boxes the right way, and that the seams between boxes
+ * (region edges and changes of group) can't catch a body sliding over them.
+ * @author Braeden Ruff
+ */
+public class TileColliderTest
+{
+    //how big the bodies are, a tile like a slime
+    private static final float SIZE = TestLevel.TILE_SIZE;
+
+    /**
+     * This method makes a body at a place
+     * @param x the centre on the x-axis
+     * @param y the centre on the y-axis, as stored (negative going down)
+     * @return the body
+     */
+    private static Entity body(float x, float y)
+    {
+        Entity body = new Entity(TestLevel.TILE_SIZE / 2)
+        {
+        };
+        body.setSize(SIZE, SIZE);
+        body.setPosition(x, y);
+        return body;
+    }
+
+    /**
+     * This method gets where the centre of a body standing on a row is
+     * @param row the row the body stands on
+     * @return the y-coordinate of its centre
+     */
+    private static float standingOn(int row)
+    {
+        return -row * TestLevel.TILE_SIZE + TestLevel.TILE_SIZE / 2 + SIZE / 2;
+    }
+
+    /**
+     * A body sliding along a floor made of several boxes (across a region edge and over breakable walls set into it)
+     * only ever lands on it, it never hits a side and keeps its speed
+     */
+    @Test
+    public void slidesAlongMultiBoxFloorWithoutSnagging()
+    {
+        TestLevel level = new TestLevel(
+                "..................................................",
+                "..................................................",
+                "1111111111111111111111111111www111111111111wwwww11");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        Entity body = body(SIZE, standingOn(2));
+        //small steps, so the body is at some point barely past each seam, where a side that could be hit would catch it
+        float speed = 0.25f;
+        body.setxVelocity(speed);
+        while(body.getX() < 47 * TestLevel.TILE_SIZE)
+        {
+            //sink into the floor a little every step like gravity does
+            body.setPosition(body.getX() + speed, body.getY() - 0.5f);
+            body.setyVelocity(-60);
+            int hit = TileCollider.resolve(body, geometry, null);
+            assertEquals("at x " + body.getX(), TileCollider.HIT_Y | TileCollider.LANDED, hit);
+            assertEquals(speed, body.getxVelocity(), 0);
+            assertEquals(0, body.getyVelocity(), 0);
+            assertEquals(standingOn(2), body.getY(), 1e-3f);
+        }
+    }
+
+    /**
+     * This method slides a body along the top of row 2 of a level, sinking into it a little every step like gravity
+     * does, and fails if it is ever stopped or pushed sideways
+     * @param rows the level
+     * @param speed how far to move each step, negative to go left
+     */
+    private static void assertSlidesAlong(String[] rows, float speed)
+    {
+        TestLevel level = new TestLevel(rows);
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        float start = speed > 0 ? 1 : rows[0].length() - 2;
+        float end = speed > 0 ? rows[0].length() - 2 : 1;
+        Entity body = body(start * TestLevel.TILE_SIZE, standingOn(2));
+        body.setxVelocity(speed);
+        final int[] sides = new int[4];
+        TileCollider.Listener listener = new TileCollider.Listener()
+        {
+            @Override
+            public boolean onTileCollision(Body body, int row, int column, int side)
+            {
+                ++sides[side];
+                return false;
+            }
+        };
+        while(speed > 0 ? body.getX() < end * TestLevel.TILE_SIZE : body.getX() > end * TestLevel.TILE_SIZE)
+        {
+            body.setPosition(body.getX() + speed, body.getY() - 0.5f);
+            body.setyVelocity(-60);
+            int hit = TileCollider.resolve(body, geometry, listener);
+            assertEquals("at x " + body.getX(), TileCollider.HIT_Y | TileCollider.LANDED, hit);
+            assertEquals(speed, body.getxVelocity(), 0);
+            assertEquals(standingOn(2), body.getY(), 1e-3f);
+        }
+        //the listener only ever heard about landing, nothing to start a wall slide
+        assertEquals(0, sides[TileCollider.LEFT] + sides[TileCollider.RIGHT] + sides[TileCollider.TOP]);
+    }
+
+    /**
+     * Grass two tiles deep meeting breakable walls one tile deep: the side of the grass is open below the walls,
+     * but not where the body crosses it
+     */
+    @Test
+    public void slidesOverFloorsOfDifferentDepths()
+    {
+        String[] rows = {
+                "....................",
+                "....................",
+                "1111111111wwwww11111",
+                "1111111111.....11111"
+        };
+        assertSlidesAlong(rows, 0.25f);
+        assertSlidesAlong(rows, -0.25f);
+    }
+
+    /**
+     * A floor two tiles deep in one region meeting a floor one tile deep in the next
+     */
+    @Test
+    public void slidesOverFloorsOfDifferentDepthsAcrossARegionEdge()
+    {
+        String[] rows = {
+                "........................................",
+                "........................................",
+                "1111111111111111111111111111111111111111",
+                "11111111111111111111111111111111........"
+        };
+        assertSlidesAlong(rows, 0.25f);
+        assertSlidesAlong(rows, -0.25f);
+    }
+
+    /**
+     * Walking into a wall pushes the body back out the side it came in, and stops it
+     */
+    @Test
+    public void wallStopsTheBody()
+    {
+        TestLevel level = new TestLevel(
+                "......2...",
+                "......2...",
+                "1111111111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        float wallLeft = 6 * TestLevel.TILE_SIZE - TestLevel.TILE_SIZE / 2;
+        Entity body = body(wallLeft - SIZE / 2 + 2, -TestLevel.TILE_SIZE);
+        body.setxVelocity(20);
+
+        assertEquals(TileCollider.HIT_X, TileCollider.resolve(body, geometry, null));
+        assertEquals(wallLeft - SIZE / 2, body.getX(), 1e-3f);
+        assertEquals(0, body.getxVelocity(), 0);
+    }
+
+    /**
+     * Jumping into a ceiling pushes the body down and stops it going up
+     */
+    @Test
+    public void ceilingStopsTheJump()
+    {
+        TestLevel level = new TestLevel(
+                "1111",
+                "....",
+                "....",
+                "1111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        float ceiling = -TestLevel.TILE_SIZE / 2;
+        Entity body = body(1.5f * TestLevel.TILE_SIZE, ceiling - SIZE / 2 + 1);
+        body.setyVelocity(50);
+
+        assertEquals(TileCollider.HIT_Y, TileCollider.resolve(body, geometry, null));
+        assertEquals(ceiling - SIZE / 2, body.getY(), 1e-3f);
+        assertEquals(0, body.getyVelocity(), 0);
+    }
+
+    /**
+     * The listener hears about the tile that was hit, and can stop the pass before the body is pushed
+     */
+    @Test
+    public void listenerCanStopThePass()
+    {
+        TestLevel level = new TestLevel(
+                "....",
+                "....",
+                "1dd1");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        float y = standingOn(2) - 1;
+        Entity body = body(1.5f * TestLevel.TILE_SIZE, y);
+        final int[] tile = new int[3];
+        int hit = TileCollider.resolve(body, geometry, new TileCollider.Listener()
+        {
+            @Override
+            public boolean onTileCollision(Body body, int row, int column, int side)
+            {
+                tile[0] = row;
+                tile[1] = column;
+                tile[2] = side;
+                return true;
+            }
+        });
+
+        assertEquals(TileCollider.STOPPED, hit);
+        assertEquals(2, tile[0]);
+        assertEquals(2, tile[1]);
+        assertEquals(TileCollider.BOTTOM, tile[2]);
+        assertEquals(y, body.getY(), 0);
+    }
+
+    /**
+     * A body nowhere near a tile isn't touched
+     */
+    @Test
+    public void nothingNearbyIsNoHit()
+    {
+        TestLevel level = new TestLevel(
+                "........",
+                "........",
+                "........",
+                "11111111");
+        CollisionGeometry geometry = new CollisionGeometry(level, level.getOccupancy());
+        Entity body = body(3 * TestLevel.TILE_SIZE, 0);
+        body.setyVelocity(-10);
+
+        assertEquals(0, TileCollider.resolve(body, geometry, null));
+        assertEquals(-10, body.getyVelocity(), 0);
+    }
+}